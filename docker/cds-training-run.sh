@@ -0,0 +1,44 @@
+#!/bin/sh
+# Training run for the fast-start image, run by: mvn -Pfast-start package
+# Boots the image Jib built without an archive once and dumps every class it loaded into a class-data-sharing
+# archive. The JVM only maps an archive dumped by the same JVM build for jars at the same paths with the same sizes and
+# modification times; Jib lays out the application the same way on every build, so the archive fits the image
+# jib:build makes next, which adds it under /app/cds.
+#
+# Usage: cds-training-run.sh <image tarball> <image name> <archive directory>
+set -eu
+
+image_tar=$1
+image=$2
+cds_dir=$3
+run=movie-trailer-cds-$$
+
+cleanup() {
+    docker rm -f "$run-postgres" > /dev/null 2>&1 || true
+    docker network rm "$run" > /dev/null 2>&1 || true
+    docker image rm "$image" > /dev/null 2>&1 || true
+}
+trap cleanup EXIT
+
+rm -rf "$cds_dir"
+mkdir -p "$cds_dir"
+docker load --quiet --input "$image_tar" > /dev/null
+
+# AOT fixed Flyway and JPA on, so the context only refreshes against a database; a throwaway one takes the migrations
+docker network create "$run" > /dev/null
+docker run -d --name "$run-postgres" --network "$run" \
+    -e POSTGRES_DB=movie_trailers -e POSTGRES_USER=training -e POSTGRES_PASSWORD=training \
+    postgres:18.0-alpine3.22 > /dev/null
+# The image's init server only listens on the socket, so a TCP check waits for the real one
+until docker exec "$run-postgres" pg_isready -h 127.0.0.1 -U training -d movie_trailers > /dev/null 2>&1; do
+    sleep 1
+done
+
+# spring.context.exit stops after the refresh, so the archive holds what a boot loads and nothing a request would
+docker run --rm --network "$run" --user "$(id -u):$(id -g)" -v "$cds_dir:/app/cds" \
+    -e JAVA_TOOL_OPTIONS="-XX:ArchiveClassesAtExit=/app/cds/movie-trailer.jsa -Dspring.context.exit=onRefresh" \
+    -e SPRING_DATASOURCE_URL="jdbc:postgresql://$run-postgres:5432/movie_trailers" \
+    -e SPRING_DATASOURCE_USERNAME=training -e SPRING_DATASOURCE_PASSWORD=training \
+    -e STORAGE_LOCATION=/tmp/assets \
+    "$image"
+test -s "$cds_dir/movie-trailer.jsa"
@@ -0,0 +1,113 @@
+package id.my.hendisantika.movietrailer.jmh;
+
+import id.my.hendisantika.movietrailer.MovieTrailerApplication;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Loads movies with their genres through the repository, from the query to mapped entities.
+ * Starts the application without a web server against a Postgres container, the same way the integration tests do.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MovieRepositoryBenchmark {
+
+    private static final int CATALOG_SIZE = 5_000;
+
+    private PostgreSQLContainer<?> postgres;
+
+    private ConfigurableApplicationContext context;
+
+    private MovieRepository movieRepository;
+
+    private List<Integer> ids;
+
+    private final Random random = new Random(7);
+
+    @Setup
+    public void setUp() {
+        postgres = new PostgreSQLContainer<>("postgres:18.0-alpine3.22");
+        postgres.start();
+        context = new SpringApplicationBuilder(MovieTrailerApplication.class)
+                .web(WebApplicationType.NONE)
+                .profiles("test")
+                .properties(
+                        "spring.datasource.url=" + postgres.getJdbcUrl(),
+                        "spring.datasource.username=" + postgres.getUsername(),
+                        "spring.datasource.password=" + postgres.getPassword(),
+                        "spring.jpa.show-sql=false",
+                        "spring.jpa.properties.hibernate.generate_statistics=false",
+                        "logging.level.root=WARN")
+                .run();
+        movieRepository = context.getBean(MovieRepository.class);
+
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        Random seed = new Random(42);
+        List<Object[]> rows = new ArrayList<>(CATALOG_SIZE);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{"Movie " + i, "Synopsis of movie " + i,
+                    Date.valueOf(LocalDate.of(1950, 1, 1).plusDays(seed.nextInt(27_000))), "trailer", "cover.jpg"});
+        }
+        jdbcTemplate.batchUpdate("insert into movie (title, sinopsis, premiere_date, youtube_trailer_id, route_cover)"
+                + " values (?, ?, ?, ?, ?)", rows);
+        jdbcTemplate.update("insert into genre_movie (movie_id, id_genre) select id, 1 + id % 5 from movie");
+        jdbcTemplate.update("insert into genre_movie (movie_id, id_genre) select id, 1 + (id + 2) % 5 from movie"
+                + " where id % 3 = 0");
+        jdbcTemplate.execute("analyze");
+        ids = jdbcTemplate.queryForList("select id from movie", Integer.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+        postgres.stop();
+    }
+
+    @Benchmark
+    public Movie findWithGenresById() {
+        return movieRepository.findWithGenresById(ids.get(random.nextInt(ids.size()))).orElseThrow();
+    }
+
+    @Benchmark
+    public void findPageWithGenres(Blackhole blackhole) {
+        PageRequest pageable = PageRequest.of(random.nextInt(50), 20, Sort.by(Sort.Direction.DESC, "premiereDate"));
+        movieRepository.findPageWithGenres(pageable).forEach(movie -> blackhole.consume(movie.getGenres().size()));
+    }
+
+    @Benchmark
+    public void findAllWithGenresInOrder(Blackhole blackhole) {
+        int from = random.nextInt(ids.size() - 20);
+        movieRepository.findAllWithGenresInOrder(ids.subList(from, from + 20))
+                .forEach(movie -> blackhole.consume(movie.getGenres().size()));
+    }
+}
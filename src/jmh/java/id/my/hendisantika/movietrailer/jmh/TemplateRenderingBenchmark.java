@@ -0,0 +1,155 @@
+package id.my.hendisantika.movietrailer.jmh;
+
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.service.GenreFilter;
+import id.my.hendisantika.movietrailer.service.GenreMatch;
+import id.my.hendisantika.movietrailer.service.MovieWindow;
+import nz.net.ultraq.thymeleaf.layoutdialect.LayoutDialect;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.support.ResourceBundleMessageSource;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.MockServletContext;
+import org.springframework.web.context.support.StaticWebApplicationContext;
+import org.springframework.web.servlet.DispatcherServlet;
+import org.springframework.web.servlet.View;
+import org.thymeleaf.dialect.springdata.SpringDataDialect;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+import org.thymeleaf.spring6.view.ThymeleafViewResolver;
+import org.thymeleaf.templateresolver.ClassLoaderTemplateResolver;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renders movies.html and movie.html through the same ThymeleafView path a request takes, with template caching on
+ * as in production and models shaped like the controller's. Measures template work only; no database is involved.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+// The layout dialect takes a few seconds of rendering before its call sites settle
+@Warmup(iterations = 5, time = 5)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TemplateRenderingBenchmark {
+
+    private StaticWebApplicationContext applicationContext;
+
+    private View moviesView;
+
+    private View movieView;
+
+    private Map<String, Object> windowModel;
+
+    private Map<String, Object> pageModel;
+
+    private Map<String, Object> movieModel;
+
+    @Setup
+    public void setUp() throws Exception {
+        MockServletContext servletContext = new MockServletContext();
+        applicationContext = new StaticWebApplicationContext();
+        applicationContext.setServletContext(servletContext);
+        applicationContext.refresh();
+
+        ResourceBundleMessageSource messageSource = new ResourceBundleMessageSource();
+        messageSource.setBasename("messages");
+        messageSource.setDefaultEncoding(StandardCharsets.UTF_8.name());
+
+        ClassLoaderTemplateResolver templateResolver = new ClassLoaderTemplateResolver();
+        templateResolver.setPrefix("templates/");
+        templateResolver.setSuffix(".html");
+        templateResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        templateResolver.setCacheable(true);
+
+        SpringTemplateEngine templateEngine = new SpringTemplateEngine();
+        templateEngine.setTemplateResolver(templateResolver);
+        templateEngine.setTemplateEngineMessageSource(messageSource);
+        templateEngine.addDialect(new LayoutDialect());
+        templateEngine.addDialect(new SpringDataDialect());
+
+        ThymeleafViewResolver viewResolver = new ThymeleafViewResolver();
+        viewResolver.setTemplateEngine(templateEngine);
+        viewResolver.setApplicationContext(applicationContext);
+        viewResolver.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        moviesView = viewResolver.resolveViewName("movies", Locale.ENGLISH);
+        movieView = viewResolver.resolveViewName("movie", Locale.ENGLISH);
+
+        List<Genre> genres = List.of(new Genre(1, "ACTION"), new Genre(2, "COMEDY"), new Genre(3, "HORROR"),
+                new Genre(4, "THRILLER"), new Genre(5, "ADVENTURE"));
+        List<Movie> movies = movies(genres, 20);
+        windowModel = Map.of(
+                "movies", movies,
+                "window", new MovieWindow<>(movies, 20, "cHJldmlvdXM", "bmV4dA"),
+                "genres", genres,
+                "genreFilter", GenreFilter.of(List.of(1, 4), GenreMatch.ANY));
+        pageModel = Map.of("movies", new PageImpl<>(movies,
+                PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "premiereDate")), 5_000));
+        movieModel = Map.of("movie", movies.getFirst());
+    }
+
+    @TearDown
+    public void tearDown() {
+        applicationContext.close();
+    }
+
+    @Benchmark
+    public int moviesWindow() throws Exception {
+        return render(moviesView, windowModel, "/movies");
+    }
+
+    @Benchmark
+    public int moviesNumberedPage() throws Exception {
+        return render(moviesView, pageModel, "/movies");
+    }
+
+    @Benchmark
+    public int movieDetails() throws Exception {
+        return render(movieView, movieModel, "/movies/1");
+    }
+
+    private int render(View view, Map<String, Object> model, String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest(applicationContext.getServletContext(), "GET", path);
+        request.setAttribute(DispatcherServlet.WEB_APPLICATION_CONTEXT_ATTRIBUTE, applicationContext);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        view.render(model, request, response);
+        return response.getContentAsByteArray().length;
+    }
+
+    private static List<Movie> movies(List<Genre> genres, int count) {
+        Random random = new Random(42);
+        List<Movie> movies = new ArrayList<>(count);
+        for (int i = 1; i <= count; i++) {
+            List<Genre> movieGenres = new ArrayList<>(List.of(genres.get(random.nextInt(genres.size()))));
+            if (random.nextBoolean()) {
+                movieGenres.add(genres.get(random.nextInt(genres.size())));
+            }
+            movies.add(new Movie(i, "Movie title number " + i,
+                    "A synopsis long enough to wrap over a few lines of the card, as the real ones do. ".repeat(4),
+                    LocalDate.of(2000, 1, 1).plusDays(random.nextInt(9_000)), "dQw4w9WgXcQ",
+                    "%064x.jpg".formatted(i), movieGenres, null));
+        }
+        return movies;
+    }
+}
@@ -0,0 +1,100 @@
+package id.my.hendisantika.movietrailer.jmh;
+
+import id.my.hendisantika.movietrailer.service.WarehouseService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.io.Resource;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Stores and resolves covers through {@link WarehouseService} on the local disk.
+ * {@code storeNew} writes, hashes, fsyncs and renames a cover nobody uploaded before; {@code storeDuplicate} uploads
+ * bytes that are already stored, which skips the rename but still pays for the hash and the temp file.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class WarehouseBenchmark {
+
+    private static final byte[] JPEG_SIGNATURE = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0};
+
+    @Param({"65536", "1048576"})
+    public int coverSize;
+
+    private Path storage;
+
+    private WarehouseService warehouseService;
+
+    private byte[] content;
+
+    private long sequence;
+
+    private String storedName;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storage = Files.createTempDirectory("warehouse-benchmark");
+        warehouseService = new WarehouseService(mock(), mock(), new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(warehouseService, "storageLocation", storage.toString());
+        ReflectionTestUtils.setField(warehouseService, "maxConcurrentSyncs", 8);
+        warehouseService.startStoreFiles();
+
+        content = new byte[coverSize];
+        new Random(42).nextBytes(content);
+        System.arraycopy(JPEG_SIGNATURE, 0, content, 0, JPEG_SIGNATURE.length);
+        storedName = warehouseService.storeFile(cover(content));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(storage);
+    }
+
+    @Benchmark
+    public String storeNew() {
+        // A fresh counter in the payload gives every invocation its own content hash
+        byte[] unique = content.clone();
+        ByteBuffer.wrap(unique).putLong(JPEG_SIGNATURE.length, sequence++);
+        return warehouseService.storeFile(cover(unique));
+    }
+
+    @Benchmark
+    public String storeDuplicate() {
+        return warehouseService.storeFile(cover(content));
+    }
+
+    @Benchmark
+    public Resource uploadAsResource() {
+        return warehouseService.uploadAsResource(storedName);
+    }
+
+    private static MockMultipartFile cover(byte[] bytes) {
+        return new MockMultipartFile("frontPage", "cover.jpg", "image/jpeg", bytes);
+    }
+}
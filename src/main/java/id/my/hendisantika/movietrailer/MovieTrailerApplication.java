@@ -1,20 +1,25 @@
 package id.my.hendisantika.movietrailer;
 
-import id.my.hendisantika.movietrailer.entity.Genre;
 import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.service.CatalogVersion;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
 import org.springframework.context.annotation.Bean;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.thymeleaf.dialect.springdata.SpringDataDialect;
 
-import java.util.Arrays;
-
 @SpringBootApplication
 public class MovieTrailerApplication {
+    // Enough for every step of a full boot; steps past the capacity are dropped, not an error
+    private static final int STARTUP_STEPS = 10_000;
 
-    static void main(String[] args) {
-        SpringApplication.run(MovieTrailerApplication.class, args);
+    public static void main(String[] args) {
+        SpringApplication application = new SpringApplication(MovieTrailerApplication.class);
+        application.setApplicationStartup(new BufferingApplicationStartup(STARTUP_STEPS));
+        application.run(args);
     }
 
     @Bean
@@ -23,15 +28,12 @@ public class MovieTrailerApplication {
     }
 
     @Bean
-    public CommandLineRunner initGenre(GenreRepository genreRepository) {
-        return (args) -> {
-            genreRepository.saveAll(Arrays.asList(
-                    new Genre(1, "ACTION"),
-                    new Genre(2, "COMEDY"),
-                    new Genre(3, "HORROR"),
-                    new Genre(4, "THRILLER"),
-                    new Genre(5, "ADVENTURE")
-            ));
-        };
+    public CommandLineRunner initGenre(GenreRepository genreRepository, CatalogVersion catalogVersion,
+                                       PlatformTransactionManager transactionManager) {
+        return (args) -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            if (genreRepository.upsertDefaults() > 0) {
+                catalogVersion.bump();
+            }
+        });
     }
 }
@@ -0,0 +1,65 @@
+package id.my.hendisantika.movietrailer.cli;
+
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import id.my.hendisantika.movietrailer.service.MovieImportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ApplicationContext;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.55
+ * To change this template use File | Settings | File Templates.
+ */
+// java -jar movie-trailer.jar --spring.main.web-application-type=none --movie-import.file=catalog.csv
+// [--movie-import.resume=<id>]. Without a web server the process exits when the import is done, with status 1 if
+// it failed; started as a web application it imports once and keeps serving.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty("movie-import.file")
+public class MovieImportRunner implements ApplicationRunner {
+    private final MovieImportService movieImportService;
+
+    private final ApplicationContext applicationContext;
+
+    @Value("${movie-import.file}")
+    private Path file;
+
+    @Value("${movie-import.resume:#{null}}")
+    private Long resume;
+
+    @Override
+    public void run(ApplicationArguments args) throws Exception {
+        MovieImport.Format format = MovieImport.Format.fromFilename(file.getFileName().toString());
+        MovieImport job;
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            job = movieImportService.importMovies(inputStream, format, file.getFileName().toString(), resume);
+        }
+        if (job.getStatus() == MovieImport.Status.FAILED) {
+            log.error("Import {} failed: {}. Resume it with --movie-import.resume={}", job.getId(), job.getMessage(),
+                    job.getId());
+        }
+        if (!(applicationContext instanceof WebServerApplicationContext)) {
+            int status = job.getStatus() == MovieImport.Status.COMPLETED ? 0 : 1;
+            System.exit(SpringApplication.exit(applicationContext, () -> status));
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package id.my.hendisantika.movietrailer.config;
+
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 11.15
+ * To change this template use File | Settings | File Templates.
+ */
+// Cache advice wraps transaction advice, so a hit never opens a transaction or borrows a connection.
+// Caches, sizes and TTL are declared with spring.cache.* and their statistics are published as cache.* metrics.
+@Configuration
+@EnableCaching(order = Ordered.HIGHEST_PRECEDENCE)
+public class CacheConfig {
+    public static final String LATEST_RELEASES = "latestReleases";
+
+    public static final String MOVIE_PAGES = "moviePages";
+}
@@ -0,0 +1,93 @@
+package id.my.hendisantika.movietrailer.config;
+
+import org.springframework.aot.AotDetector;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotContribution;
+import org.springframework.beans.factory.aot.BeanFactoryInitializationAotProcessor;
+import org.springframework.beans.factory.config.ConfigurableListableBeanFactory;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.env.EnvironmentPostProcessor;
+import org.springframework.core.env.ConfigurableEnvironment;
+import org.springframework.core.env.Environment;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Properties;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 23.40
+ * To change this template use File | Settings | File Templates.
+ */
+// Spring AOT evaluates @Conditional once, for the properties the build saw, so the fast-start image keeps the build's
+// beans whatever these switches say at runtime. The build records them next to the generated code and a start under
+// AOT with any of them set differently fails instead of quietly running the other configuration.
+public class FrozenConditionCheck implements BeanFactoryInitializationAotProcessor, EnvironmentPostProcessor {
+    static final String LOCATION = "META-INF/movie-trailer/aot-conditions.properties";
+
+    // Read by the @ConditionalOnProperty and @ConditionalOnThreading beans here and by Flyway's auto-configuration
+    static final List<String> PROPERTIES = List.of(
+            "page-cache.enabled",
+            "replica.enabled",
+            "spring.threads.virtual.enabled",
+            "virtual-threads.pinning-metrics.enabled",
+            "storage.upload.streaming",
+            "storage.reconcile.enabled",
+            "spring.flyway.enabled");
+
+    @Override
+    public BeanFactoryInitializationAotContribution processAheadOfTime(ConfigurableListableBeanFactory beanFactory) {
+        Properties built = read(beanFactory.getBean(Environment.class));
+        // Written by hand: Properties.store adds a timestamp, which would change the jar on every build
+        String content = PROPERTIES.stream()
+                .filter(built::containsKey)
+                .map(name -> name + "=" + built.getProperty(name) + "\n")
+                .collect(Collectors.joining());
+        return (generationContext, code) -> generationContext.getGeneratedFiles().addResourceFile(LOCATION, content);
+    }
+
+    @Override
+    public void postProcessEnvironment(ConfigurableEnvironment environment, SpringApplication application) {
+        ClassPathResource resource = new ClassPathResource(LOCATION, application.getClassLoader());
+        if (!AotDetector.useGeneratedArtifacts() || !resource.exists()) {
+            return;
+        }
+        Properties built;
+        try {
+            built = PropertiesLoaderUtils.loadProperties(resource);
+        } catch (IOException exception) {
+            throw new UncheckedIOException("Could not read " + LOCATION, exception);
+        }
+        Properties current = read(environment);
+        String changed = PROPERTIES.stream()
+                .filter(name -> !String.valueOf(built.getProperty(name))
+                        .equalsIgnoreCase(String.valueOf(current.getProperty(name))))
+                .map(name -> name + " was " + built.getProperty(name, "unset") + " at build time, is "
+                        + current.getProperty(name, "unset") + " now")
+                .collect(Collectors.joining("; "));
+        if (!changed.isEmpty()) {
+            throw new IllegalStateException("Spring AOT fixed the beans these properties select, so they can't change "
+                    + "without rebuilding the image or starting with spring.aot.enabled=false: " + changed);
+        }
+    }
+
+    private static Properties read(Environment environment) {
+        Properties values = new Properties();
+        for (String name : PROPERTIES) {
+            String value = environment.getProperty(name);
+            if (value != null) {
+                values.setProperty(name, value);
+            }
+        }
+        return values;
+    }
+}
@@ -0,0 +1,86 @@
+package id.my.hendisantika.movietrailer.config;
+
+import id.my.hendisantika.movietrailer.metrics.HibernateStatisticsListener;
+import id.my.hendisantika.movietrailer.metrics.QueryBudget;
+import id.my.hendisantika.movietrailer.metrics.TimedDataSource;
+import id.my.hendisantika.movietrailer.web.RequestMetricsFilter;
+import id.my.hendisantika.movietrailer.web.ViewRenderMetricsInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import javax.sql.DataSource;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.00
+ * To change this template use File | Settings | File Templates.
+ */
+@Configuration
+@RequiredArgsConstructor
+public class MetricsConfig implements WebMvcConfigurer {
+    private final MeterRegistry meterRegistry;
+
+    // Only pools are timed: proxies and routers such as the replica routing hand out connections without waiting
+    @Bean
+    public static BeanPostProcessor timedDataSourcePostProcessor() {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                return bean instanceof DataSource dataSource && !(bean instanceof DelegatingDataSource)
+                        ? new TimedDataSource(dataSource) : bean;
+            }
+        };
+    }
+
+    @Bean
+    public QueryBudget queryBudget(@Value("${query-budget.per-request:20}") int perRequest,
+                                   @Value("${query-budget.per-transaction:10}") int perTransaction,
+                                   @Value("${query-budget.repeat-threshold:5}") int repeatThreshold) {
+        return new QueryBudget(perRequest, perTransaction, repeatThreshold, meterRegistry);
+    }
+
+    @Bean
+    public HibernateStatisticsListener hibernateStatisticsListener(QueryBudget queryBudget) {
+        return new HibernateStatisticsListener(queryBudget);
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateStatisticsCustomizer(HibernateStatisticsListener listener) {
+        return properties -> {
+            properties.put(AvailableSettings.STATEMENT_INSPECTOR, listener);
+            properties.put(AvailableSettings.INTERCEPTOR, listener);
+        };
+    }
+
+    // Behind the page cache: a cached page costs no statements and would only dilute the distributions
+    @Bean
+    public FilterRegistrationBean<RequestMetricsFilter> requestMetricsFilter(QueryBudget queryBudget) {
+        FilterRegistrationBean<RequestMetricsFilter> registration = new FilterRegistrationBean<>(
+                new RequestMetricsFilter(meterRegistry, queryBudget));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 25);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ViewRenderMetricsInterceptor(meterRegistry));
+    }
+}
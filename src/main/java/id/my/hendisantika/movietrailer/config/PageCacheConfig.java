@@ -0,0 +1,55 @@
+package id.my.hendisantika.movietrailer.config;
+
+import id.my.hendisantika.movietrailer.web.PageCache;
+import id.my.hendisantika.movietrailer.web.PageCacheFilter;
+import id.my.hendisantika.movietrailer.web.PageCacheInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.05
+ * To change this template use File | Settings | File Templates.
+ */
+@Configuration
+@ConditionalOnProperty(name = "page-cache.enabled", havingValue = "true")
+public class PageCacheConfig implements WebMvcConfigurer {
+
+    @Bean
+    public PageCache pageCache(@Value("${page-cache.max-size:32MB}") DataSize maxSize,
+                               @Value("${page-cache.max-age:10m}") Duration maxAge,
+                               MeterRegistry meterRegistry) {
+        return new PageCache(maxSize.toBytes(), maxAge, meterRegistry);
+    }
+
+    // After the observation filter, so hits still show up in http.server.requests
+    @Bean
+    public FilterRegistrationBean<PageCacheFilter> pageCacheFilter(PageCache pageCache) {
+        FilterRegistrationBean<PageCacheFilter> registration = new FilterRegistrationBean<>(
+                new PageCacheFilter(pageCache));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 20);
+        return registration;
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new PageCacheInterceptor()).addPathPatterns("/", "/movies", "/movies/*");
+    }
+}
@@ -0,0 +1,109 @@
+package id.my.hendisantika.movietrailer.config;
+
+import com.zaxxer.hikari.HikariConfig;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import id.my.hendisantika.movietrailer.datasource.ReplicaLagMonitor;
+import id.my.hendisantika.movietrailer.datasource.ReplicaRoutingDataSource;
+import id.my.hendisantika.movietrailer.metrics.TimedDataSource;
+import id.my.hendisantika.movietrailer.web.ReadYourWritesFilter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.Ordered;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 20.30
+ * To change this template use File | Settings | File Templates.
+ */
+// Sends read-only transactions to the replicas in replica.urls and everything else to spring.datasource. The lazy
+// proxy takes its connection at the first statement, by which time the transaction has marked it read-only, and
+// only then picks the read-only data source; a transaction that never runs SQL takes no connection at all.
+@Configuration
+@ConditionalOnProperty(name = "replica.enabled", havingValue = "true")
+public class ReplicaDataSourceConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource dataSource = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        dataSource.setPoolName("primary");
+        return dataSource;
+    }
+
+    @Bean
+    public ReplicaLagMonitor replicaLagMonitor(@Qualifier("primaryDataSource") DataSource primary,
+                                               DataSourceProperties properties, MeterRegistry meterRegistry,
+                                               @Value("${replica.urls}") List<String> urls,
+                                               @Value("${replica.username:}") String username,
+                                               @Value("${replica.password:}") String password,
+                                               @Value("${replica.maximum-pool-size:20}") int maximumPoolSize,
+                                               @Value("${replica.connection-timeout:2s}") Duration connectionTimeout,
+                                               @Value("${replica.max-lag:5s}") Duration maxLag,
+                                               @Value("${replica.write-window:10s}") Duration writeWindow,
+                                               @Value("${replica.lag-check-interval:1s}") Duration checkInterval) {
+        Map<String, HikariDataSource> replicas = new LinkedHashMap<>();
+        for (String url : urls) {
+            HikariConfig config = new HikariConfig();
+            config.setPoolName("replica-" + (replicas.size() + 1));
+            config.setJdbcUrl(url);
+            config.setUsername(username.isEmpty() ? properties.determineUsername() : username);
+            config.setPassword(password.isEmpty() ? properties.determinePassword() : password);
+            config.setReadOnly(true);
+            config.setMaximumPoolSize(maximumPoolSize);
+            // A replica that is down must neither stop the start nor hold a lag check for long
+            config.setConnectionTimeout(connectionTimeout.toMillis());
+            config.setInitializationFailTimeout(-1);
+            config.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(meterRegistry));
+            replicas.put(config.getPoolName(), new HikariDataSource(config));
+        }
+        return new ReplicaLagMonitor(primary, replicas, maxLag, writeWindow, checkInterval, meterRegistry);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaLagMonitor lagMonitor,
+                                 MeterRegistry meterRegistry) {
+        // The replica pools are not beans, so they are timed here rather than by MetricsConfig
+        Map<String, DataSource> replicas = new LinkedHashMap<>();
+        lagMonitor.replicas().forEach((name, pool) -> replicas.put(name, new TimedDataSource(pool)));
+        ReplicaRoutingDataSource readOnly = new ReplicaRoutingDataSource(primary, replicas, lagMonitor,
+                meterRegistry);
+        readOnly.afterPropertiesSet();
+        LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primary);
+        dataSource.setReadOnlyDataSource(readOnly);
+        return dataSource;
+    }
+
+    // Ahead of the page cache, so a page rendered for a pinned browser comes from the primary
+    @Bean
+    public FilterRegistrationBean<ReadYourWritesFilter> readYourWritesFilter(
+            @Value("${replica.sticky-window:15s}") Duration stickyWindow) {
+        FilterRegistrationBean<ReadYourWritesFilter> registration = new FilterRegistrationBean<>(
+                new ReadYourWritesFilter(stickyWindow));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 15);
+        return registration;
+    }
+}
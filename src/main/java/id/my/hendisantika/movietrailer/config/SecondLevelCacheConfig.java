@@ -0,0 +1,92 @@
+package id.my.hendisantika.movietrailer.config;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.JCacheMetrics;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cache.spi.RegionFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.util.ObjectUtils;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.time.Duration;
+import java.util.OptionalLong;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 21.00
+ * To change this template use File | Settings | File Templates.
+ */
+// Hibernate's second-level cache, kept in process by Caffeine behind JCache. Every region is declared here with its
+// own size limit and Hibernate fails to start on a region that is missing, so nothing is cached without a bound.
+// Regions publish cache.* metrics tagged cache.manager=hibernate, next to the Spring caches; the hit ratio of a
+// region is cache.gets{result=hit} over all its cache.gets.
+@Configuration
+public class SecondLevelCacheConfig {
+    public static final String GENRE = "genre";
+
+    public static final String GENRE_LIST = "genre.list";
+
+    public static final String MOVIE = "movie";
+
+    public static final String MOVIE_GENRES = "movie.genres";
+
+    private static final String CACHE_MANAGER_TAG = "hibernate";
+
+    // Each application context gets its own manager, as the provider hands out one instance per URI
+    @Bean(destroyMethod = "close")
+    public CacheManager hibernateCacheManager(MeterRegistry meterRegistry,
+                                              @Value("${second-level-cache.movie.maximum-size:10000}") long movieSize,
+                                              @Value("${second-level-cache.movie.expire-after-write:10m}")
+                                              Duration movieExpiry) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("hibernate-" + ObjectUtils.getIdentityHexString(this)),
+                        getClass().getClassLoader());
+        // Genres only change through the seeding query, whose native write evicts every region
+        region(cacheManager, meterRegistry, GENRE, 1_000, null);
+        region(cacheManager, meterRegistry, GENRE_LIST, 10, null);
+        // Edits on this instance update the entries; the expiry bounds how long edits made elsewhere go unseen
+        region(cacheManager, meterRegistry, MOVIE, movieSize, movieExpiry);
+        region(cacheManager, meterRegistry, MOVIE_GENRES, movieSize, movieExpiry);
+        region(cacheManager, meterRegistry, RegionFactory.DEFAULT_QUERY_RESULTS_REGION_UNQUALIFIED_NAME, 1_000,
+                movieExpiry);
+        // One entry per table; an evicted timestamp would make the query results it guards look fresh
+        region(cacheManager, meterRegistry, RegionFactory.DEFAULT_UPDATE_TIMESTAMPS_REGION_UNQUALIFIED_NAME, 1_000,
+                null);
+        return cacheManager;
+    }
+
+    @Bean
+    public HibernatePropertiesCustomizer hibernateCacheCustomizer(CacheManager hibernateCacheManager) {
+        return properties -> {
+            properties.put(ConfigSettings.CACHE_MANAGER, hibernateCacheManager);
+            properties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static void region(CacheManager cacheManager, MeterRegistry meterRegistry, String name, long maximumSize,
+                               Duration expireAfterWrite) {
+        CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+        configuration.setMaximumSize(OptionalLong.of(maximumSize));
+        if (expireAfterWrite != null) {
+            configuration.setExpireAfterWrite(OptionalLong.of(expireAfterWrite.toNanos()));
+        }
+        // Hibernate stores its own disassembled copies, so copying them again on every get and put buys nothing
+        configuration.setStoreByValue(false);
+        configuration.setStatisticsEnabled(true);
+        JCacheMetrics.monitor(meterRegistry, cacheManager.createCache(name, configuration),
+                "cache.manager", CACHE_MANAGER_TAG);
+    }
+}
@@ -0,0 +1,82 @@
+package id.my.hendisantika.movietrailer.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.TimeGauge;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.metrics.buffering.BufferingApplicationStartup;
+import org.springframework.boot.context.metrics.buffering.StartupTimeline;
+import org.springframework.context.ApplicationListener;
+import org.springframework.core.metrics.StartupStep;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 18.20
+ * To change this template use File | Settings | File Templates.
+ */
+// Breaks time-to-ready down by startup phase and names the slowest beans, from the steps the main method buffers.
+// The phases also go out as gauges, so a slower rollout shows up next to application.ready.time.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StartupReport implements ApplicationListener<ApplicationReadyEvent> {
+    private static final String BEAN_INSTANTIATION = "spring.beans.instantiate";
+
+    private static final int SLOWEST_BEANS = 10;
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void onApplicationEvent(ApplicationReadyEvent event) {
+        if (!(event.getSpringApplication().getApplicationStartup() instanceof BufferingApplicationStartup startup)) {
+            log.info("Ready in {} ms", event.getTimeTaken().toMillis());
+            return;
+        }
+        List<StartupTimeline.TimelineEvent> events = startup.getBufferedTimeline().getEvents();
+        StringBuilder report = new StringBuilder("Ready in ").append(event.getTimeTaken().toMillis()).append(" ms");
+
+        report.append("\nPhases:");
+        events.stream()
+                .filter(step -> step.getStartupStep().getParentId() == null)
+                .forEach(step -> {
+                    Duration duration = step.getDuration();
+                    report.append(String.format("%n  %6d ms  %s", duration.toMillis(), step.getStartupStep().getName()));
+                    TimeGauge.builder("application.startup.phase", duration::toNanos, TimeUnit.NANOSECONDS)
+                            .description("Time one startup phase took, including the steps nested in it")
+                            .tag("phase", step.getStartupStep().getName())
+                            .register(meterRegistry);
+                });
+
+        // Inclusive times: a bean's figure contains the dependencies created while building it
+        report.append("\nSlowest beans:");
+        events.stream()
+                .filter(step -> step.getStartupStep().getName().equals(BEAN_INSTANTIATION))
+                .sorted(Comparator.comparing(StartupTimeline.TimelineEvent::getDuration).reversed())
+                .limit(SLOWEST_BEANS)
+                .forEach(step -> report.append(String.format("%n  %6d ms  %s", step.getDuration().toMillis(),
+                        beanName(step.getStartupStep()))));
+        log.info(report.toString());
+    }
+
+    private static String beanName(StartupStep step) {
+        for (StartupStep.Tag tag : step.getTags()) {
+            if (tag.getKey().equals("beanName")) {
+                return tag.getValue();
+            }
+        }
+        return step.getName();
+    }
+}
@@ -0,0 +1,65 @@
+package id.my.hendisantika.movietrailer.config;
+
+import id.my.hendisantika.movietrailer.web.StaticResourceCacheInterceptor;
+import id.my.hendisantika.movietrailer.web.StaticResourcePrecompressor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.CacheControl;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistration;
+import org.springframework.web.servlet.config.annotation.ResourceHandlerRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+import org.springframework.web.servlet.resource.EncodedResourceResolver;
+import org.springframework.web.servlet.resource.VersionResourceResolver;
+
+import java.nio.file.Path;
+import java.time.Duration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 19.50
+ * To change this template use File | Settings | File Templates.
+ */
+// Takes the place of Boot's /** handler, which spring.web.resources.add-mappings switches off. Names carry an MD5
+// of the content (cinema-theme-<md5>.css) that ResourceUrlEncodingFilter writes into every @{...} link the
+// templates render; Boot registers that filter once spring.web.resources.chain.enabled is set.
+@Configuration
+public class StaticResourceConfig implements WebMvcConfigurer {
+    @Value("${static-resources.location:${java.io.tmpdir}/movie-trailer-static}")
+    private Path location;
+
+    @Value("${static-resources.max-age:365d}")
+    private Duration maxAge;
+
+    @Bean(initMethod = "precompress")
+    public StaticResourcePrecompressor staticResourcePrecompressor() {
+        return new StaticResourcePrecompressor(location);
+    }
+
+    @Override
+    public void addResourceHandlers(ResourceHandlerRegistry registry) {
+        // The precompressed copies come first; the classpath only answers when they could not be written
+        Path precompressed = staticResourcePrecompressor().getDirectory();
+        ResourceHandlerRegistration registration = registry.addResourceHandler("/**");
+        if (precompressed != null) {
+            registration.addResourceLocations("file:" + precompressed.toAbsolutePath() + "/");
+        }
+        registration.addResourceLocations("classpath:/static/")
+                .resourceChain(true)
+                .addResolver(new EncodedResourceResolver())
+                .addResolver(new VersionResourceResolver().addContentVersionStrategy("/**"));
+    }
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new StaticResourceCacheInterceptor(
+                CacheControl.maxAge(maxAge).cachePublic().immutable()));
+    }
+}
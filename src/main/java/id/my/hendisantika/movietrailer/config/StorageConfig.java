@@ -0,0 +1,44 @@
+package id.my.hendisantika.movietrailer.config;
+
+import id.my.hendisantika.movietrailer.service.WarehouseService;
+import id.my.hendisantika.movietrailer.web.StreamingUploadFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 10.50
+ * To change this template use File | Settings | File Templates.
+ */
+// Scheduling drives StorageReconciler, which only exists with storage.reconcile.enabled=true
+@Configuration
+@EnableScheduling
+public class StorageConfig {
+
+    // Runs right after the character encoding filter and before anything that could ask the container for
+    // parameters, which would make Tomcat buffer the whole multipart body first.
+    @Bean
+    @ConditionalOnProperty(name = "storage.upload.streaming", havingValue = "true")
+    public FilterRegistrationBean<StreamingUploadFilter> streamingUploadFilter(
+            WarehouseService warehouseService,
+            @Value("${spring.servlet.multipart.max-file-size:1MB}") DataSize maxFileSize,
+            @Value("${spring.servlet.multipart.max-request-size:10MB}") DataSize maxRequestSize) {
+        FilterRegistrationBean<StreamingUploadFilter> registration = new FilterRegistrationBean<>(
+                new StreamingUploadFilter(warehouseService, maxFileSize.toBytes(), maxRequestSize.toBytes()));
+        registration.addUrlPatterns("/admin/movies", "/admin/movies/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+}
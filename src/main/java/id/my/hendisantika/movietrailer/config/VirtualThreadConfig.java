@@ -0,0 +1,62 @@
+package id.my.hendisantika.movietrailer.config;
+
+import id.my.hendisantika.movietrailer.web.ConnectionAdmissionFilter;
+import id.my.hendisantika.movietrailer.web.ConnectionAdmissionInterceptor;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.time.Duration;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.55
+ * To change this template use File | Settings | File Templates.
+ */
+// spring.threads.virtual.enabled switches Tomcat, @Async and scheduling over to virtual threads
+@Configuration
+public class VirtualThreadConfig implements WebMvcConfigurer {
+
+    // After the page cache, so hits never wait for a slot
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public FilterRegistrationBean<ConnectionAdmissionFilter> connectionAdmissionFilter(
+            @Value("${web.admission.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${web.admission.timeout:2s}") Duration timeout,
+            MeterRegistry meterRegistry) {
+        FilterRegistrationBean<ConnectionAdmissionFilter> registration = new FilterRegistrationBean<>(
+                new ConnectionAdmissionFilter(maxConcurrent, timeout, meterRegistry));
+        registration.addUrlPatterns("/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 30);
+        return registration;
+    }
+
+    // Hands the filter's slot back before the view renders; without the filter there is no slot and it does nothing
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        registry.addInterceptor(new ConnectionAdmissionInterceptor());
+    }
+
+    // Only virtual threads pin, so platform-thread mode doesn't pay for the recording stream
+    @Bean
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    @ConditionalOnProperty(name = "virtual-threads.pinning-metrics.enabled", havingValue = "true", matchIfMissing = true)
+    public VirtualThreadPinningMetrics virtualThreadPinningMetrics(
+            @Value("${virtual-threads.pinning-metrics.threshold:20ms}") Duration threshold) {
+        return new VirtualThreadPinningMetrics(threshold);
+    }
+}
@@ -0,0 +1,87 @@
+package id.my.hendisantika.movietrailer.config;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.50
+ * To change this template use File | Settings | File Templates.
+ */
+// Streams the JDK's own flight recorder events, so pinning shows up in production without attaching a profiler.
+// Since JDK 24 synchronized no longer pins; what is left are native frames and blocking inside class initializers.
+@Slf4j
+public class VirtualThreadPinningMetrics implements MeterBinder, DisposableBean {
+    private static final String PINNED = "jdk.VirtualThreadPinned";
+
+    private static final String SUBMIT_FAILED = "jdk.VirtualThreadSubmitFailed";
+
+    private static final int LOGGED_FRAMES = 8;
+
+    private final Duration threshold;
+
+    private RecordingStream recordingStream;
+
+    public VirtualThreadPinningMetrics(Duration threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public synchronized void bindTo(MeterRegistry registry) {
+        if (recordingStream != null) {
+            return;
+        }
+        Timer pinned = Timer.builder("jvm.threads.virtual.pinned")
+                .description("Time virtual threads stayed pinned to their carrier while blocking")
+                .register(registry);
+        Counter submitFailed = Counter.builder("jvm.threads.virtual.submit.failed")
+                .description("Virtual threads that could not be started or unparked")
+                .register(registry);
+
+        recordingStream = new RecordingStream();
+        recordingStream.enable(PINNED).withThreshold(threshold).withStackTrace();
+        recordingStream.enable(SUBMIT_FAILED);
+        recordingStream.onEvent(PINNED, event -> {
+            pinned.record(event.getDuration());
+            log.debug("Virtual thread pinned for {} ms at {}", event.getDuration().toMillis(), topFrames(event));
+        });
+        recordingStream.onEvent(SUBMIT_FAILED, event -> submitFailed.increment());
+        recordingStream.startAsync();
+    }
+
+    @Override
+    public synchronized void destroy() {
+        if (recordingStream != null) {
+            recordingStream.close();
+        }
+    }
+
+    private static String topFrames(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "unknown";
+        }
+        List<RecordedFrame> frames = event.getStackTrace().getFrames();
+        return frames.stream()
+                .limit(LOGGED_FRAMES)
+                .map(frame -> frame.getMethod().getType().getName() + "." + frame.getMethod().getName()
+                        + ":" + frame.getLineNumber())
+                .collect(Collectors.joining(" <- "));
+    }
+}
@@ -4,20 +4,23 @@ import id.my.hendisantika.movietrailer.entity.Genre;
 import id.my.hendisantika.movietrailer.entity.Movie;
 import id.my.hendisantika.movietrailer.repository.GenreRepository;
 import id.my.hendisantika.movietrailer.repository.MovieRepository;
-import id.my.hendisantika.movietrailer.service.WarehouseService;
+import id.my.hendisantika.movietrailer.service.MovieAdminService;
+import id.my.hendisantika.movietrailer.service.MovieCatalogService;
+import id.my.hendisantika.movietrailer.service.MovieSort;
+import id.my.hendisantika.movietrailer.service.MovieWindow;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
 import org.springframework.stereotype.Controller;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.validation.BindingResult;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.servlet.ModelAndView;
 
 import java.util.List;
@@ -41,11 +44,22 @@ public class AdminController {
 
     private final GenreRepository genreRepository;
 
-    private final WarehouseService warehouseService;
+    private final MovieCatalogService movieCatalogService;
+
+    private final MovieAdminService movieAdminService;
 
     @GetMapping
+    public ModelAndView browseMovies(@RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "5") int size) {
+        MovieWindow<Movie> window = movieCatalogService.findWindow(MovieSort.TITLE, cursor, size);
+        return new ModelAndView("admin/index")
+                .addObject("movies", window.movies())
+                .addObject("window", window);
+    }
+
+    @GetMapping(params = "page")
     public ModelAndView seeHomepage(@PageableDefault(sort = "title", size = 5) Pageable pageable) {
-        Page<Movie> movies = movieRepository.findAll(pageable);
+        Page<Movie> movies = movieRepository.findPageWithGenres(pageable);
         return new ModelAndView("admin/index").addObject("movies", movies);
     }
 
@@ -63,6 +77,7 @@ public class AdminController {
             if (movie.getFrontPage().isEmpty()) {
                 bindingResult.rejectValue("frontPage", "MultipartNotEmpty");
             }
+            movieAdminService.discard(movie.getFrontPage());
 
             List<Genre> genres = genreRepository.findAll(Sort.by("title"));
             return new ModelAndView("admin/new-movie")
@@ -70,16 +85,13 @@ public class AdminController {
                     .addObject("genres", genres);
         }
 
-        String routeCover = warehouseService.storeFile(movie.getFrontPage());
-        movie.setRouteCover(routeCover);
-
-        movieRepository.save(movie);
+        movieAdminService.create(movie);
         return new ModelAndView("redirect:/admin");
     }
 
     @GetMapping("/movies/{id}/edit")
     public ModelAndView showMovieEditForm(@PathVariable Integer id) {
-        Movie movie = movieRepository.findById(id)
+        Movie movie = movieRepository.findWithGenresById(id)
                 .orElseThrow(() -> new IllegalArgumentException("Movie not found with id: " + id));
         List<Genre> genres = genreRepository.findAll(Sort.by("title"));
 
@@ -89,47 +101,22 @@ public class AdminController {
     }
 
     @PostMapping("/movies/{id}/edit")
-    @Transactional
     public ModelAndView updateMovie(@PathVariable Integer id, @Validated Movie movie, BindingResult bindingResult) {
         if (bindingResult.hasErrors()) {
+            movieAdminService.discard(movie.getFrontPage());
             List<Genre> genres = genreRepository.findAll(Sort.by("title"));
             return new ModelAndView("admin/edit-movie")
                     .addObject("movie", movie)
                     .addObject("genres", genres);
         }
 
-        Movie movieDB = movieRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Movie not found with id: " + id));
-        movieDB.setTitle(movie.getTitle());
-        movieDB.setSinopsis(movie.getSinopsis());
-        movieDB.setPremiereDate(movie.getPremiereDate());
-        movieDB.setYoutubeTrailerId(movie.getYoutubeTrailerId());
-        movieDB.setGenres(movie.getGenres());
-
-        if (!movie.getFrontPage().isEmpty()) {
-            warehouseService.deleteArchive(movieDB.getRouteCover());
-            String routeCover = warehouseService.storeFile(movie.getFrontPage());
-            movieDB.setRouteCover(routeCover);
-        }
-
-        movieRepository.save(movieDB);
+        movieAdminService.update(id, movie);
         return new ModelAndView("redirect:/admin");
     }
 
     @PostMapping("/movies/{id}/delete")
-    @Transactional
     public String deleteMovie(@PathVariable Integer id) {
-        Movie movie = movieRepository.findById(id)
-                .orElseThrow(() -> new IllegalArgumentException("Movie not found with id: " + id));
-
-        String coverPath = movie.getRouteCover();
-        movieRepository.delete(movie);
-
-        // Delete the cover image after successful deletion from database
-        if (coverPath != null && !coverPath.startsWith("http")) {
-            warehouseService.deleteArchive(coverPath);
-        }
-
+        movieAdminService.delete(id);
         return "redirect:/admin";
     }
 }
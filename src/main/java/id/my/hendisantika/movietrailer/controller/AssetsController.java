@@ -1,13 +1,24 @@
 package id.my.hendisantika.movietrailer.controller;
 
+import id.my.hendisantika.movietrailer.exception.FileNotFoundException;
+import id.my.hendisantika.movietrailer.service.AssetDeliveryService;
+import id.my.hendisantika.movietrailer.service.CoverDerivativeService;
+import id.my.hendisantika.movietrailer.service.CoverSize;
 import id.my.hendisantika.movietrailer.service.WarehouseService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
-import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+
 /**
  * Created by IntelliJ IDEA.
  * Project : movie-trailer
@@ -25,8 +36,35 @@ import org.springframework.web.bind.annotation.RestController;
 public class AssetsController {
     private final WarehouseService warehouseService;
 
+    private final AssetDeliveryService assetDeliveryService;
+
+    private final CoverDerivativeService coverDerivativeService;
+
     @GetMapping("/{filename:.+}")
-    public Resource getResource(@PathVariable("filename") String filename) {
-        return warehouseService.uploadAsResource(filename);
+    public void getResource(@PathVariable("filename") String filename, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        Path file = warehouseService.loadFile(filename);
+        if (warehouseService.isContentAddressed(filename)) {
+            assetDeliveryService.serveImmutable(file, request, response);
+        } else {
+            assetDeliveryService.serve(file, request, response);
+        }
+    }
+
+    @GetMapping("/{size:sm|md|lg}/{filename:.+}")
+    public void getDerivative(@PathVariable("size") String size, @PathVariable("filename") String filename,
+                              HttpServletRequest request, HttpServletResponse response) throws IOException {
+        Path original = warehouseService.loadFile(filename);
+        CoverSize coverSize = CoverSize.fromKey(size)
+                .orElseThrow(() -> new FileNotFoundException("Unknown cover size " + size));
+        Optional<Path> derivative = coverDerivativeService.findDerivative(filename, coverSize);
+        if (derivative.isEmpty()) {
+            // The rendition is still being produced: hand out the original, but don't let it stick in caches
+            assetDeliveryService.serve(original, CacheControl.maxAge(Duration.ofMinutes(1)), request, response);
+        } else if (warehouseService.isContentAddressed(filename)) {
+            assetDeliveryService.serveImmutable(derivative.get(), request, response);
+        } else {
+            assetDeliveryService.serve(derivative.get(), request, response);
+        }
     }
 }
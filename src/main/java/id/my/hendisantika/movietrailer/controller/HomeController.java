@@ -1,19 +1,33 @@
 package id.my.hendisantika.movietrailer.controller;
 
 import id.my.hendisantika.movietrailer.entity.Movie;
-import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.service.GenreFilter;
+import id.my.hendisantika.movietrailer.service.GenreMatch;
+import id.my.hendisantika.movietrailer.service.MovieCatalogService;
+import id.my.hendisantika.movietrailer.service.MovieSearchResults;
+import id.my.hendisantika.movietrailer.service.MovieSearchService;
+import id.my.hendisantika.movietrailer.service.MovieSort;
+import id.my.hendisantika.movietrailer.service.MovieWindow;
+import id.my.hendisantika.movietrailer.service.TitleSuggestIndex;
+import id.my.hendisantika.movietrailer.service.TitleSuggestion;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.http.CacheControl;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
 import org.springframework.web.servlet.ModelAndView;
 
+import java.time.Duration;
 import java.util.List;
 
 /**
@@ -31,26 +45,65 @@ import java.util.List;
 @RequestMapping("/")
 @RequiredArgsConstructor
 public class HomeController {
-    private final MovieRepository movieRepository;
+    private final MovieCatalogService movieCatalogService;
+
+    private final GenreRepository genreRepository;
+
+    private final MovieSearchService movieSearchService;
+
+    private final TitleSuggestIndex titleSuggestIndex;
 
     @GetMapping
     public ModelAndView seeHomepage() {
-        List<Movie> latestMovies =
-                movieRepository.findAll(PageRequest.of(0, 4, Sort.by("premiereDate").descending())).toList();
+        List<Movie> latestMovies = movieCatalogService.findLatestReleases(4);
         return new ModelAndView("index")
                 .addObject("latestMovies", latestMovies);
     }
 
     @GetMapping("movies")
+    public ModelAndView browseMovies(@RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "20") int size,
+                                     @RequestParam(name = "genre", required = false) List<Integer> genreIds,
+                                     @RequestParam(defaultValue = "all") String match) {
+        GenreFilter filter = GenreFilter.of(genreIds, GenreMatch.fromParam(match));
+        MovieWindow<Movie> window = filter.isEmpty()
+                ? movieCatalogService.findWindow(MovieSort.PREMIERE_DATE, cursor, size)
+                : movieCatalogService.findWindow(filter, cursor, size);
+        return new ModelAndView("movies")
+                .addObject("movies", window.movies())
+                .addObject("window", window)
+                .addObject("genres", genreRepository.findAll(Sort.by("title")))
+                .addObject("genreFilter", filter);
+    }
+
+    // Numbered pages are kept for existing links; they pay for an OFFSET scan and a count on every request
+    @GetMapping(value = "movies", params = "page")
     public ModelAndView listMovies(@PageableDefault(sort = "premiereDate", direction = Sort.Direction.DESC) Pageable pageable) {
-        Page<Movie> movies = movieRepository.findAll(pageable);
+        Page<Movie> movies = movieCatalogService.findPage(pageable);
         return new ModelAndView("movies")
                 .addObject("movies", movies);
     }
 
+    @GetMapping("movies/search")
+    public ModelAndView searchMovies(@RequestParam(defaultValue = "") String q,
+                                     @RequestParam(required = false) String cursor,
+                                     @RequestParam(defaultValue = "20") int size) {
+        MovieSearchResults results = movieSearchService.search(q, cursor, size);
+        return new ModelAndView("search").addObject("results", results);
+    }
+
+    @GetMapping(value = "movies/suggest", produces = MediaType.APPLICATION_JSON_VALUE)
+    @ResponseBody
+    public ResponseEntity<List<TitleSuggestion>> suggestTitles(@RequestParam(defaultValue = "") String q,
+                                                               @RequestParam(defaultValue = "8") int limit) {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(30)).cachePublic())
+                .body(titleSuggestIndex.suggest(q, limit));
+    }
+
     @GetMapping("movies/{id}")
     public ModelAndView showMovieDetails(@PathVariable Integer id) {
-        Movie movie = movieRepository.findById(id).get();
+        Movie movie = movieCatalogService.findMovie(id);
         return new ModelAndView("movie").addObject("movie", movie);
     }
 }
@@ -0,0 +1,113 @@
+package id.my.hendisantika.movietrailer.controller;
+
+import id.my.hendisantika.movietrailer.service.CatalogVersion;
+import id.my.hendisantika.movietrailer.service.GenreFilter;
+import id.my.hendisantika.movietrailer.service.GenreMatch;
+import id.my.hendisantika.movietrailer.service.GenreResource;
+import id.my.hendisantika.movietrailer.service.MovieApiService;
+import id.my.hendisantika.movietrailer.service.MovieField;
+import id.my.hendisantika.movietrailer.service.MovieResource;
+import id.my.hendisantika.movietrailer.service.MovieSort;
+import id.my.hendisantika.movietrailer.service.MovieWindow;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 18.00
+ * To change this template use File | Settings | File Templates.
+ */
+// Every response carries the catalog version as its ETag. It is compared before anything else is read, so a client
+// revalidating an unchanged catalog gets a 304 for a single primary-key read. The version and the rows are read in
+// one read-only transaction, so with replicas both come from the same server and a replica that is behind can't
+// label its older rows with the primary's newer version.
+@RestController
+@RequestMapping(value = "/api/v1", produces = MediaType.APPLICATION_JSON_VALUE)
+public class MovieApiController {
+    private static final CacheControl CACHE_CONTROL = CacheControl.noCache().cachePublic();
+
+    private final MovieApiService movieApiService;
+
+    private final CatalogVersion catalogVersion;
+
+    private final TransactionTemplate readOnlyTransaction;
+
+    public MovieApiController(MovieApiService movieApiService, CatalogVersion catalogVersion,
+                              PlatformTransactionManager transactionManager) {
+        this.movieApiService = movieApiService;
+        this.catalogVersion = catalogVersion;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+    }
+
+    @GetMapping("/movies")
+    public ResponseEntity<MovieWindow<MovieResource>> listMovies(@RequestParam(required = false) String cursor,
+                                                                 @RequestParam(defaultValue = "20") int size,
+                                                                 @RequestParam(defaultValue = "premiereDate") String sort,
+                                                                 @RequestParam(name = "genre", required = false)
+                                                                 List<Integer> genreIds,
+                                                                 @RequestParam(defaultValue = "all") String match,
+                                                                 @RequestParam(required = false) String fields,
+                                                                 WebRequest request) {
+        MovieSort movieSort = switch (sort) {
+            case "premiereDate" -> MovieSort.PREMIERE_DATE;
+            case "title" -> MovieSort.TITLE;
+            default -> throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown sort " + sort);
+        };
+        GenreFilter filter = GenreFilter.of(genreIds, GenreMatch.fromParam(match));
+        if (!filter.isEmpty() && movieSort != MovieSort.PREMIERE_DATE) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Genre filters list newest first only");
+        }
+        return conditional(request, () -> movieApiService.findMovies(movieSort, filter, cursor, size,
+                MovieField.parse(fields, MovieField.LISTING_DEFAULT)));
+    }
+
+    @GetMapping("/movies/{id}")
+    public ResponseEntity<MovieResource> showMovie(@PathVariable Integer id,
+                                                   @RequestParam(required = false) String fields,
+                                                   WebRequest request) {
+        return conditional(request, () -> movieApiService.findMovie(id, MovieField.parse(fields,
+                        MovieField.DETAILS_DEFAULT))
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Movie not found with id: " + id)));
+    }
+
+    @GetMapping("/genres")
+    public ResponseEntity<List<GenreResource>> listGenres(WebRequest request) {
+        return conditional(request, movieApiService::findGenres);
+    }
+
+    // The version is read before the rows: a change committing in between leaves an older tag on newer rows, which
+    // only costs the next revalidation a full response
+    private <T> ResponseEntity<T> conditional(WebRequest request, Supplier<T> body) {
+        return readOnlyTransaction.execute(status -> {
+            String etag = catalogVersion.etag();
+            if (request.checkNotModified(etag)) {
+                return null;
+            }
+            return ResponseEntity.ok()
+                    .eTag(etag)
+                    .cacheControl(CACHE_CONTROL)
+                    .body(body.get());
+        });
+    }
+}
@@ -0,0 +1,70 @@
+package id.my.hendisantika.movietrailer.controller;
+
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import id.my.hendisantika.movietrailer.service.MovieExportService;
+import id.my.hendisantika.movietrailer.web.AcceptEncoding;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.20
+ * To change this template use File | Settings | File Templates.
+ */
+@RestController
+@RequestMapping("/admin/movies/export")
+@RequiredArgsConstructor
+public class MovieExportController {
+    private static final int GZIP_BUFFER_SIZE = 64 * 1024;
+
+    private final MovieExportService movieExportService;
+
+    // Written straight into the response as rows arrive, with no length known up front, so it goes out chunked.
+    // Compressed here rather than by the connector, which only compresses the mime types it is configured for.
+    @GetMapping
+    public void exportMovies(@RequestParam(defaultValue = "ndjson") String format, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        MovieImport.Format exportFormat;
+        try {
+            exportFormat = MovieImport.Format.valueOf(format.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "Unknown export format " + format, exception);
+        }
+        response.setContentType(exportFormat.getMediaType() + ";charset=UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("movies-" + LocalDate.now() + "." + format.toLowerCase(Locale.ROOT))
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        if (!AcceptEncoding.acceptsGzip(request)) {
+            movieExportService.export(exportFormat, response.getOutputStream());
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        try (OutputStream gzip = new GZIPOutputStream(response.getOutputStream(), GZIP_BUFFER_SIZE)) {
+            movieExportService.export(exportFormat, gzip);
+        }
+    }
+}
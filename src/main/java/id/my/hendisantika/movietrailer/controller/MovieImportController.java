@@ -0,0 +1,90 @@
+package id.my.hendisantika.movietrailer.controller;
+
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import id.my.hendisantika.movietrailer.entity.MovieImportError;
+import id.my.hendisantika.movietrailer.repository.MovieImportErrorRepository;
+import id.my.hendisantika.movietrailer.repository.MovieImportRepository;
+import id.my.hendisantika.movietrailer.service.MovieImportService;
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Limit;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.50
+ * To change this template use File | Settings | File Templates.
+ */
+// The catalog is the raw request body, not a multipart upload, so it is read straight off the socket as it arrives
+@RestController
+@RequestMapping("/admin/movies/import")
+@RequiredArgsConstructor
+public class MovieImportController {
+    private static final int MAX_ERRORS = 1000;
+
+    private final MovieImportService movieImportService;
+
+    private final MovieImportRepository movieImportRepository;
+
+    private final MovieImportErrorRepository movieImportErrorRepository;
+
+    @PostMapping(consumes = {"text/csv", "application/x-ndjson"})
+    public ResponseEntity<MovieImport> importMovies(@RequestHeader(HttpHeaders.CONTENT_TYPE) MediaType contentType,
+                                                    @RequestParam(defaultValue = "upload") String source,
+                                                    @RequestParam(required = false) Long resume,
+                                                    HttpServletRequest request) throws IOException {
+        if (resume != null) {
+            requireImport(resume);
+        }
+        MovieImport.Format format = MediaType.valueOf(MovieImport.Format.CSV.getMediaType()).includes(contentType)
+                ? MovieImport.Format.CSV : MovieImport.Format.NDJSON;
+        MovieImport job;
+        try {
+            job = movieImportService.importMovies(request.getInputStream(), format, source, resume);
+        } catch (IllegalArgumentException exception) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, exception.getMessage(), exception);
+        }
+        return ResponseEntity.status(job.getStatus() == MovieImport.Status.COMPLETED
+                        ? HttpStatus.OK : HttpStatus.UNPROCESSABLE_ENTITY)
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    public MovieImport showImport(@PathVariable Long id) {
+        return requireImport(id);
+    }
+
+    @GetMapping("/{id}/errors")
+    public List<MovieImportError> showErrors(@PathVariable Long id,
+                                             @RequestParam(defaultValue = "0") long after,
+                                             @RequestParam(defaultValue = "100") int limit) {
+        requireImport(id);
+        return movieImportErrorRepository.findByImportIdAndRecordNumberGreaterThanOrderByRecordNumber(id, after,
+                Limit.of(Math.clamp(limit, 1, MAX_ERRORS)));
+    }
+
+    private MovieImport requireImport(Long id) {
+        return movieImportRepository.findById(id)
+                .orElseThrow(() -> new ResponseStatusException(HttpStatus.NOT_FOUND, "Import not found with id: " + id));
+    }
+}
@@ -0,0 +1,196 @@
+package id.my.hendisantika.movietrailer.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 20.15
+ * To change this template use File | Settings | File Templates.
+ */
+// Measures how far each replica trails the primary and picks the replica for the next read-only transaction. Each
+// check records the primary's WAL position; a replica's lag is the age of the oldest recorded position it has not
+// replayed yet, so it is measured against the primary rather than against what the replica happened to receive.
+// Reads fall back to the primary when every replica lags past replica.max-lag or is down, when the checks have
+// stopped, and for a while after a write on this instance, so the caches it evicted are not refilled from a replica
+// that has not replayed it yet.
+@Slf4j
+public class ReplicaLagMonitor implements DisposableBean {
+    private static final String PRIMARY_QUERY = "select pg_wal_lsn_diff(pg_current_wal_lsn(), '0/0')";
+
+    // The replay position is null on a server that is not a standby. The receiver row only exists while a WAL
+    // receiver runs; its status reads as null to a role without pg_read_all_stats, which then settles for the row.
+    private static final String REPLICA_QUERY = """
+            select pg_wal_lsn_diff(pg_last_wal_replay_lsn(), '0/0'),
+                   exists(select 1 from pg_stat_wal_receiver),
+                   (select status from pg_stat_wal_receiver)""";
+
+    private final DataSource primary;
+
+    private final Map<String, HikariDataSource> replicas;
+
+    private final Duration maxLag;
+
+    private final Duration writeWindow;
+
+    private final long staleAfterNanos;
+
+    private final Map<String, Double> lagSeconds = new ConcurrentHashMap<>();
+
+    // The primary's WAL position at each recent check, oldest first
+    private final Deque<WalPosition> primaryPositions = new ArrayDeque<>();
+
+    private final AtomicInteger next = new AtomicInteger();
+
+    private volatile List<String> available = List.of();
+
+    private volatile long checkedAt = System.nanoTime();
+
+    private volatile long primaryUntil = System.nanoTime();
+
+    public ReplicaLagMonitor(DataSource primary, Map<String, HikariDataSource> replicas, Duration maxLag,
+                             Duration writeWindow, Duration checkInterval, MeterRegistry meterRegistry) {
+        this.primary = primary;
+        this.replicas = replicas;
+        this.maxLag = maxLag;
+        this.writeWindow = writeWindow;
+        this.staleAfterNanos = checkInterval.multipliedBy(3).toNanos();
+        for (String name : replicas.keySet()) {
+            Gauge.builder("datasource.replica.lag", lagSeconds, lags -> lags.getOrDefault(name, Double.NaN))
+                    .description("How far the replica trails the primary, infinite while it does not stream and NaN "
+                            + "while it cannot be measured")
+                    .baseUnit("seconds")
+                    .tag("replica", name)
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${replica.lag-check-interval:1s}")
+    public synchronized void check() {
+        long now = System.nanoTime();
+        boolean positioned = recordPrimaryPosition(now);
+        List<String> healthy = new ArrayList<>(replicas.size());
+        replicas.forEach((name, replica) -> {
+            // Without the primary's position there is nothing to measure against
+            double lag = positioned ? measure(name, replica, now) : Double.NaN;
+            lagSeconds.put(name, lag);
+            if (lag * 1_000 <= maxLag.toMillis()) {
+                healthy.add(name);
+            }
+        });
+        if (!healthy.equals(available)) {
+            log.info("Replicas serving reads: {} of {}", healthy, replicas.keySet());
+        }
+        available = List.copyOf(healthy);
+        checkedAt = System.nanoTime();
+    }
+
+    // Published inside the writing transaction, so the window opens before any after-commit listener reads again
+    @EventListener
+    public void onMovieChanged(MovieChangedEvent event) {
+        primaryUntil = System.nanoTime() + writeWindow.toNanos();
+    }
+
+    /**
+     * @return the replica to read from, or {@code null} for the primary
+     */
+    public String select() {
+        long now = System.nanoTime();
+        List<String> current = available;
+        if (current.isEmpty() || now - primaryUntil < 0 || now - checkedAt > staleAfterNanos) {
+            return null;
+        }
+        return current.get(Math.floorMod(next.getAndIncrement(), current.size()));
+    }
+
+    public Map<String, HikariDataSource> replicas() {
+        return replicas;
+    }
+
+    private boolean recordPrimaryPosition(long now) {
+        try (Connection connection = primary.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(PRIMARY_QUERY)) {
+            resultSet.next();
+            primaryPositions.addLast(new WalPosition(now, resultSet.getLong(1)));
+        } catch (SQLException exception) {
+            log.debug("Could not read the WAL position of the primary", exception);
+            return false;
+        }
+        // Keep the newest position that is older than twice the allowed lag, so a lag past it is still seen
+        long horizon = maxLag.multipliedBy(2).toNanos();
+        while (primaryPositions.size() > 1 && now - secondOldest().nanos() > horizon) {
+            primaryPositions.removeFirst();
+        }
+        return true;
+    }
+
+    // NaN when the replica cannot be reached or is not a standby, infinite while no WAL receiver runs
+    private double measure(String name, HikariDataSource replica, long now) {
+        try (Connection connection = replica.getConnection();
+             Statement statement = connection.createStatement();
+             ResultSet resultSet = statement.executeQuery(REPLICA_QUERY)) {
+            resultSet.next();
+            long replayed = resultSet.getLong(1);
+            if (resultSet.wasNull()) {
+                log.debug("Replica {} is not a standby", name);
+                return Double.NaN;
+            }
+            String status = resultSet.getString(3);
+            if (!resultSet.getBoolean(2) || (status != null && !status.equals("streaming"))) {
+                log.debug("Replica {} is not streaming from the primary: {}", name, status);
+                return Double.POSITIVE_INFINITY;
+            }
+            for (WalPosition position : primaryPositions) {
+                if (position.lsn() > replayed) {
+                    return (now - position.nanos()) / 1e9;
+                }
+            }
+            return 0;
+        } catch (SQLException exception) {
+            log.debug("Could not measure the lag of replica {}", name, exception);
+            return Double.NaN;
+        }
+    }
+
+    private WalPosition secondOldest() {
+        Iterator<WalPosition> positions = primaryPositions.iterator();
+        positions.next();
+        return positions.next();
+    }
+
+    private record WalPosition(long nanos, long lsn) {
+    }
+
+    @Override
+    public void destroy() {
+        replicas.values().forEach(HikariDataSource::close);
+    }
+}
@@ -0,0 +1,39 @@
+package id.my.hendisantika.movietrailer.datasource;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 20.10
+ * To change this template use File | Settings | File Templates.
+ */
+// Keeps the read-only transactions of the current thread on the primary, for a client that has just written and
+// must see its own changes. Pins nest, so a pinned filter chain can call code that pins again.
+public final class ReplicaRouting {
+    private static final ThreadLocal<Integer> PINS = new ThreadLocal<>();
+
+    private ReplicaRouting() {
+    }
+
+    public static void pin() {
+        Integer pins = PINS.get();
+        PINS.set(pins == null ? 1 : pins + 1);
+    }
+
+    public static void release() {
+        Integer pins = PINS.get();
+        if (pins == null || pins <= 1) {
+            PINS.remove();
+        } else {
+            PINS.set(pins - 1);
+        }
+    }
+
+    public static boolean isPinned() {
+        return PINS.get() != null;
+    }
+}
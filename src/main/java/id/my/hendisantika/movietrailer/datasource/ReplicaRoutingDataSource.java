@@ -0,0 +1,54 @@
+package id.my.hendisantika.movietrailer.datasource;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import javax.sql.DataSource;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 20.20
+ * To change this template use File | Settings | File Templates.
+ */
+// The read-only side of the LazyConnectionDataSourceProxy: it is only asked for connections of read-only
+// transactions, and hands out a replica unless the thread is pinned or the lag monitor says otherwise
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+    static final String PRIMARY = "primary";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    private final Map<String, Counter> reads = new HashMap<>();
+
+    public ReplicaRoutingDataSource(DataSource primary, Map<String, DataSource> replicas,
+                                    ReplicaLagMonitor lagMonitor, MeterRegistry meterRegistry) {
+        this.lagMonitor = lagMonitor;
+        Map<Object, Object> targets = new HashMap<>(replicas);
+        targets.put(PRIMARY, primary);
+        setTargetDataSources(targets);
+        setDefaultTargetDataSource(primary);
+        setLenientFallback(false);
+        for (Object target : targets.keySet()) {
+            reads.put((String) target, Counter.builder("datasource.reads")
+                    .description("Read-only transactions by the server that ran them")
+                    .tag("target", (String) target)
+                    .register(meterRegistry));
+        }
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String replica = ReplicaRouting.isPinned() ? null : lagMonitor.select();
+        String target = replica == null ? PRIMARY : replica;
+        reads.get(target).increment();
+        return target;
+    }
+}
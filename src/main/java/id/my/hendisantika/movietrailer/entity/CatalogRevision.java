@@ -0,0 +1,31 @@
+package id.my.hendisantika.movietrailer.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 21.40
+ * To change this template use File | Settings | File Templates.
+ */
+// The catalog's version, one row shared by every instance and the import CLI. Each transaction that changes the
+// catalog bumps it before committing, so the version and the rows it describes become visible together.
+@Entity
+@Data
+@NoArgsConstructor
+public class CatalogRevision {
+    public static final int ID = 1;
+
+    @Id
+    private Integer id;
+
+    private long revision;
+}
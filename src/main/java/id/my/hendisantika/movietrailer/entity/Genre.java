@@ -1,10 +1,14 @@
 package id.my.hendisantika.movietrailer.entity;
 
+import id.my.hendisantika.movietrailer.config.SecondLevelCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.Id;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 /**
  * Created by IntelliJ IDEA.
@@ -17,7 +21,10 @@ import lombok.NoArgsConstructor;
  * Time: 06.11
  * To change this template use File | Settings | File Templates.
  */
+// Reference data, cached read-only: changing a genre through JPA fails rather than leaving a stale copy behind
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_ONLY, region = SecondLevelCacheConfig.GENRE)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
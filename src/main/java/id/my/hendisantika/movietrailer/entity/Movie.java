@@ -1,5 +1,7 @@
 package id.my.hendisantika.movietrailer.entity;
 
+import id.my.hendisantika.movietrailer.config.SecondLevelCacheConfig;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.Entity;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
@@ -8,6 +10,7 @@ import jakarta.persistence.Id;
 import jakarta.persistence.JoinColumn;
 import jakarta.persistence.JoinTable;
 import jakarta.persistence.ManyToMany;
+import jakarta.persistence.SequenceGenerator;
 import jakarta.persistence.Transient;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
@@ -15,6 +18,9 @@ import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
+import org.hibernate.annotations.ColumnDefault;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -33,12 +39,18 @@ import java.util.List;
  * To change this template use File | Settings | File Templates.
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.MOVIE)
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 public class Movie {
+    // Ids come from a sequence in blocks of 50, so inserts can be batched; an identity column would force Hibernate
+    // to insert row by row to read each key back. The default keeps plain SQL inserts working (see V8).
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "movie_id_seq")
+    @SequenceGenerator(name = "movie_id_seq", sequenceName = "movie_id_seq", allocationSize = 50)
+    @ColumnDefault("nextval('movie_id_seq')")
     private Integer id;
 
     @NotBlank
@@ -56,8 +68,10 @@ public class Movie {
 
     private String routeCover;
 
+    // Cached as the genre ids of the movie; the genres themselves come from their own region
     @NotEmpty
-    @ManyToMany(fetch = FetchType.EAGER)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheConfig.MOVIE_GENRES)
+    @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "genre_movie", joinColumns = @JoinColumn(name = "movie_id"), inverseJoinColumns =
     @JoinColumn(name = "id_genre"))
     private List<Genre> genres;
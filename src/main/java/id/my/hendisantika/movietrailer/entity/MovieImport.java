@@ -0,0 +1,92 @@
+package id.my.hendisantika.movietrailer.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.05
+ * To change this template use File | Settings | File Templates.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class MovieImport {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String source;
+
+    @Enumerated(EnumType.STRING)
+    private Format format;
+
+    @Enumerated(EnumType.STRING)
+    private Status status;
+
+    // Records consumed up to the last committed chunk, and the SHA-256 of them, which a resumed input must match
+    private long checkpointRecord;
+
+    private String checkpointDigest;
+
+    private long imported;
+
+    private long rejected;
+
+    private String message;
+
+    private Instant startedAt;
+
+    private Instant updatedAt;
+
+    private Instant finishedAt;
+
+    public MovieImport(String source, Format format) {
+        this.source = source;
+        this.format = format;
+        this.status = Status.RUNNING;
+        this.startedAt = Instant.now();
+        this.updatedAt = startedAt;
+    }
+
+    public enum Format {
+        CSV("text/csv"),
+        NDJSON("application/x-ndjson");
+
+        private final String mediaType;
+
+        Format(String mediaType) {
+            this.mediaType = mediaType;
+        }
+
+        public String getMediaType() {
+            return mediaType;
+        }
+
+        public static Format fromFilename(String filename) {
+            String lower = filename.toLowerCase(Locale.ROOT);
+            return lower.endsWith(".csv") ? CSV : NDJSON;
+        }
+    }
+
+    public enum Status {
+        RUNNING,
+        COMPLETED,
+        FAILED
+    }
+}
@@ -0,0 +1,44 @@
+package id.my.hendisantika.movietrailer.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.10
+ * To change this template use File | Settings | File Templates.
+ */
+@Entity
+@Data
+@NoArgsConstructor
+public class MovieImportError {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private Long importId;
+
+    // Position of the rejected record in the input, counting from 1 and not counting a CSV header
+    private long recordNumber;
+
+    private String message;
+
+    private String content;
+
+    public MovieImportError(Long importId, long recordNumber, String message, String content) {
+        this.importId = importId;
+        this.recordNumber = recordNumber;
+        this.message = message;
+        this.content = content;
+    }
+}
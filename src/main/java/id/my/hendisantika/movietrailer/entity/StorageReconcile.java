@@ -0,0 +1,50 @@
+package id.my.hendisantika.movietrailer.entity;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 18.30
+ * To change this template use File | Settings | File Templates.
+ */
+// The reconciler's checkpoint: the shard to reconcile next and the counts of the cycle in progress
+@Entity
+@Data
+@NoArgsConstructor
+public class StorageReconcile {
+    public static final int CHECKPOINT_ID = 1;
+
+    @Id
+    private Integer id;
+
+    private int nextShard;
+
+    private long cycle;
+
+    private long quarantined;
+
+    private long reclaimed;
+
+    private long restored;
+
+    private long missing;
+
+    private Instant cycleStartedAt;
+
+    private Instant updatedAt;
+
+    public StorageReconcile(Integer id) {
+        this.id = id;
+    }
+}
@@ -0,0 +1,37 @@
+package id.my.hendisantika.movietrailer.event;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 11.10
+ * To change this template use File | Settings | File Templates.
+ */
+// listingsChanged is false only when the movie kept its title, premiere date and genres, so it could not have moved
+// into, out of or within any listing. revision is the catalog revision the change committed as, 0 when not known.
+public record MovieChangedEvent(Integer movieId, ChangeType type, boolean listingsChanged, long revision) {
+
+    public MovieChangedEvent(Integer movieId, ChangeType type) {
+        this(movieId, type, true);
+    }
+
+    public MovieChangedEvent(Integer movieId, ChangeType type, boolean listingsChanged) {
+        this(movieId, type, listingsChanged, 0);
+    }
+
+    // Many movies at once, with no single id: listeners rebuild or drop everything instead of patching one entry
+    public static MovieChangedEvent bulk() {
+        return new MovieChangedEvent(null, ChangeType.BULK, true);
+    }
+
+    public enum ChangeType {
+        CREATED,
+        UPDATED,
+        DELETED,
+        BULK
+    }
+}
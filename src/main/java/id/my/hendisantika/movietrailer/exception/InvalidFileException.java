@@ -0,0 +1,25 @@
+package id.my.hendisantika.movietrailer.exception;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 10.05
+ * To change this template use File | Settings | File Templates.
+ */
+@ResponseStatus(code = HttpStatus.UNSUPPORTED_MEDIA_TYPE)
+public class InvalidFileException extends WarehouseException {
+
+    private static final long serialVersionUID = 1L;
+
+    public InvalidFileException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,74 @@
+package id.my.hendisantika.movietrailer.metrics;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.Interceptor;
+import org.hibernate.Transaction;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.hibernate.type.Type;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.35
+ * To change this template use File | Settings | File Templates.
+ */
+// Hibernate's own statistics are global to the session factory; these hooks attribute statements and loaded
+// entities to the request on the current thread instead, and check each transaction against its own budget
+@RequiredArgsConstructor
+public class HibernateStatisticsListener implements StatementInspector, Interceptor {
+    // A stack, since a REQUIRES_NEW transaction begins on the same thread while the outer one is still open
+    private static final ThreadLocal<Deque<StatementTally>> TRANSACTIONS = ThreadLocal.withInitial(ArrayDeque::new);
+
+    private final QueryBudget queryBudget;
+
+    static StatementTally currentTransaction() {
+        return TRANSACTIONS.get().peek();
+    }
+
+    @Override
+    public String inspect(String sql) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.statementPrepared(sql);
+        }
+        StatementTally transaction = TRANSACTIONS.get().peek();
+        if (transaction != null) {
+            transaction.add(sql);
+        }
+        return sql;
+    }
+
+    @Override
+    public boolean onLoad(Object entity, Object id, Object[] state, String[] propertyNames, Type[] types) {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.entityLoaded();
+        }
+        return false;
+    }
+
+    @Override
+    public void afterTransactionBegin(Transaction transaction) {
+        TRANSACTIONS.get().push(new StatementTally());
+    }
+
+    @Override
+    public void afterTransactionCompletion(Transaction transaction) {
+        Deque<StatementTally> transactions = TRANSACTIONS.get();
+        StatementTally tally = transactions.poll();
+        if (transactions.isEmpty()) {
+            TRANSACTIONS.remove();
+        }
+        if (tally != null) {
+            queryBudget.checkTransaction(tally);
+        }
+    }
+}
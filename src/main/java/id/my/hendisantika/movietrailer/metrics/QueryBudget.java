@@ -0,0 +1,81 @@
+package id.my.hendisantika.movietrailer.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.35
+ * To change this template use File | Settings | File Templates.
+ */
+// Only reports: a page over budget still renders, the log line and the counter are what get it fixed
+@Slf4j
+@RequiredArgsConstructor
+public class QueryBudget {
+    public static final String REQUEST = "request";
+
+    public static final String TRANSACTION = "transaction";
+
+    private final int perRequest;
+
+    private final int perTransaction;
+
+    // The same shape this many times within one scope is reported as a likely N+1
+    private final int repeatThreshold;
+
+    private final MeterRegistry meterRegistry;
+
+    // Bulk work prepares statements in proportion to its input by design and is followed through its own progress
+    // report instead. Exempts the request served on this thread and the transaction open on it, if any.
+    public static void exemptCurrent() {
+        RequestStatistics statistics = RequestStatistics.current();
+        if (statistics != null) {
+            statistics.statementTally().exempt();
+        }
+        StatementTally transaction = HibernateStatisticsListener.currentTransaction();
+        if (transaction != null) {
+            transaction.exempt();
+        }
+    }
+
+    public void checkRequest(String route, StatementTally tally) {
+        check(REQUEST, route, perRequest, tally);
+    }
+
+    public void checkTransaction(StatementTally tally) {
+        check(TRANSACTION, Routes.current(), perTransaction, tally);
+    }
+
+    private void check(String scope, String route, int budget, StatementTally tally) {
+        if (tally.isExempt()) {
+            return;
+        }
+        RepeatedStatement repeated = tally.mostRepeatedQuery();
+        boolean nPlusOne = repeated != null && repeated.count() >= repeatThreshold;
+        if (tally.statements() > budget) {
+            counter("query.budget.exceeded", scope, route).increment();
+            log.warn("{} {} prepared {} statements, budget is {}{}", scope, route, tally.statements(), budget,
+                    nPlusOne ? "; likely N+1, " + repeated.count() + "x: " + repeated.shape() : "");
+        } else if (nPlusOne) {
+            log.warn("{} {} looks like an N+1, {}x: {}", scope, route, repeated.count(), repeated.shape());
+        }
+        if (nPlusOne) {
+            counter("query.n-plus-one", scope, route).increment();
+        }
+    }
+
+    private Counter counter(String name, String scope, String route) {
+        return Counter.builder(name)
+                .tag("scope", scope)
+                .tag(Routes.TAG, route)
+                .register(meterRegistry);
+    }
+}
@@ -0,0 +1,15 @@
+package id.my.hendisantika.movietrailer.metrics;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.25
+ * To change this template use File | Settings | File Templates.
+ */
+public record RepeatedStatement(String shape, int count) {
+}
@@ -0,0 +1,91 @@
+package id.my.hendisantika.movietrailer.metrics;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.30
+ * To change this template use File | Settings | File Templates.
+ */
+// What one request cost the database, collected on the thread serving it. Work outside a request (startup, event
+// listeners on other threads) finds no statistics and is simply not counted. Scopes nest, so a test can wrap a whole
+// MockMvc call and still see what the request filter's own scope counted.
+public final class RequestStatistics {
+    private static final ThreadLocal<RequestStatistics> CURRENT = new ThreadLocal<>();
+
+    private final RequestStatistics parent;
+
+    private final StatementTally statements = new StatementTally();
+
+    private int entitiesLoaded;
+
+    private int connections;
+
+    private long connectionWaitNanos;
+
+    private RequestStatistics(RequestStatistics parent) {
+        this.parent = parent;
+    }
+
+    public static RequestStatistics begin() {
+        RequestStatistics statistics = new RequestStatistics(CURRENT.get());
+        CURRENT.set(statistics);
+        return statistics;
+    }
+
+    public static RequestStatistics current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        RequestStatistics statistics = CURRENT.get();
+        if (statistics == null || statistics.parent == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(statistics.parent);
+        }
+    }
+
+    void statementPrepared(String sql) {
+        for (RequestStatistics scope = this; scope != null; scope = scope.parent) {
+            scope.statements.add(sql);
+        }
+    }
+
+    void entityLoaded() {
+        for (RequestStatistics scope = this; scope != null; scope = scope.parent) {
+            scope.entitiesLoaded++;
+        }
+    }
+
+    void connectionAcquired(long waitNanos) {
+        for (RequestStatistics scope = this; scope != null; scope = scope.parent) {
+            scope.connections++;
+            scope.connectionWaitNanos += waitNanos;
+        }
+    }
+
+    public int statements() {
+        return statements.statements();
+    }
+
+    public StatementTally statementTally() {
+        return statements;
+    }
+
+    public int entitiesLoaded() {
+        return entitiesLoaded;
+    }
+
+    public int connections() {
+        return connections;
+    }
+
+    public long connectionWaitNanos() {
+        return connectionWaitNanos;
+    }
+}
@@ -0,0 +1,45 @@
+package id.my.hendisantika.movietrailer.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.servlet.HandlerMapping;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.45
+ * To change this template use File | Settings | File Templates.
+ */
+// Route tags use the mapping pattern, like the uri tag of http.server.requests, so ids never blow up cardinality
+public final class Routes {
+    public static final String TAG = "uri";
+
+    // No request on this thread: startup, background work, or a filter that ran before the request context existed
+    public static final String NONE = "NONE";
+
+    public static final String UNKNOWN = "UNKNOWN";
+
+    private Routes() {
+    }
+
+    public static String of(HttpServletRequest request) {
+        Object pattern = request.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE);
+        return pattern != null ? pattern.toString() : UNKNOWN;
+    }
+
+    public static String current() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes == null) {
+            return NONE;
+        }
+        Object pattern = attributes.getAttribute(HandlerMapping.BEST_MATCHING_PATTERN_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST);
+        return pattern != null ? pattern.toString() : UNKNOWN;
+    }
+}
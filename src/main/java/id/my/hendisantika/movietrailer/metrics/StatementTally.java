@@ -0,0 +1,68 @@
+package id.my.hendisantika.movietrailer.metrics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.30
+ * To change this template use File | Settings | File Templates.
+ */
+// Statements prepared within one scope, a request or a transaction, counted per shape
+public final class StatementTally {
+    private final Map<String, Integer> shapes = new HashMap<>();
+
+    private int statements;
+
+    private boolean exempt;
+
+    void add(String sql) {
+        statements++;
+        shapes.merge(SqlShape.of(sql), 1, Integer::sum);
+    }
+
+    void exempt() {
+        exempt = true;
+    }
+
+    public boolean isExempt() {
+        return exempt;
+    }
+
+    public int statements() {
+        return statements;
+    }
+
+    public Map<String, Integer> shapes() {
+        return Map.copyOf(shapes);
+    }
+
+    // The shape prepared most often, or null when nothing ran twice
+    public RepeatedStatement mostRepeated() {
+        return mostRepeated(false);
+    }
+
+    // Same, among reads only: a repeated insert is a missing batch, not an N+1
+    public RepeatedStatement mostRepeatedQuery() {
+        return mostRepeated(true);
+    }
+
+    private RepeatedStatement mostRepeated(boolean queriesOnly) {
+        RepeatedStatement repeated = null;
+        for (Map.Entry<String, Integer> entry : shapes.entrySet()) {
+            if (queriesOnly && !entry.getKey().regionMatches(true, 0, "select", 0, 6)) {
+                continue;
+            }
+            if (entry.getValue() > 1 && (repeated == null || entry.getValue() > repeated.count())) {
+                repeated = new RepeatedStatement(entry.getKey(), entry.getValue());
+            }
+        }
+        return repeated;
+    }
+}
@@ -0,0 +1,41 @@
+package id.my.hendisantika.movietrailer.repository;
+
+import id.my.hendisantika.movietrailer.entity.CatalogRevision;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+
+import java.util.Optional;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 21.40
+ * To change this template use File | Settings | File Templates.
+ */
+public interface CatalogRevisionRepository extends JpaRepository<CatalogRevision, Integer> {
+
+    @Query("select r.revision from CatalogRevision r where r.id = " + CatalogRevision.ID)
+    Optional<Long> findRevision();
+
+    /**
+     * Bumps the version within the caller's transaction, creating the row on a schema that lacks it, and returns the
+     * revision that transaction commits as. The row stays locked until that transaction ends, so concurrent catalog
+     * writes commit one after the other, each one revision past the last. Declared to touch that table alone, so it
+     * doesn't flush the caller's pending changes early.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_NATIVE_SPACES, value = "catalog_revision"))
+    @Query(value = """
+            insert into catalog_revision (id, revision) values (1, 1)
+            on conflict (id) do update set revision = catalog_revision.revision + 1
+            returning revision
+            """, nativeQuery = true)
+    long bump();
+}
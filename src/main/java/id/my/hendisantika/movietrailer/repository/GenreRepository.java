@@ -1,7 +1,17 @@
 package id.my.hendisantika.movietrailer.repository;
 
+import id.my.hendisantika.movietrailer.config.SecondLevelCacheConfig;
 import id.my.hendisantika.movietrailer.entity.Genre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
 
 /**
  * Created by IntelliJ IDEA.
@@ -15,4 +25,27 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * To change this template use File | Settings | File Templates.
  */
 public interface GenreRepository extends JpaRepository<Genre, Integer> {
+
+    // The genre pickers render this list on every form and browse page. The query cache keeps the ids, the genres
+    // come from their entity region, and any write to the genre table invalidates the list.
+    @Override
+    @QueryHints({@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_REGION, value = SecondLevelCacheConfig.GENRE_LIST)})
+    List<Genre> findAll(Sort sort);
+
+    /**
+     * Seeds the built-in genres in one statement. Rows that already match are left alone, so a routine boot writes
+     * nothing and leaves no dead tuples behind.
+     *
+     * @return the number of genres inserted or renamed
+     */
+    @Transactional
+    @Modifying
+    @Query(value = """
+            insert into genre (id, title)
+            values (1, 'ACTION'), (2, 'COMEDY'), (3, 'HORROR'), (4, 'THRILLER'), (5, 'ADVENTURE')
+            on conflict (id) do update set title = excluded.title
+            where genre.title is distinct from excluded.title
+            """, nativeQuery = true)
+    int upsertDefaults();
 }
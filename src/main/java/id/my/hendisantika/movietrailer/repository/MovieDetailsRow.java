@@ -0,0 +1,17 @@
+package id.my.hendisantika.movietrailer.repository;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.35
+ * To change this template use File | Settings | File Templates.
+ */
+// The synopsis is the bulk of a movie row, so listings only select it when a client asks for it
+public interface MovieDetailsRow extends MovieSummaryRow {
+    String getSinopsis();
+}
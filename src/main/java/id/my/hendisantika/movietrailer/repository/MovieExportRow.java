@@ -0,0 +1,31 @@
+package id.my.hendisantika.movietrailer.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.10
+ * To change this template use File | Settings | File Templates.
+ */
+public interface MovieExportRow {
+    Integer getId();
+
+    String getTitle();
+
+    String getSinopsis();
+
+    LocalDate getPremiereDate();
+
+    String getYoutubeTrailerId();
+
+    String getRouteCover();
+
+    // Genre ids in ascending order separated by |, or null for a movie without genres
+    String getGenreIds();
+}
@@ -0,0 +1,22 @@
+package id.my.hendisantika.movietrailer.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.00
+ * To change this template use File | Settings | File Templates.
+ */
+public interface MovieGenreRow {
+    Integer getMovieId();
+
+    LocalDate getPremiereDate();
+
+    Integer getGenreId();
+}
@@ -0,0 +1,25 @@
+package id.my.hendisantika.movietrailer.repository;
+
+import id.my.hendisantika.movietrailer.entity.MovieImportError;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.20
+ * To change this template use File | Settings | File Templates.
+ */
+public interface MovieImportErrorRepository extends JpaRepository<MovieImportError, Long> {
+
+    // Keyset over the record number, like the catalog listings, so paging through a large error report stays cheap
+    List<MovieImportError> findByImportIdAndRecordNumberGreaterThanOrderByRecordNumber(Long importId, long after,
+                                                                                     Limit limit);
+}
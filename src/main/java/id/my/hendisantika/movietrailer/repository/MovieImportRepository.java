@@ -0,0 +1,31 @@
+package id.my.hendisantika.movietrailer.repository;
+
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.15
+ * To change this template use File | Settings | File Templates.
+ */
+public interface MovieImportRepository extends JpaRepository<MovieImport, Long> {
+
+    // Committed together with the chunk it describes, so the checkpoint never runs ahead of the rows
+    @Modifying
+    @Query("update MovieImport i set i.checkpointRecord = :record, i.checkpointDigest = :digest,"
+            + " i.imported = i.imported + :imported, i.rejected = i.rejected + :rejected, i.updatedAt = :now"
+            + " where i.id = :id")
+    void checkpoint(@Param("id") Long id, @Param("record") long record, @Param("digest") String digest,
+                    @Param("imported") long imported, @Param("rejected") long rejected, @Param("now") Instant now);
+}
@@ -1,7 +1,29 @@
 package id.my.hendisantika.movietrailer.repository;
 
 import id.my.hendisantika.movietrailer.entity.Movie;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * Created by IntelliJ IDEA.
@@ -15,4 +37,168 @@ import org.springframework.data.jpa.repository.JpaRepository;
  * To change this template use File | Settings | File Templates.
  */
 public interface MovieRepository extends JpaRepository<Movie, Integer> {
+    // Decides whether a cover may be deleted, so it runs read-write and never on a replica that is behind
+    @Transactional
+    long countByRouteCover(String routeCover);
+
+    @Query("select m.routeCover from Movie m where m.id = :id")
+    Optional<String> findRouteCoverById(@Param("id") Integer id);
+
+    @EntityGraph(attributePaths = "genres")
+    Optional<Movie> findWithGenresById(Integer id);
+
+    @Query(value = "select m.id from Movie m", countQuery = "select count(m) from Movie m")
+    Page<Integer> findIdPage(Pageable pageable);
+
+    @Query("select m.id from Movie m")
+    Slice<Integer> findIdSlice(Pageable pageable);
+
+    @Query("select m from Movie m left join fetch m.genres where m.id in :ids")
+    List<Movie> findAllWithGenresByIdIn(@Param("ids") Collection<Integer> ids);
+
+    @Query("select m.id as id, m.title as title from Movie m")
+    List<MovieTitle> findAllTitles();
+
+    @Query("select m.id as id, m.title as title from Movie m where m.id = :id")
+    Optional<MovieTitle> findTitleById(@Param("id") Integer id);
+
+    @Query("select m.id as movieId, m.premiereDate as premiereDate, g.id as genreId from Movie m left join m.genres g")
+    List<MovieGenreRow> findAllGenreRows();
+
+    @Query("select m.id as movieId, m.premiereDate as premiereDate, g.id as genreId from Movie m left join m.genres g"
+            + " where m.id = :id")
+    List<MovieGenreRow> findGenreRowsByMovieId(@Param("id") Integer id);
+
+    @Query("select m.id as movieId, m.premiereDate as premiereDate, g.id as genreId from Movie m join m.genres g"
+            + " where m.id in :ids")
+    List<MovieGenreRow> findGenreRowsByMovieIdIn(@Param("ids") Collection<Integer> ids);
+
+    // Keyset pages over the covers stored under one shard directory, read off idx_movie_route_cover in name order
+    @Query(value = "select distinct route_cover from movie where route_cover >= :from and route_cover < :to"
+            + " and route_cover > :after order by route_cover limit :limit", nativeQuery = true)
+    List<String> findRouteCoversBetween(@Param("from") String from, @Param("to") String to,
+                                        @Param("after") String after, @Param("limit") int limit);
+
+    // Covers named before content addressing, which sit in the storage root; external URLs and paths are not stored
+    @Query(value = """
+            select distinct route_cover from movie
+            where route_cover > :after
+              and route_cover !~ '^[0-9a-f]{64}'
+              and route_cover not like 'http%'
+              and route_cover not like '%/%'
+            order by route_cover
+            limit :limit
+            """, nativeQuery = true)
+    List<String> findLegacyRouteCoversAfter(@Param("after") String after, @Param("limit") int limit);
+
+    // Closed projections select only the columns of the given interface and load nothing into the persistence context
+    <T> List<T> findByIdIn(Collection<Integer> ids, Class<T> type);
+
+    <T> Optional<T> findProjectedById(Integer id, Class<T> type);
+
+    // Keyset pagination. Each query reads at most :limit entries off the composite indexes on (premiere_date, id)
+    // and (title, id), however deep the window is; the "before" variants scan backwards and return reversed order.
+    @Query(value = "select id from movie order by premiere_date desc, id desc limit :limit", nativeQuery = true)
+    List<Integer> findIdsByPremiereDate(@Param("limit") int limit);
+
+    @Query(value = "select id from movie where (premiere_date, id) < (:premiereDate, :id)"
+            + " order by premiere_date desc, id desc limit :limit", nativeQuery = true)
+    List<Integer> findIdsByPremiereDateAfter(@Param("premiereDate") LocalDate premiereDate, @Param("id") int id,
+                                             @Param("limit") int limit);
+
+    @Query(value = "select id from movie where (premiere_date, id) > (:premiereDate, :id)"
+            + " order by premiere_date, id limit :limit", nativeQuery = true)
+    List<Integer> findIdsByPremiereDateBefore(@Param("premiereDate") LocalDate premiereDate, @Param("id") int id,
+                                              @Param("limit") int limit);
+
+    @Query(value = "select id from movie order by title, id limit :limit", nativeQuery = true)
+    List<Integer> findIdsByTitle(@Param("limit") int limit);
+
+    @Query(value = "select id from movie where (title, id) > (:title, :id) order by title, id limit :limit",
+            nativeQuery = true)
+    List<Integer> findIdsByTitleAfter(@Param("title") String title, @Param("id") int id, @Param("limit") int limit);
+
+    @Query(value = "select id from movie where (title, id) < (:title, :id) order by title desc, id desc limit :limit",
+            nativeQuery = true)
+    List<Integer> findIdsByTitleBefore(@Param("title") String title, @Param("id") int id, @Param("limit") int limit);
+
+    // Full-text search over the generated movie.search_vector column (see V7). Matches come off the GIN index, are
+    // ranked and cut to the window first; ts_headline, which re-parses the documents, only runs for the window rows.
+    @Query(value = """
+            select hit.id as "id", hit.rank as "rank",
+                   ts_headline('english', m.title, hit.query, :titleOptions) as "titleHeadline",
+                   ts_headline('english', m.sinopsis, hit.query, :sinopsisOptions) as "sinopsisHeadline"
+            from (select ranked.id, ranked.rank, ranked.query
+                  from (select m.id, ts_rank_cd(m.search_vector, q.query) as rank, q.query
+                        from movie m, websearch_to_tsquery('english', :query) as q(query)
+                        where m.search_vector @@ q.query) ranked
+                  where (ranked.rank, ranked.id) < (cast(:rank as real), :id)
+                  order by ranked.rank desc, ranked.id desc
+                  limit :limit) hit
+            join movie m on m.id = hit.id
+            order by hit.rank desc, hit.id desc
+            """, nativeQuery = true)
+    List<MovieSearchHit> searchAfter(@Param("query") String query, @Param("rank") float rank, @Param("id") int id,
+                                     @Param("limit") int limit, @Param("titleOptions") String titleOptions,
+                                     @Param("sinopsisOptions") String sinopsisOptions);
+
+    @Query(value = """
+            select hit.id as "id", hit.rank as "rank",
+                   ts_headline('english', m.title, hit.query, :titleOptions) as "titleHeadline",
+                   ts_headline('english', m.sinopsis, hit.query, :sinopsisOptions) as "sinopsisHeadline"
+            from (select ranked.id, ranked.rank, ranked.query
+                  from (select m.id, ts_rank_cd(m.search_vector, q.query) as rank, q.query
+                        from movie m, websearch_to_tsquery('english', :query) as q(query)
+                        where m.search_vector @@ q.query) ranked
+                  where (ranked.rank, ranked.id) > (cast(:rank as real), :id)
+                  order by ranked.rank, ranked.id
+                  limit :limit) hit
+            join movie m on m.id = hit.id
+            order by hit.rank, hit.id
+            """, nativeQuery = true)
+    List<MovieSearchHit> searchBefore(@Param("query") String query, @Param("rank") float rank, @Param("id") int id,
+                                      @Param("limit") int limit, @Param("titleOptions") String titleOptions,
+                                      @Param("sinopsisOptions") String sinopsisOptions);
+
+    /**
+     * Every movie in id order with its genre ids folded into the row, read through a server-side cursor: with a
+     * fetch size inside a transaction the driver pulls the rows in slices rather than buffering the whole result.
+     * Rows are projections, so nothing piles up in the persistence context either. Close the stream.
+     */
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query(value = """
+            select m.id as "id", m.title as "title", m.sinopsis as "sinopsis", m.premiere_date as "premiereDate",
+                   m.youtube_trailer_id as "youtubeTrailerId", m.route_cover as "routeCover",
+                   (select string_agg(cast(gm.id_genre as varchar), '|' order by gm.id_genre)
+                    from genre_movie gm
+                    where gm.movie_id = m.id) as "genreIds"
+            from movie m
+            order by m.id
+            """, nativeQuery = true)
+    Stream<MovieExportRow> streamExportRows();
+
+    /**
+     * Pages over the ids first and then loads the movies of that page with their genres in one query, so a page
+     * always costs the same number of statements whatever its size. Paging a collection fetch join directly
+     * would make Hibernate paginate in memory. A movie deleted between the two queries is left out of the page.
+     */
+    default Page<Movie> findPageWithGenres(Pageable pageable) {
+        Page<Integer> ids = findIdPage(pageable);
+        return new PageImpl<>(findAllWithGenresInOrder(ids.getContent()), ids.getPageable(), ids.getTotalElements());
+    }
+
+    default Slice<Movie> findSliceWithGenres(Pageable pageable) {
+        Slice<Integer> ids = findIdSlice(pageable);
+        return new SliceImpl<>(findAllWithGenresInOrder(ids.getContent()), ids.getPageable(), ids.hasNext());
+    }
+
+    // Ids with no row left, deleted since they were read, are dropped, so the result may be shorter than the ids
+    default List<Movie> findAllWithGenresInOrder(List<Integer> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+        Map<Integer, Movie> movies = findAllWithGenresByIdIn(ids).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        return ids.stream().map(movies::get).filter(Objects::nonNull).toList();
+    }
 }
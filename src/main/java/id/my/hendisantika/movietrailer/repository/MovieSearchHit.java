@@ -0,0 +1,22 @@
+package id.my.hendisantika.movietrailer.repository;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 13.00
+ * To change this template use File | Settings | File Templates.
+ */
+public interface MovieSearchHit {
+    Integer getId();
+
+    Float getRank();
+
+    String getTitleHeadline();
+
+    String getSinopsisHeadline();
+}
@@ -0,0 +1,26 @@
+package id.my.hendisantika.movietrailer.repository;
+
+import java.time.LocalDate;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.35
+ * To change this template use File | Settings | File Templates.
+ */
+public interface MovieSummaryRow {
+    Integer getId();
+
+    String getTitle();
+
+    LocalDate getPremiereDate();
+
+    String getYoutubeTrailerId();
+
+    String getRouteCover();
+}
@@ -0,0 +1,18 @@
+package id.my.hendisantika.movietrailer.repository;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.00
+ * To change this template use File | Settings | File Templates.
+ */
+public interface MovieTitle {
+    Integer getId();
+
+    String getTitle();
+}
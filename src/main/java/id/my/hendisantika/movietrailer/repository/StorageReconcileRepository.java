@@ -0,0 +1,33 @@
+package id.my.hendisantika.movietrailer.repository;
+
+import id.my.hendisantika.movietrailer.entity.StorageReconcile;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.SpecHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 18.30
+ * To change this template use File | Settings | File Templates.
+ */
+public interface StorageReconcileRepository extends JpaRepository<StorageReconcile, Integer> {
+
+    // A lock timeout of -2 is SKIP LOCKED: an instance finding the row taken leaves the shard to the one holding it
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = SpecHints.HINT_SPEC_LOCK_TIMEOUT, value = "-2"))
+    @Query("select r from StorageReconcile r where r.id = :id")
+    Optional<StorageReconcile> lockById(@Param("id") Integer id);
+}
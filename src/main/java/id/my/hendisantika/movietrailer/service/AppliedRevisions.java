@@ -0,0 +1,45 @@
+package id.my.hendisantika.movietrailer.service;
+
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 22.30
+ * To change this template use File | Settings | File Templates.
+ */
+// The catalog revisions an in-memory index has caught up with. Every bump adds one, so the index is current when each
+// revision since its last build was applied by a local patch; a gap is a write made by another instance or by the
+// import CLI, which only a rebuild can pick up. Not thread-safe: the index calls it under its own lock.
+final class AppliedRevisions {
+    private long caughtUp;
+
+    // Patched revisions past caughtUp, waiting for the ones before them
+    private final NavigableSet<Long> patched = new TreeSet<>();
+
+    // The revision read before the rows of a build
+    void built(long revision) {
+        caughtUp = revision;
+        patched.headSet(revision, true).clear();
+    }
+
+    // 0 is an event that doesn't know its revision, which leaves the gap to the next refresh
+    void patched(long revision) {
+        if (revision > caughtUp) {
+            patched.add(revision);
+        }
+    }
+
+    boolean coverUpTo(long current) {
+        while (!patched.isEmpty() && patched.first() == caughtUp + 1) {
+            caughtUp = patched.pollFirst();
+        }
+        return caughtUp >= current;
+    }
+}
@@ -0,0 +1,265 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.exception.FileNotFoundException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 08.10
+ * To change this template use File | Settings | File Templates.
+ */
+@Service
+public class AssetDeliveryService {
+    // Request attributes understood by Tomcat's NIO/NIO2 connectors. When the connector advertises sendfile support
+    // the body is handed to the kernel after the servlet returns and never passes through the JVM heap.
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final Duration IMMUTABLE_MAX_AGE = Duration.ofDays(365);
+
+    // How WarehouseService names a stored blob: the SHA-256 of its content, then the extension
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("([0-9a-f]{64})(\\.[a-z0-9]{1,8})?");
+
+    private final Counter sendfileBytes;
+
+    private final Counter copiedBytes;
+
+    @Value("${storage.cache.max-age:7d}")
+    private Duration maxAge;
+
+    public AssetDeliveryService(MeterRegistry meterRegistry) {
+        this.sendfileBytes = Counter.builder("assets.delivered.bytes")
+                .description("Bytes of stored assets written to clients")
+                .baseUnit("bytes")
+                .tag("transfer", "sendfile")
+                .register(meterRegistry);
+        this.copiedBytes = Counter.builder("assets.delivered.bytes")
+                .description("Bytes of stored assets written to clients")
+                .baseUnit("bytes")
+                .tag("transfer", "copy")
+                .register(meterRegistry);
+    }
+
+    public void serve(Path file, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        serve(file, CacheControl.maxAge(maxAge).cachePublic(), request, response);
+    }
+
+    /**
+     * For content-addressed files, whose name changes whenever their bytes do.
+     */
+    public void serveImmutable(Path file, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        serve(file, CacheControl.maxAge(IMMUTABLE_MAX_AGE).cachePublic().immutable(), request, response);
+    }
+
+    public void serve(Path file, CacheControl cacheControl, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(file, BasicFileAttributes.class);
+        } catch (NoSuchFileException exception) {
+            throw new FileNotFoundException("The file could not be found " + file.getFileName(), exception);
+        }
+        long length = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        String etag = etag(file, length, lastModified);
+
+        response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        if (new ServletWebRequest(request, response).checkNotModified(etag, lastModified)) {
+            return;
+        }
+
+        MediaType mediaType = MediaTypeFactory.getMediaType(file.getFileName().toString())
+                .orElse(MediaType.APPLICATION_OCTET_STREAM);
+        boolean head = HttpMethod.HEAD.matches(request.getMethod());
+        String rangeHeader = request.getHeader(HttpHeaders.RANGE);
+
+        if (rangeHeader == null || !ifRangeMatches(request, etag, lastModified)) {
+            response.setContentType(mediaType.toString());
+            response.setContentLengthLong(length);
+            if (!head) {
+                transfer(file, new Region(0, length - 1), request, response);
+            }
+            return;
+        }
+
+        List<Region> regions = toRegions(rangeHeader, length);
+        if (regions.isEmpty()) {
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            response.sendError(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+            return;
+        }
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+        if (regions.size() == 1) {
+            Region region = regions.getFirst();
+            response.setContentType(mediaType.toString());
+            response.setHeader(HttpHeaders.CONTENT_RANGE, region.contentRange(length));
+            response.setContentLengthLong(region.count());
+            if (!head) {
+                transfer(file, region, request, response);
+            }
+            return;
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        List<byte[]> partHeaders = new ArrayList<>(regions.size());
+        long contentLength = 0;
+        for (Region region : regions) {
+            byte[] partHeader = ("\r\n--" + boundary + "\r\n"
+                    + HttpHeaders.CONTENT_TYPE + ": " + mediaType + "\r\n"
+                    + HttpHeaders.CONTENT_RANGE + ": " + region.contentRange(length) + "\r\n\r\n")
+                    .getBytes(StandardCharsets.US_ASCII);
+            partHeaders.add(partHeader);
+            contentLength += partHeader.length + region.count();
+        }
+        byte[] closing = ("\r\n--" + boundary + "--\r\n").getBytes(StandardCharsets.US_ASCII);
+        contentLength += closing.length;
+
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        response.setContentLengthLong(contentLength);
+        if (head) {
+            return;
+        }
+        OutputStream outputStream = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(outputStream);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            for (int i = 0; i < regions.size(); i++) {
+                outputStream.write(partHeaders.get(i));
+                transferTo(channel, regions.get(i), target);
+            }
+        }
+        outputStream.write(closing);
+    }
+
+    // A content-addressed name already is a strong validator for its bytes. Leaving the modification time out keeps
+    // the tag stable when the blob goes through the quarantine and back.
+    private static String etag(Path file, long length, long lastModified) {
+        Matcher matcher = CONTENT_ADDRESSED.matcher(file.getFileName().toString());
+        if (matcher.matches()) {
+            return "\"" + matcher.group(1) + "\"";
+        }
+        return "\"" + Long.toHexString(length) + "-" + Long.toHexString(lastModified) + "\"";
+    }
+
+    private boolean ifRangeMatches(HttpServletRequest request, String etag, long lastModified) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+            return ifRange.equals(etag);
+        }
+        try {
+            // HTTP dates only have second precision
+            return request.getDateHeader(HttpHeaders.IF_RANGE) / 1000 == lastModified / 1000;
+        } catch (IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    private List<Region> toRegions(String rangeHeader, long length) {
+        List<HttpRange> ranges;
+        try {
+            ranges = HttpRange.parseRanges(rangeHeader);
+        } catch (IllegalArgumentException exception) {
+            return List.of();
+        }
+        List<Region> regions = new ArrayList<>(ranges.size());
+        long total = 0;
+        for (HttpRange range : ranges) {
+            long start = range.getRangeStart(length);
+            if (start >= length) {
+                continue;
+            }
+            Region region = new Region(start, range.getRangeEnd(length));
+            total += region.count();
+            regions.add(region);
+        }
+        // Overlapping ranges that add up to more than the file itself are a classic amplification vector
+        if (total > length) {
+            return List.of();
+        }
+        return regions;
+    }
+
+    private void transfer(Path file, Region region, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        if (region.count() == 0) {
+            return;
+        }
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            request.setAttribute(SENDFILE_FILENAME, file.toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, region.start());
+            request.setAttribute(SENDFILE_END, region.end() + 1);
+            sendfileBytes.increment(region.count());
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            transferTo(channel, region, Channels.newChannel(response.getOutputStream()));
+        }
+    }
+
+    private void transferTo(FileChannel channel, Region region, WritableByteChannel target) throws IOException {
+        long position = region.start();
+        long remaining = region.count();
+        while (remaining > 0) {
+            long transferred = channel.transferTo(position, remaining, target);
+            if (transferred <= 0) {
+                break;
+            }
+            position += transferred;
+            remaining -= transferred;
+        }
+        copiedBytes.increment(region.count() - remaining);
+    }
+
+    private record Region(long start, long end) {
+        long count() {
+            return end - start + 1;
+        }
+
+        String contentRange(long length) {
+            return "bytes " + start + "-" + end + "/" + length;
+        }
+    }
+}
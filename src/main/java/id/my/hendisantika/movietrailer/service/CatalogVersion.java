@@ -0,0 +1,39 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.repository.CatalogRevisionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.50
+ * To change this template use File | Settings | File Templates.
+ */
+// Changes whenever the catalog does, so a client's ETag can be checked with one primary-key read instead of the
+// rows themselves. Kept in the database and bumped by the writing transaction, so a write made by another instance
+// or by the import CLI changes it as surely as one made here.
+@Component
+@RequiredArgsConstructor
+public class CatalogVersion {
+    private final CatalogRevisionRepository catalogRevisionRepository;
+
+    public long current() {
+        return catalogRevisionRepository.findRevision().orElse(0L);
+    }
+
+    public String etag() {
+        return "W/\"" + Long.toHexString(current()) + "\"";
+    }
+
+    // Must run inside the transaction that changes the catalog; called last, as the row stays locked until commit.
+    // Returns the revision the transaction commits as.
+    public long bump() {
+        return catalogRevisionRepository.bump();
+    }
+}
@@ -0,0 +1,209 @@
+package id.my.hendisantika.movietrailer.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.my.hendisantika.movietrailer.event.CoverStoredEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOException;
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Iterator;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 09.25
+ * To change this template use File | Settings | File Templates.
+ */
+@Slf4j
+@Service
+public class CoverDerivativeService implements DisposableBean {
+    // Names are content hashes, so an entry stays true for as long as it is kept; the bound only stops a stream of
+    // junk uploads from growing it without end, and an evicted name costs one more failed decode
+    private static final int MAX_UNREADABLE = 10_000;
+
+    private final WarehouseService warehouseService;
+
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+
+    private final Set<String> inFlight = ConcurrentHashMap.newKeySet();
+
+    private final Cache<String, Boolean> unreadable = Caffeine.newBuilder().maximumSize(MAX_UNREADABLE).build();
+
+    // Decoding is memory hungry, so only a few covers are processed at once no matter how many virtual threads wait
+    private final Semaphore permits;
+
+    @Value("${storage.derivatives.quality:0.82}")
+    private float quality;
+
+    public CoverDerivativeService(WarehouseService warehouseService,
+                                  @Value("${storage.derivatives.concurrency:2}") int concurrency) {
+        this.warehouseService = warehouseService;
+        this.permits = new Semaphore(concurrency);
+    }
+
+    @EventListener
+    public void onCoverStored(CoverStoredEvent event) {
+        schedule(event.filename());
+    }
+
+    public Optional<Path> findDerivative(String filename, CoverSize size) {
+        Path derivative = warehouseService.derivativeFile(filename, size);
+        if (Files.isRegularFile(derivative)) {
+            return Optional.of(derivative);
+        }
+        // Covers uploaded before the pipeline existed get their renditions the first time they are asked for
+        schedule(filename);
+        return Optional.empty();
+    }
+
+    public void schedule(String filename) {
+        if (unreadable.getIfPresent(filename) != null || !inFlight.add(filename)) {
+            return;
+        }
+        executor.execute(() -> {
+            try {
+                permits.acquire();
+                try {
+                    generate(filename);
+                } finally {
+                    permits.release();
+                }
+            } catch (InterruptedException exception) {
+                Thread.currentThread().interrupt();
+            } catch (Exception exception) {
+                log.warn("Could not create derivatives for cover {}", filename, exception);
+            } finally {
+                inFlight.remove(filename);
+            }
+        });
+    }
+
+    private void generate(String filename) throws IOException {
+        Path source = warehouseService.fileUpload(filename);
+        if (!Files.isRegularFile(source)) {
+            return;
+        }
+        BufferedImage image = decode(source, CoverSize.LARGE.getWidth());
+        if (image == null) {
+            unreadable.put(filename, Boolean.TRUE);
+            log.debug("Cover {} is not a readable image, no derivatives created", filename);
+            return;
+        }
+        for (CoverSize size : CoverSize.values()) {
+            Path target = warehouseService.derivativeFile(filename, size);
+            if (!Files.exists(target)) {
+                write(scale(image, size.getWidth()), filename, target);
+            }
+        }
+        log.debug("Derivatives created for cover {}", filename);
+    }
+
+    /**
+     * Decodes with source subsampling, so a huge upload is never fully expanded in memory. Metadata is skipped
+     * on read and never written back.
+     */
+    private BufferedImage decode(Path source, int targetWidth) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int step = Math.max(1, reader.getWidth(0) / targetWidth);
+                ImageReadParam param = reader.getDefaultReadParam();
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } catch (IIOException exception) {
+                // A valid signature in front of a broken image: as unreadable as an unknown format
+                return null;
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    private BufferedImage scale(BufferedImage source, int maxWidth) {
+        int width = Math.min(maxWidth, source.getWidth());
+        int height = Math.max(1, Math.round(source.getHeight() * (width / (float) source.getWidth())));
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(source, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void write(BufferedImage image, String filename, Path target) throws IOException {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+        Path temporary = Files.createTempFile(target.getParent(), ".derivative-", ".tmp");
+        try {
+            ImageWriteParam param = writer.getDefaultWriteParam();
+            param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+            param.setCompressionQuality(quality);
+            param.setProgressiveMode(ImageWriteParam.MODE_DEFAULT);
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temporary.toFile())) {
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            }
+            // Under the blob's lock: deleteArchive may have run since the decode, and a rendition moved in after it
+            // would outlive its original
+            Lock lock = warehouseService.blobLock(filename);
+            lock.lock();
+            try {
+                if (Files.isRegularFile(warehouseService.fileUpload(filename))) {
+                    Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                lock.unlock();
+            }
+        } finally {
+            writer.dispose();
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    @Override
+    public void destroy() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,283 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.exception.WarehouseException;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 19.00
+ * To change this template use File | Settings | File Templates.
+ */
+// Keeps cover file I/O out of admin transactions. Every cover a write may orphan, the new upload as well as the
+// one it replaces, is journaled before the transaction starts and released after it ends, whatever the outcome:
+// a release only quarantines a blob nothing references, so it keeps the cover a commit points to and reclaims the
+// one a rollback left behind. Entries are fsynced, and whatever a crash interrupted is released again on the next
+// start.
+// Instances sharing a storage root each write a journal of their own and hold a lock on it while they run. A journal
+// nobody holds a lock on was left by an instance that stopped, and the next instance to start takes its entries over.
+@Slf4j
+@Service
+public class CoverFilePipeline implements DisposableBean {
+    // Under the storage root, where StorageReconciler skips dot-prefixed names
+    static final String JOURNAL_DIRECTORY = ".journal";
+
+    // Also matches cover-releases.log, the single journal of earlier versions
+    static final String JOURNAL_GLOB = "cover-releases*.log";
+
+    private static final String JOURNALED = "+";
+
+    private static final String RELEASED = "-";
+
+    private final WarehouseService warehouseService;
+
+    // Releases are rare and cheap, one worker keeps them in journal order
+    private final ExecutorService executor = Executors.newSingleThreadExecutor(
+            Thread.ofVirtual().name("cover-release").factory());
+
+    // Journaled and not yet released, by sequence
+    private final Map<Long, CoverRelease> pending = new LinkedHashMap<>();
+
+    private long sequence;
+
+    private final Path journalName = Path.of("cover-releases-" + UUID.randomUUID() + ".log");
+
+    private Path journalFile;
+
+    private FileChannel journal;
+
+    private FileLock journalLock;
+
+    @Value("${storage.location}")
+    private String storageLocation;
+
+    public CoverFilePipeline(WarehouseService warehouseService, MeterRegistry meterRegistry) {
+        this.warehouseService = warehouseService;
+        Gauge.builder("storage.cover.releases.pending", this, CoverFilePipeline::pendingCount)
+                .description("Cover releases journaled but not yet carried out")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Opens this instance's journal and takes over the entries of every journal an instance that has stopped left
+     * behind. They are released once the application is ready.
+     */
+    @PostConstruct
+    public synchronized void openJournal() {
+        Path directory = Paths.get(storageLocation).resolve(JOURNAL_DIRECTORY);
+        try {
+            Files.createDirectories(directory);
+            journalFile = directory.resolve(journalName);
+            journal = FileChannel.open(journalFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE,
+                    StandardOpenOption.APPEND);
+            journalLock = journal.lock();
+            try (DirectoryStream<Path> journals = Files.newDirectoryStream(directory, JOURNAL_GLOB)) {
+                for (Path other : journals) {
+                    if (!other.equals(journalFile)) {
+                        adopt(other);
+                    }
+                }
+            }
+        } catch (IOException exception) {
+            throw new WarehouseException("Failed to open the cover release journal", exception);
+        }
+        if (!pending.isEmpty()) {
+            log.info("{} cover releases left pending by stopped instances", pending.size());
+        }
+    }
+
+    // Copies the pending entries into this instance's journal before deleting the other one, so a crash in between
+    // only releases them twice
+    private void adopt(Path other) throws IOException {
+        try (FileChannel channel = FileChannel.open(other, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock lock;
+            try {
+                lock = channel.tryLock();
+            } catch (OverlappingFileLockException exception) {
+                // Held by another application context in this JVM
+                return;
+            }
+            if (lock == null || !Files.exists(other)) {
+                // Still running, or taken over by another instance since it was listed
+                return;
+            }
+            Map<Long, CoverRelease> entries = new LinkedHashMap<>();
+            Files.readAllLines(other, StandardCharsets.UTF_8).forEach(line -> replayLine(entries, line));
+            for (CoverRelease entry : entries.values()) {
+                append(entry.journaledAt(), entry.filename());
+            }
+            Files.delete(other);
+            log.debug("Took over {} cover releases from {}", entries.size(), other.getFileName());
+        } catch (NoSuchFileException exception) {
+            // Taken over and deleted by another instance since it was listed
+        }
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void releasePending() {
+        List<CoverRelease> releases;
+        synchronized (this) {
+            releases = new ArrayList<>(pending.values());
+        }
+        releases.forEach(this::release);
+    }
+
+    /**
+     * Stores the upload and journals it, so it is reclaimed should the transaction that references it fail.
+     */
+    public CoverRelease stage(MultipartFile frontPage) {
+        return journal(warehouseService.storeFile(frontPage));
+    }
+
+    /**
+     * Durably records that the cover may lose its last reference. External URLs are not ours to delete and
+     * yield {@code null}.
+     */
+    public synchronized CoverRelease journal(String filename) {
+        if (filename == null || filename.isBlank() || filename.startsWith("http")) {
+            return null;
+        }
+        try {
+            return append(Instant.now(), filename);
+        } catch (IOException exception) {
+            throw new WarehouseException("Failed to journal the release of cover " + filename, exception);
+        }
+    }
+
+    private CoverRelease append(Instant journaledAt, String filename) throws IOException {
+        CoverRelease release = new CoverRelease(++sequence, journaledAt, filename);
+        journal.write(encode(release));
+        journal.force(false);
+        pending.put(release.sequence(), release);
+        return release;
+    }
+
+    /**
+     * Hands the releases to the worker. Call once the transaction that may have orphaned them has ended.
+     */
+    public void release(CoverRelease... releases) {
+        for (CoverRelease release : releases) {
+            if (release != null) {
+                executor.execute(() -> process(release));
+            }
+        }
+    }
+
+    // An upload the streaming filter committed for a form that then failed validation
+    public void discard(MultipartFile frontPage) {
+        if (frontPage instanceof StoredMultipartFile stored) {
+            release(journal(stored.getStoredName()));
+        }
+    }
+
+    // Returns once everything handed to the worker so far has been processed
+    void awaitReleases() throws Exception {
+        executor.submit(() -> {
+        }).get(30, TimeUnit.SECONDS);
+    }
+
+    synchronized int pendingCount() {
+        return pending.size();
+    }
+
+    private void process(CoverRelease release) {
+        try {
+            Path archive = warehouseService.fileUpload(release.filename());
+            if (Files.isRegularFile(archive)
+                    && warehouseService.lastStaged(archive).isAfter(release.journaledAt())) {
+                // Staged again since, by a write that journaled its own release
+                log.debug("Cover {} was staged again, leaving it to the later release", release.filename());
+            } else {
+                warehouseService.deleteArchive(release.filename());
+            }
+            complete(release);
+        } catch (Exception exception) {
+            // Stays in the journal, the next start tries again
+            log.warn("Could not release cover {}", release.filename(), exception);
+        }
+    }
+
+    private synchronized void complete(CoverRelease release) throws IOException {
+        pending.remove(release.sequence());
+        if (pending.isEmpty()) {
+            journal.truncate(0);
+        } else {
+            // Not forced: losing it only repeats an idempotent release
+            journal.write(ByteBuffer.wrap((RELEASED + " " + release.sequence() + "\n")
+                    .getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static void replayLine(Map<Long, CoverRelease> entries, String line) {
+        String[] fields = line.split(" ", 4);
+        try {
+            if (fields[0].equals(JOURNALED) && fields.length == 4) {
+                CoverRelease release = new CoverRelease(Long.parseLong(fields[1]), Instant.parse(fields[2]),
+                        fields[3]);
+                entries.put(release.sequence(), release);
+            } else if (fields[0].equals(RELEASED) && fields.length == 2) {
+                entries.remove(Long.parseLong(fields[1]));
+            }
+        } catch (RuntimeException exception) {
+            // A line torn by a crash mid-write
+            log.warn("Skipping unreadable cover journal line: {}", line);
+        }
+    }
+
+    private static ByteBuffer encode(CoverRelease release) {
+        return ByteBuffer.wrap((JOURNALED + " " + release.sequence() + " " + release.journaledAt() + " "
+                + release.filename() + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Override
+    public void destroy() throws Exception {
+        executor.shutdown();
+        if (!executor.awaitTermination(10, TimeUnit.SECONDS)) {
+            executor.shutdownNow();
+        }
+        synchronized (this) {
+            // An instance that released everything leaves nothing for the next one to take over
+            if (pending.isEmpty()) {
+                Files.deleteIfExists(journalFile);
+            }
+            journalLock.release();
+            journal.close();
+        }
+    }
+}
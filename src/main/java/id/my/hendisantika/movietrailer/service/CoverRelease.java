@@ -0,0 +1,18 @@
+package id.my.hendisantika.movietrailer.service;
+
+import java.time.Instant;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 19.00
+ * To change this template use File | Settings | File Templates.
+ */
+// A cover that may have lost its last reference, as recorded in the CoverFilePipeline journal
+public record CoverRelease(long sequence, Instant journaledAt, String filename) {
+}
@@ -0,0 +1,34 @@
+package id.my.hendisantika.movietrailer.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+import java.util.Arrays;
+import java.util.Optional;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 09.15
+ * To change this template use File | Settings | File Templates.
+ */
+@Getter
+@RequiredArgsConstructor
+public enum CoverSize {
+    SMALL("sm", 320),
+    MEDIUM("md", 640),
+    LARGE("lg", 1024);
+
+    private final String key;
+
+    private final int width;
+
+    public static Optional<CoverSize> fromKey(String key) {
+        return Arrays.stream(values()).filter(size -> size.key.equals(key)).findFirst();
+    }
+}
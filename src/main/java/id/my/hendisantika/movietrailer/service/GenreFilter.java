@@ -0,0 +1,33 @@
+package id.my.hendisantika.movietrailer.service;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.10
+ * To change this template use File | Settings | File Templates.
+ */
+public record GenreFilter(SortedSet<Integer> genreIds, GenreMatch match) {
+
+    public static GenreFilter of(Collection<Integer> genreIds, GenreMatch match) {
+        SortedSet<Integer> ids = new TreeSet<>();
+        if (genreIds != null) {
+            genreIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        return new GenreFilter(Collections.unmodifiableSortedSet(ids), match);
+    }
+
+    public boolean isEmpty() {
+        return genreIds.isEmpty();
+    }
+}
@@ -0,0 +1,279 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.repository.MovieGenreRow;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.roaringbitmap.FastAggregation;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.15
+ * To change this template use File | Settings | File Templates.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class GenreIndex {
+    // Below this share of the catalog it is cheaper to sort the matches than to walk the catalog order testing each
+    private static final int SPARSE_RATIO = 64;
+
+    private final MovieRepository movieRepository;
+
+    private final CatalogVersion catalogVersion;
+
+    // Readers take the current snapshot without locking; writers build a new one and publish it
+    private volatile Snapshot snapshot;
+
+    // Guarded by the same lock as the builds and patches
+    private final AppliedRevisions revisions = new AppliedRevisions();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            long started = System.nanoTime();
+            revisions.built(catalogVersion.current());
+            Snapshot built = Snapshot.of(movieRepository.findAllGenreRows());
+            snapshot = built;
+            log.info("Genre index built for {} movies and {} genres in {} ms", built.keys.length,
+                    built.moviesByGenre.size(), (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // Local writes patch the index as they commit. Writes from other instances or the import CLI only move the
+    // catalog revision, so a revision no local patch applied costs one rebuild within the interval.
+    @Scheduled(initialDelayString = "${catalog-index.refresh-interval:30s}",
+            fixedDelayString = "${catalog-index.refresh-interval:30s}")
+    public void refresh() {
+        synchronized (this) {
+            if (snapshot != null && !revisions.coverUpTo(catalogVersion.current())) {
+                build();
+            }
+        }
+    }
+
+    /**
+     * Ids of the movies matching the filter, newest first, in the keyset window next to the cursor. Windows before
+     * the cursor are returned in reverse order, like the keyset queries on {@code MovieRepository}.
+     *
+     * @param position the cursor of a {@link MovieSort#PREMIERE_DATE} listing, or {@code null} for the first window
+     */
+    public List<Integer> findIds(GenreFilter filter, MovieCursor position, int limit) {
+        Snapshot current = current();
+        RoaringBitmap matches = current.matching(filter);
+        List<Integer> ids = new ArrayList<>(Math.min(limit, matches.getCardinality()));
+        if (matches.isEmpty()) {
+            return ids;
+        }
+
+        // Keys ascend with (premiere_date, id), so newest first means walking down the array
+        boolean sparse = (long) matches.getCardinality() * SPARSE_RATIO < current.keys.length;
+        long[] keys = sparse ? current.keysOf(matches) : current.keys;
+        boolean before = position != null && position.before();
+        int index;
+        if (position == null) {
+            index = keys.length - 1;
+        } else {
+            long cursorKey = key(LocalDate.parse(position.key()), position.id());
+            int found = Arrays.binarySearch(keys, cursorKey);
+            int insertion = found >= 0 ? found : -found - 1;
+            index = before ? (found >= 0 ? found + 1 : insertion) : insertion - 1;
+        }
+        int step = before ? 1 : -1;
+        for (; index >= 0 && index < keys.length && ids.size() < limit; index += step) {
+            int id = (int) keys[index];
+            if (sparse || matches.contains(id)) {
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    // Before the cache eviction in MovieCatalogService, so a listing rebuilt right after it sees the change
+    @Order(Ordered.HIGHEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.type() == MovieChangedEvent.ChangeType.BULK) {
+            build();
+            return;
+        }
+        if (event.movieId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                return;
+            }
+            // Reload rather than trust the event, so replaying the same change is harmless
+            snapshot = snapshot.with(event.movieId(), movieRepository.findGenreRowsByMovieId(event.movieId()));
+            revisions.patched(event.revision());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            build();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    private static long key(LocalDate premiereDate, int id) {
+        return (premiereDate.toEpochDay() << 32) | (id & 0xFFFFFFFFL);
+    }
+
+    private record Snapshot(Map<Integer, RoaringBitmap> moviesByGenre, long[] keys, int[] ids, long[] keysById) {
+
+        static Snapshot of(List<MovieGenreRow> rows) {
+            Map<Integer, RoaringBitmap> moviesByGenre = new HashMap<>();
+            Map<Integer, Long> keyById = new HashMap<>();
+            for (MovieGenreRow row : rows) {
+                keyById.putIfAbsent(row.getMovieId(), key(row.getPremiereDate(), row.getMovieId()));
+                if (row.getGenreId() != null) {
+                    moviesByGenre.computeIfAbsent(row.getGenreId(), genre -> new RoaringBitmap()).add(row.getMovieId());
+                }
+            }
+            moviesByGenre.values().forEach(RoaringBitmap::runOptimize);
+
+            int[] ids = keyById.keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+            long[] keysById = new long[ids.length];
+            for (int i = 0; i < ids.length; i++) {
+                keysById[i] = keyById.get(ids[i]);
+            }
+            long[] keys = keysById.clone();
+            Arrays.sort(keys);
+            return new Snapshot(Map.copyOf(moviesByGenre), keys, ids, keysById);
+        }
+
+        RoaringBitmap matching(GenreFilter filter) {
+            List<RoaringBitmap> bitmaps = new ArrayList<>(filter.genreIds().size());
+            for (Integer genreId : filter.genreIds()) {
+                RoaringBitmap movies = moviesByGenre.get(genreId);
+                if (movies != null) {
+                    bitmaps.add(movies);
+                } else if (filter.match() == GenreMatch.ALL) {
+                    return new RoaringBitmap();
+                }
+            }
+            if (bitmaps.isEmpty()) {
+                return new RoaringBitmap();
+            }
+            return filter.match() == GenreMatch.ALL
+                    ? FastAggregation.and(bitmaps.iterator())
+                    : FastAggregation.or(bitmaps.iterator());
+        }
+
+        long[] keysOf(RoaringBitmap movies) {
+            long[] result = new long[movies.getCardinality()];
+            int count = 0;
+            for (int id : movies) {
+                int index = Arrays.binarySearch(ids, id);
+                if (index >= 0) {
+                    result[count++] = keysById[index];
+                }
+            }
+            long[] sorted = count == result.length ? result : Arrays.copyOf(result, count);
+            Arrays.sort(sorted);
+            return sorted;
+        }
+
+        // Copy-on-write: only the bitmaps of genres the movie enters or leaves are cloned
+        Snapshot with(int movieId, List<MovieGenreRow> rows) {
+            Set<Integer> genreIds = new HashSet<>();
+            rows.forEach(row -> {
+                if (row.getGenreId() != null) {
+                    genreIds.add(row.getGenreId());
+                }
+            });
+            Map<Integer, RoaringBitmap> updated = new HashMap<>(moviesByGenre);
+            moviesByGenre.forEach((genreId, movies) -> {
+                if (movies.contains(movieId) && !genreIds.contains(genreId)) {
+                    RoaringBitmap copy = movies.clone();
+                    copy.remove(movieId);
+                    updated.put(genreId, copy);
+                }
+            });
+            for (Integer genreId : genreIds) {
+                RoaringBitmap movies = moviesByGenre.get(genreId);
+                if (movies == null || !movies.contains(movieId)) {
+                    RoaringBitmap copy = movies == null ? new RoaringBitmap() : movies.clone();
+                    copy.add(movieId);
+                    updated.put(genreId, copy);
+                }
+            }
+
+            long[] newKeys = keys;
+            int[] newIds = ids;
+            long[] newKeysById = keysById;
+            int idIndex = Arrays.binarySearch(ids, movieId);
+            if (idIndex >= 0) {
+                newKeys = remove(newKeys, Arrays.binarySearch(keys, keysById[idIndex]));
+                newIds = remove(newIds, idIndex);
+                newKeysById = remove(newKeysById, idIndex);
+            }
+            if (!rows.isEmpty()) {
+                long key = key(rows.getFirst().getPremiereDate(), movieId);
+                newKeys = insert(newKeys, -Arrays.binarySearch(newKeys, key) - 1, key);
+                int insertion = -Arrays.binarySearch(newIds, movieId) - 1;
+                newIds = insert(newIds, insertion, movieId);
+                newKeysById = insert(newKeysById, insertion, key);
+            }
+            return new Snapshot(Map.copyOf(updated), newKeys, newIds, newKeysById);
+        }
+
+        private static long[] remove(long[] array, int index) {
+            long[] result = new long[array.length - 1];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+            return result;
+        }
+
+        private static int[] remove(int[] array, int index) {
+            int[] result = new int[array.length - 1];
+            System.arraycopy(array, 0, result, 0, index);
+            System.arraycopy(array, index + 1, result, index, array.length - index - 1);
+            return result;
+        }
+
+        private static long[] insert(long[] array, int index, long value) {
+            long[] result = new long[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = value;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
+        }
+
+        private static int[] insert(int[] array, int index, int value) {
+            int[] result = new int[array.length + 1];
+            System.arraycopy(array, 0, result, 0, index);
+            result[index] = value;
+            System.arraycopy(array, index, result, index + 1, array.length - index);
+            return result;
+        }
+    }
+}
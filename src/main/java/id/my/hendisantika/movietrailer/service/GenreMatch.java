@@ -0,0 +1,33 @@
+package id.my.hendisantika.movietrailer.service;
+
+import java.util.Locale;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.05
+ * To change this template use File | Settings | File Templates.
+ */
+public enum GenreMatch {
+    /**
+     * Movies tagged with every selected genre.
+     */
+    ALL,
+    /**
+     * Movies tagged with at least one selected genre.
+     */
+    ANY;
+
+    public static GenreMatch fromParam(String value) {
+        return "any".equalsIgnoreCase(value) ? ANY : ALL;
+    }
+
+    public String toParam() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,144 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 19.10
+ * To change this template use File | Settings | File Templates.
+ */
+// Admin writes. Covers are stored and journaled before the transaction and released by CoverFilePipeline after
+// it, so the transaction holds its connection for the SQL alone.
+@Service
+public class MovieAdminService {
+    private final MovieRepository movieRepository;
+
+    private final CoverFilePipeline coverFilePipeline;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CatalogVersion catalogVersion;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public MovieAdminService(MovieRepository movieRepository, CoverFilePipeline coverFilePipeline,
+                             ApplicationEventPublisher eventPublisher, CatalogVersion catalogVersion,
+                             PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.coverFilePipeline = coverFilePipeline;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    public Movie create(Movie movie) {
+        CoverRelease cover = coverFilePipeline.stage(movie.getFrontPage());
+        movie.setRouteCover(cover.filename());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                movieRepository.save(movie);
+                long revision = catalogVersion.bump();
+                eventPublisher.publishEvent(new MovieChangedEvent(movie.getId(),
+                        MovieChangedEvent.ChangeType.CREATED, true, revision));
+            });
+        } finally {
+            // Kept when the insert committed, reclaimed when it did not
+            coverFilePipeline.release(cover);
+        }
+        return movie;
+    }
+
+    public void update(Integer id, Movie movie) {
+        CoverRelease cover = null;
+        CoverRelease previous = null;
+        if (!movie.getFrontPage().isEmpty()) {
+            cover = coverFilePipeline.stage(movie.getFrontPage());
+            previous = coverFilePipeline.journal(movieRepository.findRouteCoverById(id).orElse(null));
+        }
+        String routeCover = cover == null ? null : cover.filename();
+        try {
+            String replaced = transactionTemplate.execute(status -> apply(id, movie, routeCover));
+            releaseIfOther(replaced, previous);
+        } finally {
+            coverFilePipeline.release(cover, previous);
+        }
+    }
+
+    public void delete(Integer id) {
+        CoverRelease cover = coverFilePipeline.journal(movieRepository.findRouteCoverById(id).orElse(null));
+        try {
+            String removed = transactionTemplate.execute(status -> {
+                Movie movie = movieRepository.findById(id)
+                        .orElseThrow(() -> new IllegalArgumentException("Movie not found with id: " + id));
+                movieRepository.delete(movie);
+                long revision = catalogVersion.bump();
+                eventPublisher.publishEvent(new MovieChangedEvent(id, MovieChangedEvent.ChangeType.DELETED, true,
+                        revision));
+                return movie.getRouteCover();
+            });
+            releaseIfOther(removed, cover);
+        } finally {
+            coverFilePipeline.release(cover);
+        }
+    }
+
+    public void discard(MultipartFile frontPage) {
+        coverFilePipeline.discard(frontPage);
+    }
+
+    // Returns the cover the movie pointed to before a new one replaced it, or null when it kept its cover
+    private String apply(Integer id, Movie movie, String routeCover) {
+        Movie movieDB = movieRepository.findById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Movie not found with id: " + id));
+        boolean listingsChanged = !Objects.equals(movieDB.getTitle(), movie.getTitle())
+                || !Objects.equals(movieDB.getPremiereDate(), movie.getPremiereDate())
+                || !genreIds(movieDB).equals(genreIds(movie));
+        movieDB.setTitle(movie.getTitle());
+        movieDB.setSinopsis(movie.getSinopsis());
+        movieDB.setPremiereDate(movie.getPremiereDate());
+        movieDB.setYoutubeTrailerId(movie.getYoutubeTrailerId());
+        movieDB.setGenres(movie.getGenres());
+
+        String previousCover = null;
+        if (routeCover != null) {
+            previousCover = movieDB.getRouteCover();
+            movieDB.setRouteCover(routeCover);
+        }
+
+        movieRepository.save(movieDB);
+        long revision = catalogVersion.bump();
+        eventPublisher.publishEvent(new MovieChangedEvent(id, MovieChangedEvent.ChangeType.UPDATED, listingsChanged,
+                revision));
+        return previousCover;
+    }
+
+    // A concurrent write changed the cover between the read before the transaction and the transaction itself
+    private void releaseIfOther(String actual, CoverRelease journaled) {
+        if (actual != null && (journaled == null || !actual.equals(journaled.filename()))) {
+            coverFilePipeline.release(coverFilePipeline.journal(actual));
+        }
+    }
+
+    private Set<Integer> genreIds(Movie movie) {
+        return movie.getGenres() == null ? Set.of()
+                : movie.getGenres().stream().map(Genre::getId).collect(Collectors.toSet());
+    }
+}
@@ -0,0 +1,122 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieDetailsRow;
+import id.my.hendisantika.movietrailer.repository.MovieGenreRow;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.repository.MovieSummaryRow;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.55
+ * To change this template use File | Settings | File Templates.
+ */
+// Reads for the JSON API. Rows come from closed projections, never from Movie entities, and each part of a sparse
+// fieldset that is not asked for is a column or a query that is not run. Each read is one read-only transaction, which
+// the replica routing may send to a replica, so the ids and the rows of a window come from the same server.
+@Service
+@RequiredArgsConstructor
+public class MovieApiService {
+    private static final String ASSETS_PATH = "/assets/";
+
+    private final MovieCatalogService movieCatalogService;
+
+    private final MovieRepository movieRepository;
+
+    private final GenreRepository genreRepository;
+
+    /**
+     * Same windows, cursors included, as the HTML listing: a page of ids, one projection query for their columns and,
+     * when genres are wanted, one for their genre ids.
+     */
+    @Transactional(readOnly = true)
+    public MovieWindow<MovieResource> findMovies(MovieSort sort, GenreFilter filter, String cursor, int size,
+                                                 Set<MovieField> fields) {
+        Class<? extends MovieSummaryRow> type = fields.contains(MovieField.SINOPSIS)
+                ? MovieDetailsRow.class : MovieSummaryRow.class;
+        MovieWindow<? extends MovieSummaryRow> window = movieCatalogService.window(sort, filter, cursor, size,
+                ids -> findInOrder(ids, type), MovieSummaryRow::getId,
+                row -> sort.keyOf(row.getPremiereDate(), row.getTitle()));
+        Map<Integer, List<Integer>> genreIds = fields.contains(MovieField.GENRES)
+                ? findGenreIds(window.movies().stream().map(MovieSummaryRow::getId).toList())
+                : Map.of();
+        List<MovieResource> movies = window.movies().stream()
+                .map(row -> toResource(row, genreIds.getOrDefault(row.getId(), List.of()), fields))
+                .toList();
+        return new MovieWindow<>(movies, window.size(), window.previous(), window.next());
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<MovieResource> findMovie(Integer id, Set<MovieField> fields) {
+        Class<? extends MovieSummaryRow> type = fields.contains(MovieField.SINOPSIS)
+                ? MovieDetailsRow.class : MovieSummaryRow.class;
+        return movieRepository.findProjectedById(id, type)
+                .map(row -> toResource(row, fields.contains(MovieField.GENRES)
+                        ? findGenreIds(List.of(id)).getOrDefault(id, List.of())
+                        : List.of(), fields));
+    }
+
+    @Transactional(readOnly = true)
+    public List<GenreResource> findGenres() {
+        return genreRepository.findAll(Sort.by("title")).stream()
+                .map(genre -> new GenreResource(genre.getId(), genre.getTitle()))
+                .toList();
+    }
+
+    private <T extends MovieSummaryRow> List<T> findInOrder(List<Integer> ids, Class<T> type) {
+        Map<Integer, T> rows = movieRepository.findByIdIn(ids, type).stream()
+                .collect(Collectors.toMap(MovieSummaryRow::getId, Function.identity()));
+        // A movie deleted between the id query and this one is simply left out of the window
+        return ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+    }
+
+    private Map<Integer, List<Integer>> findGenreIds(List<Integer> movieIds) {
+        if (movieIds.isEmpty()) {
+            return Map.of();
+        }
+        Map<Integer, List<Integer>> genreIds = new HashMap<>();
+        for (MovieGenreRow row : movieRepository.findGenreRowsByMovieIdIn(movieIds)) {
+            genreIds.computeIfAbsent(row.getMovieId(), movieId -> new ArrayList<>()).add(row.getGenreId());
+        }
+        genreIds.values().forEach(ids -> ids.sort(null));
+        return genreIds;
+    }
+
+    private static MovieResource toResource(MovieSummaryRow row, List<Integer> genreIds, Set<MovieField> fields) {
+        return new MovieResource(row.getId(),
+                fields.contains(MovieField.TITLE) ? row.getTitle() : null,
+                fields.contains(MovieField.SINOPSIS) ? ((MovieDetailsRow) row).getSinopsis() : null,
+                fields.contains(MovieField.PREMIERE_DATE) ? row.getPremiereDate() : null,
+                fields.contains(MovieField.YOUTUBE_TRAILER_ID) ? row.getYoutubeTrailerId() : null,
+                fields.contains(MovieField.COVER) ? coverUrl(row.getRouteCover()) : null,
+                fields.contains(MovieField.GENRES) ? genreIds : null);
+    }
+
+    // Covers are either uploaded files served under /assets or absolute URLs, as on the HTML pages
+    private static String coverUrl(String routeCover) {
+        if (routeCover == null || routeCover.startsWith("http")) {
+            return routeCover;
+        }
+        return ASSETS_PATH + routeCover;
+    }
+}
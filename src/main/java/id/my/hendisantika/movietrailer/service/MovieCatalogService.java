@@ -0,0 +1,170 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.CacheConfig;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Hibernate;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 11.20
+ * To change this template use File | Settings | File Templates.
+ */
+// Reads are read-only transactions, which the replica routing sends to a replica when one is configured and in sync.
+// The ids and the rows of a window then come from the same server.
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class MovieCatalogService {
+    private static final int MAX_WINDOW_SIZE = 100;
+
+    private final MovieRepository movieRepository;
+
+    private final GenreIndex genreIndex;
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.LATEST_RELEASES, key = "#limit")
+    public List<Movie> findLatestReleases(int limit) {
+        return movieRepository.findSliceWithGenres(PageRequest.of(0, limit, Sort.by("premiereDate").descending()))
+                .getContent();
+    }
+
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MOVIE_PAGES, key = "#pageable")
+    public Page<Movie> findPage(Pageable pageable) {
+        return movieRepository.findPageWithGenres(pageable);
+    }
+
+    /**
+     * Keyset-paginated listing. Unlike {@link #findPage(Pageable)} there is no offset to skip and no total to count,
+     * so any window costs the same two statements as the first one.
+     *
+     * @param cursor an opaque cursor from a previous window, or {@code null} for the first window
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MOVIE_PAGES, key = "{#sort, #cursor, #size}")
+    public MovieWindow<Movie> findWindow(MovieSort sort, String cursor, int size) {
+        return window(sort, null, cursor, size, movieRepository::findAllWithGenresInOrder, Movie::getId, sort::keyOf);
+    }
+
+    /**
+     * Newest-first listing restricted to genres. The genre sets are intersected in the in-memory {@link GenreIndex},
+     * so only the movies of the window itself are read from the database.
+     */
+    @Transactional(readOnly = true)
+    @Cacheable(cacheNames = CacheConfig.MOVIE_PAGES, key = "{#filter, #cursor, #size}")
+    public MovieWindow<Movie> findWindow(GenreFilter filter, String cursor, int size) {
+        return window(MovieSort.PREMIERE_DATE, filter, cursor, size, movieRepository::findAllWithGenresInOrder,
+                Movie::getId, MovieSort.PREMIERE_DATE::keyOf);
+    }
+
+    /**
+     * Window of any row type: the ids come from the keyset queries or the genre index, {@code loader} turns them into
+     * rows in the same order, and the edge rows supply the cursors.
+     *
+     * @param filter genres to restrict to, which implies newest first; {@code null} or empty for the whole catalog
+     */
+    <T> MovieWindow<T> window(MovieSort sort, GenreFilter filter, String cursor, int size,
+                              Function<List<Integer>, List<T>> loader, ToIntFunction<T> idOf,
+                              Function<T, String> keyOf) {
+        int limit = Math.clamp(size, 1, MAX_WINDOW_SIZE);
+        MovieCursor position = cursor == null || cursor.isBlank() ? null : MovieCursor.decode(cursor, sort);
+
+        // One row past the window tells whether there is another window in that direction
+        List<Integer> ids = filter == null || filter.isEmpty()
+                ? findIds(sort, position, limit + 1)
+                : genreIndex.findIds(filter, position, limit + 1);
+        boolean more = ids.size() > limit;
+        if (more) {
+            ids = ids.subList(0, limit);
+        }
+        boolean backwards = position != null && position.before();
+        if (backwards) {
+            ids = ids.reversed();
+        }
+
+        // The loader leaves out ids whose movie was deleted since they were read, so the cursors come from the rows
+        List<T> rows = ids.isEmpty() ? List.of() : loader.apply(ids);
+        if (rows.isEmpty()) {
+            return new MovieWindow<>(rows, limit, null, null);
+        }
+        boolean hasPrevious = backwards ? more : position != null;
+        boolean hasNext = backwards || more;
+        T first = rows.getFirst();
+        T last = rows.getLast();
+        return new MovieWindow<>(rows, limit,
+                hasPrevious ? MovieCursor.before(sort, keyOf.apply(first), idOf.applyAsInt(first)).encode() : null,
+                hasNext ? MovieCursor.after(sort, keyOf.apply(last), idOf.applyAsInt(last)).encode() : null);
+    }
+
+    private List<Integer> findIds(MovieSort sort, MovieCursor position, int limit) {
+        if (position == null) {
+            return switch (sort) {
+                case PREMIERE_DATE -> movieRepository.findIdsByPremiereDate(limit);
+                case TITLE -> movieRepository.findIdsByTitle(limit);
+            };
+        }
+        return switch (sort) {
+            case PREMIERE_DATE -> position.before()
+                    ? movieRepository.findIdsByPremiereDateBefore(LocalDate.parse(position.key()), position.id(), limit)
+                    : movieRepository.findIdsByPremiereDateAfter(LocalDate.parse(position.key()), position.id(), limit);
+            case TITLE -> position.before()
+                    ? movieRepository.findIdsByTitleBefore(position.key(), position.id(), limit)
+                    : movieRepository.findIdsByTitleAfter(position.key(), position.id(), limit);
+        };
+    }
+
+    /**
+     * A movie in the second-level cache is assembled from the movie, genre list and genre regions without a
+     * statement; any other is fetched with its genres in one statement, which puts all three in the cache.
+     */
+    @Transactional(readOnly = true)
+    public Movie findMovie(Integer id) {
+        if (entityManagerFactory.getCache().contains(Movie.class, id)) {
+            Movie movie = movieRepository.findById(id).orElse(null);
+            if (movie != null) {
+                Hibernate.initialize(movie.getGenres());
+                return movie;
+            }
+        }
+        return movieRepository.findWithGenresById(id)
+                .orElseThrow(() -> new IllegalArgumentException("Movie not found with id: " + id));
+    }
+
+    // Runs after the admin transaction commits, so a concurrent reader can't re-populate the cache with the old rows.
+    // Ordered before the rendered page purge, which must not let a page be rebuilt from these caches while stale.
+    @Order(Ordered.HIGHEST_PRECEDENCE + 10)
+    @TransactionalEventListener(fallbackExecution = true)
+    @CacheEvict(cacheNames = {CacheConfig.LATEST_RELEASES, CacheConfig.MOVIE_PAGES}, allEntries = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        log.debug("Catalog caches evicted after movie {} was {}", event.movieId(), event.type());
+    }
+}
@@ -0,0 +1,66 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.util.Base64;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 12.05
+ * To change this template use File | Settings | File Templates.
+ */
+// Sort key and id of the row at the edge of a window, and whether the wanted window lies after or before it.
+// Clients only ever see the opaque encoded form.
+record MovieCursor(MovieSort sort, String key, int id, boolean before) {
+
+    private static final char SEPARATOR = '|';
+
+    static MovieCursor after(MovieSort sort, Movie movie) {
+        return after(sort, sort.keyOf(movie), movie.getId());
+    }
+
+    static MovieCursor before(MovieSort sort, Movie movie) {
+        return before(sort, sort.keyOf(movie), movie.getId());
+    }
+
+    static MovieCursor after(MovieSort sort, String key, int id) {
+        return new MovieCursor(sort, key, id, false);
+    }
+
+    static MovieCursor before(MovieSort sort, String key, int id) {
+        return new MovieCursor(sort, key, id, true);
+    }
+
+    static MovieCursor decode(String token, MovieSort expectedSort) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            // The key goes last because titles may contain the separator
+            String[] parts = value.split("\\" + SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            MovieSort sort = MovieSort.valueOf(parts[0]);
+            if (sort != expectedSort) {
+                throw new InvalidCursorException("Cursor belongs to a listing sorted by " + sort);
+            }
+            sort.validateKey(parts[3]);
+            return new MovieCursor(sort, parts[3], Integer.parseInt(parts[2]), "b".equals(parts[1]));
+        } catch (IllegalArgumentException | DateTimeException exception) {
+            throw new InvalidCursorException("Malformed cursor", exception);
+        }
+    }
+
+    String encode() {
+        String value = sort.name() + SEPARATOR + (before ? "b" : "a") + SEPARATOR + id + SEPARATOR + key;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,155 @@
+package id.my.hendisantika.movietrailer.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.util.MinimalPrettyPrinter;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import id.my.hendisantika.movietrailer.repository.MovieExportRow;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.15
+ * To change this template use File | Settings | File Templates.
+ */
+// Writes the catalog in the same CSV and JSON-lines layouts MovieImportService reads, so an export imports back
+@Slf4j
+@Service
+public class MovieExportService {
+    private static final String CSV_HEADER = "id,title,sinopsis,premiere_date,youtube_trailer_id,route_cover,genres";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final MovieRepository movieRepository;
+
+    private final ObjectMapper objectMapper;
+
+    private final TransactionTemplate transactionTemplate;
+
+    public MovieExportService(MovieRepository movieRepository, ObjectMapper objectMapper,
+                              PlatformTransactionManager transactionManager) {
+        this.movieRepository = movieRepository;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        // The cursor only stays open inside a transaction; read-only spares the flush and lets a replica serve it
+        this.transactionTemplate.setReadOnly(true);
+    }
+
+    /**
+     * Streams every movie to the output as it comes off the cursor, with one row in memory at a time. The output
+     * is flushed but not closed.
+     *
+     * @return the number of movies written
+     */
+    public long export(MovieImport.Format format, OutputStream outputStream) {
+        long started = System.nanoTime();
+        Long written = transactionTemplate.execute(status -> {
+            try (Stream<MovieExportRow> rows = movieRepository.streamExportRows()) {
+                return format == MovieImport.Format.CSV
+                        ? writeCsv(rows.iterator(), outputStream)
+                        : writeJsonLines(rows.iterator(), outputStream);
+            } catch (IOException exception) {
+                throw new UncheckedIOException(exception);
+            }
+        });
+        log.info("Exported {} movies as {} in {} ms", written, format, (System.nanoTime() - started) / 1_000_000);
+        return written == null ? 0 : written;
+    }
+
+    private static long writeCsv(Iterator<MovieExportRow> rows, OutputStream outputStream) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8), BUFFER_SIZE);
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        long written = 0;
+        while (rows.hasNext()) {
+            MovieExportRow row = rows.next();
+            writer.write(String.valueOf(row.getId()));
+            writer.write(',');
+            writeCsvField(writer, row.getTitle());
+            writer.write(',');
+            writeCsvField(writer, row.getSinopsis());
+            writer.write(',');
+            writeCsvField(writer, row.getPremiereDate() == null ? null : row.getPremiereDate().toString());
+            writer.write(',');
+            writeCsvField(writer, row.getYoutubeTrailerId());
+            writer.write(',');
+            writeCsvField(writer, row.getRouteCover());
+            writer.write(',');
+            writeCsvField(writer, row.getGenreIds());
+            writer.write('\n');
+            written++;
+        }
+        writer.flush();
+        return written;
+    }
+
+    // RFC 4180: quoted only when needed, with quotes inside doubled
+    private static void writeCsvField(Writer writer, String value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        boolean quote = value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0
+                || value.indexOf('\r') >= 0;
+        if (!quote) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+
+    private long writeJsonLines(Iterator<MovieExportRow> rows, OutputStream outputStream) throws IOException {
+        long written = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            // One object per line, and the response stream stays open for the caller
+            generator.setPrettyPrinter(new MinimalPrettyPrinter("\n"));
+            generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            while (rows.hasNext()) {
+                MovieExportRow row = rows.next();
+                generator.writeStartObject();
+                generator.writeNumberField("id", row.getId());
+                generator.writeStringField("title", row.getTitle());
+                generator.writeStringField("sinopsis", row.getSinopsis());
+                generator.writeStringField("premiereDate",
+                        row.getPremiereDate() == null ? null : row.getPremiereDate().toString());
+                generator.writeStringField("youtubeTrailerId", row.getYoutubeTrailerId());
+                generator.writeStringField("routeCover", row.getRouteCover());
+                generator.writeArrayFieldStart("genres");
+                if (row.getGenreIds() != null) {
+                    for (String genreId : row.getGenreIds().split("\\|")) {
+                        generator.writeNumber(Integer.parseInt(genreId));
+                    }
+                }
+                generator.writeEndArray();
+                generator.writeEndObject();
+                written++;
+            }
+            if (written > 0) {
+                generator.writeRaw('\n');
+            }
+            generator.flush();
+        }
+        return written;
+    }
+}
@@ -0,0 +1,69 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.exception.InvalidFieldsException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.40
+ * To change this template use File | Settings | File Templates.
+ */
+// Sparse fieldsets of the JSON API; the names are the JSON properties of MovieResource. The id is always included.
+public enum MovieField {
+    TITLE("title"),
+    SINOPSIS("sinopsis"),
+    PREMIERE_DATE("premiereDate"),
+    YOUTUBE_TRAILER_ID("youtubeTrailerId"),
+    COVER("cover"),
+    GENRES("genres");
+
+    public static final Set<MovieField> LISTING_DEFAULT = Collections.unmodifiableSet(
+            EnumSet.complementOf(EnumSet.of(SINOPSIS)));
+
+    public static final Set<MovieField> DETAILS_DEFAULT = Collections.unmodifiableSet(EnumSet.allOf(MovieField.class));
+
+    private final String property;
+
+    MovieField(String property) {
+        this.property = property;
+    }
+
+    public String getProperty() {
+        return property;
+    }
+
+    /**
+     * Parses a comma-separated {@code fields} parameter such as {@code title,genres}.
+     *
+     * @param fields the parameter, or {@code null} for the defaults
+     */
+    public static Set<MovieField> parse(String fields, Set<MovieField> defaults) {
+        if (fields == null || fields.isBlank()) {
+            return defaults;
+        }
+        Set<MovieField> parsed = EnumSet.noneOf(MovieField.class);
+        for (String name : fields.split(",")) {
+            String trimmed = name.trim();
+            if (trimmed.isEmpty() || trimmed.equals("id")) {
+                continue;
+            }
+            parsed.add(Arrays.stream(values())
+                    .filter(field -> field.property.equals(trimmed))
+                    .findFirst()
+                    .orElseThrow(() -> new InvalidFieldsException("Unknown field " + trimmed + "; expected "
+                            + Arrays.stream(values()).map(MovieField::getProperty).collect(Collectors.joining(",")))));
+        }
+        return parsed;
+    }
+}
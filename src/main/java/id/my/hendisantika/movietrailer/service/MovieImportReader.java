@@ -0,0 +1,234 @@
+package id.my.hendisantika.movietrailer.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.30
+ * To change this template use File | Settings | File Templates.
+ */
+// Reads an import one record at a time, so memory use does not depend on the size of the catalog. Parsing is kept
+// apart from reading: a record that does not parse is reported and skipped, the input itself carries on.
+class MovieImportReader implements Closeable {
+    private static final String[] REQUIRED_COLUMNS = {"title", "sinopsis", "premieredate", "youtubetrailerid", "genres"};
+
+    private final BufferedReader reader;
+
+    private final MovieImport.Format format;
+
+    private final ObjectMapper objectMapper;
+
+    private Map<String, Integer> columns;
+
+    private long number;
+
+    MovieImportReader(InputStream inputStream, MovieImport.Format format, ObjectMapper objectMapper) {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.format = format;
+        this.objectMapper = objectMapper;
+    }
+
+    record Record(long number, String content) {
+    }
+
+    /**
+     * The next non-blank record, or {@code null} at the end of the input. A CSV record may span several lines when
+     * a quoted field holds a line break.
+     */
+    Record next() throws IOException {
+        String content = nextContent();
+        if (content != null && format == MovieImport.Format.CSV && columns == null) {
+            columns = header(content);
+            content = nextContent();
+        }
+        return content == null ? null : new Record(++number, content);
+    }
+
+    MovieImportRow parse(Record record) {
+        return format == MovieImport.Format.CSV ? parseCsv(record.content()) : parseJson(record.content());
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private String nextContent() throws IOException {
+        String line;
+        do {
+            line = reader.readLine();
+        } while (line != null && line.isBlank());
+        if (line == null || format != MovieImport.Format.CSV) {
+            return line;
+        }
+        StringBuilder content = new StringBuilder(line);
+        while (quotes(content) % 2 != 0) {
+            String continuation = reader.readLine();
+            if (continuation == null) {
+                break;
+            }
+            content.append('\n').append(continuation);
+        }
+        return content.toString();
+    }
+
+    private static Map<String, Integer> header(String content) {
+        Map<String, Integer> header = new HashMap<>();
+        List<String> names = splitCsv(content);
+        for (int i = 0; i < names.size(); i++) {
+            header.put(key(names.get(i)), i);
+        }
+        for (String required : REQUIRED_COLUMNS) {
+            if (!header.containsKey(required)) {
+                throw new IllegalArgumentException("The CSV header has no " + required + " column; expected "
+                        + String.join(",", REQUIRED_COLUMNS) + " and optionally routecover");
+            }
+        }
+        return header;
+    }
+
+    private MovieImportRow parseCsv(String content) {
+        List<String> fields = splitCsv(content);
+        return new MovieImportRow(column(fields, "title"), column(fields, "sinopsis"),
+                date(column(fields, "premieredate")), column(fields, "youtubetrailerid"),
+                column(fields, "routecover"), genres(column(fields, "genres")));
+    }
+
+    private String column(List<String> fields, String name) {
+        Integer index = columns.get(name);
+        if (index == null || index >= fields.size()) {
+            return null;
+        }
+        String value = fields.get(index).strip();
+        return value.isEmpty() ? null : value;
+    }
+
+    private MovieImportRow parseJson(String content) {
+        JsonNode node;
+        try {
+            node = objectMapper.readTree(content);
+        } catch (JsonProcessingException exception) {
+            throw new IllegalArgumentException("Not valid JSON: " + exception.getOriginalMessage());
+        }
+        if (node == null || !node.isObject()) {
+            throw new IllegalArgumentException("Each line must hold one JSON object");
+        }
+        JsonNode genres = field(node, "genres");
+        List<String> genreNames = new ArrayList<>();
+        if (genres != null && genres.isArray()) {
+            genres.forEach(genre -> genreNames.add(genre.asText()));
+        } else if (genres != null && !genres.isNull()) {
+            genreNames.addAll(genres(genres.asText()));
+        }
+        return new MovieImportRow(text(node, "title"), text(node, "sinopsis"), date(text(node, "premiereDate")),
+                text(node, "youtubeTrailerId"), text(node, "routeCover"), genreNames);
+    }
+
+    // Field names match in camel case or snake case, as in premiereDate or premiere_date
+    private static JsonNode field(JsonNode node, String name) {
+        for (Map.Entry<String, JsonNode> entry : node.properties()) {
+            if (key(entry.getKey()).equals(key(name))) {
+                return entry.getValue();
+            }
+        }
+        return null;
+    }
+
+    private static String text(JsonNode node, String name) {
+        JsonNode value = field(node, name);
+        if (value == null || value.isNull()) {
+            return null;
+        }
+        String text = value.asText().strip();
+        return text.isEmpty() ? null : text;
+    }
+
+    private static LocalDate date(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException exception) {
+            throw new IllegalArgumentException("premiereDate must be an ISO date like 2019-05-30, was " + value);
+        }
+    }
+
+    // Several genres go in one CSV field separated by | or ;
+    private static List<String> genres(String value) {
+        if (value == null) {
+            return List.of();
+        }
+        return Arrays.stream(value.split("[|;]"))
+                .map(String::strip)
+                .filter(genre -> !genre.isEmpty())
+                .toList();
+    }
+
+    private static String key(String name) {
+        return name.replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static int quotes(CharSequence content) {
+        int quotes = 0;
+        for (int i = 0; i < content.length(); i++) {
+            if (content.charAt(i) == '"') {
+                quotes++;
+            }
+        }
+        return quotes;
+    }
+
+    // RFC 4180: fields may be quoted, and a doubled quote inside a quoted field stands for one quote
+    private static List<String> splitCsv(String content) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < content.length(); i++) {
+            char c = content.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < content.length() && content.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        fields.add(field.toString());
+        return fields;
+    }
+}
@@ -0,0 +1,21 @@
+package id.my.hendisantika.movietrailer.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.25
+ * To change this template use File | Settings | File Templates.
+ */
+// One movie as read from an import, before its genres are resolved and it is validated. Genres are given by id or
+// by title.
+public record MovieImportRow(String title, String sinopsis, LocalDate premiereDate, String youtubeTrailerId,
+                             String routeCover, List<String> genres) {
+}
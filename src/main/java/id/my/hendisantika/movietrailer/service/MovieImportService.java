@@ -0,0 +1,296 @@
+package id.my.hendisantika.movietrailer.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import id.my.hendisantika.movietrailer.entity.MovieImportError;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.metrics.QueryBudget;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieImportRepository;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.validation.Validator;
+import lombok.extern.slf4j.Slf4j;
+import org.hibernate.Session;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 16.40
+ * To change this template use File | Settings | File Templates.
+ */
+@Slf4j
+@Service
+public class MovieImportService {
+    private static final int MAX_COLUMN_LENGTH = 255;
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final GenreRepository genreRepository;
+
+    private final MovieImportRepository movieImportRepository;
+
+    private final Validator validator;
+
+    private final ObjectMapper objectMapper;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final CatalogVersion catalogVersion;
+
+    private final TransactionTemplate transactionTemplate;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    // Records per transaction, and so per checkpoint; only one chunk of movies is ever held in memory
+    @Value("${movie-import.chunk-size:1000}")
+    private int chunkSize;
+
+    // Rows per JDBC batch. The sequence hands out 50 ids per call, so a batch of 50 costs one sequence round trip.
+    @Value("${movie-import.batch-size:50}")
+    private int batchSize;
+
+    public MovieImportService(GenreRepository genreRepository, MovieImportRepository movieImportRepository,
+                              Validator validator, ObjectMapper objectMapper, ApplicationEventPublisher eventPublisher,
+                              CatalogVersion catalogVersion, PlatformTransactionManager transactionManager) {
+        this.genreRepository = genreRepository;
+        this.movieImportRepository = movieImportRepository;
+        this.validator = validator;
+        this.objectMapper = objectMapper;
+        this.eventPublisher = eventPublisher;
+        this.catalogVersion = catalogVersion;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    /**
+     * Streams a CSV or JSON-lines catalog into the movie table in chunks, each committed in one transaction with
+     * its rejected records and a checkpoint. Records that don't parse or don't validate are skipped and reported;
+     * an I/O or database failure stops the import, which keeps every chunk committed so far.
+     *
+     * @param resumeId an earlier import to carry on from its checkpoint; the input must be the same, it is checked
+     *                 against the digest of the records the checkpoint covers
+     */
+    public MovieImport importMovies(InputStream inputStream, MovieImport.Format format, String source,
+                                    Long resumeId) {
+        QueryBudget.exemptCurrent();
+        MovieImport job = resumeId == null
+                ? movieImportRepository.save(new MovieImport(source, format))
+                : restart(resumeId, format);
+        long importedBefore = job.getImported();
+        Map<String, Genre> genres = genres();
+        MessageDigest digest = sha256();
+        List<Movie> movies = new ArrayList<>(chunkSize);
+        List<MovieImportError> errors = new ArrayList<>();
+        try (MovieImportReader reader = new MovieImportReader(inputStream, format, objectMapper)) {
+            skipToCheckpoint(reader, job, digest);
+            MovieImportReader.Record record;
+            long consumed = job.getCheckpointRecord();
+            while ((record = reader.next()) != null) {
+                digest.update((record.content() + "\n").getBytes(StandardCharsets.UTF_8));
+                consumed = record.number();
+                try {
+                    movies.add(toMovie(reader.parse(record), genres));
+                } catch (IllegalArgumentException exception) {
+                    errors.add(new MovieImportError(job.getId(), record.number(), truncate(exception.getMessage()),
+                            truncate(record.content())));
+                }
+                if (movies.size() + errors.size() >= chunkSize) {
+                    commitChunk(job, movies, errors, consumed, digest);
+                }
+            }
+            commitChunk(job, movies, errors, consumed, digest);
+            job.setStatus(MovieImport.Status.COMPLETED);
+        } catch (IOException | RuntimeException exception) {
+            log.warn("Import {} from {} stopped at record {}", job.getId(), source, job.getCheckpointRecord(),
+                    exception);
+            job.setStatus(MovieImport.Status.FAILED);
+            job.setMessage(truncate(Objects.requireNonNullElse(exception.getMessage(),
+                    exception.getClass().getSimpleName())));
+        }
+        job.setFinishedAt(Instant.now());
+        job.setUpdatedAt(job.getFinishedAt());
+        job = movieImportRepository.save(job);
+        if (job.getImported() > importedBefore) {
+            eventPublisher.publishEvent(MovieChangedEvent.bulk());
+        }
+        log.info("Import {} from {} {}: {} imported, {} rejected, {} records read", job.getId(), source,
+                job.getStatus(), job.getImported(), job.getRejected(), job.getCheckpointRecord());
+        return job;
+    }
+
+    // Read-write, so the checkpoint comes from the primary and not from a replica that has yet to replay it
+    private MovieImport restart(Long resumeId, MovieImport.Format format) {
+        return transactionTemplate.execute(status -> {
+            MovieImport job = movieImportRepository.findById(resumeId)
+                    .orElseThrow(() -> new IllegalArgumentException("Import not found with id: " + resumeId));
+            if (job.getStatus() == MovieImport.Status.COMPLETED) {
+                throw new IllegalArgumentException("Import " + resumeId + " has already completed");
+            }
+            if (job.getFormat() != format) {
+                throw new IllegalArgumentException("Import " + resumeId + " read " + job.getFormat() + ", not "
+                        + format);
+            }
+            job.setStatus(MovieImport.Status.RUNNING);
+            job.setMessage(null);
+            job.setFinishedAt(null);
+            return movieImportRepository.save(job);
+        });
+    }
+
+    private void skipToCheckpoint(MovieImportReader reader, MovieImport job, MessageDigest digest)
+            throws IOException {
+        for (long skipped = 0; skipped < job.getCheckpointRecord(); skipped++) {
+            MovieImportReader.Record record = reader.next();
+            if (record == null) {
+                throw new IllegalStateException("The input ends before the checkpoint at record "
+                        + job.getCheckpointRecord() + " of import " + job.getId());
+            }
+            digest.update((record.content() + "\n").getBytes(StandardCharsets.UTF_8));
+        }
+        if (job.getCheckpointRecord() > 0 && !hex(digest).equals(job.getCheckpointDigest())) {
+            throw new IllegalStateException("The input differs from the one import " + job.getId()
+                    + " read up to its checkpoint at record " + job.getCheckpointRecord());
+        }
+    }
+
+    // Genres are few and fixed during an import: resolved once, by id or by case-insensitive title
+    private Map<String, Genre> genres() {
+        Map<String, Genre> genres = new HashMap<>();
+        for (Genre genre : genreRepository.findAll()) {
+            genres.put(String.valueOf(genre.getId()), genre);
+            if (genre.getTitle() != null) {
+                genres.putIfAbsent(genre.getTitle().toLowerCase(Locale.ROOT), genre);
+            }
+        }
+        return genres;
+    }
+
+    private Movie toMovie(MovieImportRow row, Map<String, Genre> genres) {
+        List<Genre> movieGenres = new ArrayList<>(row.genres().size());
+        for (String name : row.genres()) {
+            Genre genre = genres.get(name.toLowerCase(Locale.ROOT));
+            if (genre == null) {
+                throw new IllegalArgumentException("Unknown genre " + name);
+            }
+            if (!movieGenres.contains(genre)) {
+                movieGenres.add(genre);
+            }
+        }
+        Movie movie = new Movie();
+        movie.setTitle(row.title());
+        movie.setSinopsis(row.sinopsis());
+        movie.setPremiereDate(row.premiereDate());
+        movie.setYoutubeTrailerId(row.youtubeTrailerId());
+        movie.setRouteCover(row.routeCover());
+        movie.setGenres(movieGenres);
+
+        String violations = validator.validate(movie).stream()
+                .map(violation -> violation.getPropertyPath() + " " + violation.getMessage())
+                .sorted()
+                .collect(Collectors.joining(", "));
+        if (!violations.isEmpty()) {
+            throw new IllegalArgumentException(violations);
+        }
+        requireLength("title", movie.getTitle());
+        requireLength("sinopsis", movie.getSinopsis());
+        requireLength("youtubeTrailerId", movie.getYoutubeTrailerId());
+        requireLength("routeCover", movie.getRouteCover());
+        return movie;
+    }
+
+    /**
+     * Inserts the chunk through JDBC batches and records its rejects and the new checkpoint in the same
+     * transaction, then drops the persistence context so memory stays flat across chunks.
+     */
+    private void commitChunk(MovieImport job, List<Movie> movies, List<MovieImportError> errors, long consumed,
+                             MessageDigest digest) {
+        if (movies.isEmpty() && errors.isEmpty()) {
+            return;
+        }
+        String checkpointDigest = hex(digest);
+        transactionTemplate.executeWithoutResult(status -> {
+            QueryBudget.exemptCurrent();
+            entityManager.unwrap(Session.class).setJdbcBatchSize(batchSize);
+            for (Movie movie : movies) {
+                // References, not the detached genres: attaching those would cost a select each
+                movie.setGenres(new ArrayList<>(movie.getGenres().stream()
+                        .map(genre -> entityManager.getReference(Genre.class, genre.getId()))
+                        .toList()));
+                entityManager.persist(movie);
+            }
+            errors.forEach(entityManager::persist);
+            entityManager.flush();
+            entityManager.clear();
+            movieImportRepository.checkpoint(job.getId(), consumed, checkpointDigest, movies.size(), errors.size(),
+                    Instant.now());
+            // In the chunk's own transaction: servers revalidating against the version see each chunk as it commits,
+            // even when the import runs in another process
+            if (!movies.isEmpty()) {
+                catalogVersion.bump();
+            }
+        });
+        job.setCheckpointRecord(consumed);
+        job.setCheckpointDigest(checkpointDigest);
+        job.setImported(job.getImported() + movies.size());
+        job.setRejected(job.getRejected() + errors.size());
+        log.debug("Import {} committed {} movies and {} rejects up to record {}", job.getId(), movies.size(),
+                errors.size(), consumed);
+        movies.clear();
+        errors.clear();
+    }
+
+    private static void requireLength(String field, String value) {
+        if (value != null && value.length() > MAX_COLUMN_LENGTH) {
+            throw new IllegalArgumentException(field + " must be at most " + MAX_COLUMN_LENGTH + " characters");
+        }
+    }
+
+    private static String truncate(String value) {
+        return value.length() <= MAX_ERROR_LENGTH ? value : value.substring(0, MAX_ERROR_LENGTH);
+    }
+
+    // The digest keeps running over the input; the checkpoint stores a snapshot of it
+    private static String hex(MessageDigest digest) {
+        try {
+            return HexFormat.of().formatHex(((MessageDigest) digest.clone()).digest());
+        } catch (CloneNotSupportedException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+    }
+}
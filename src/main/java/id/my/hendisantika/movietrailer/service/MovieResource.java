@@ -0,0 +1,23 @@
+package id.my.hendisantika.movietrailer.service;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 17.45
+ * To change this template use File | Settings | File Templates.
+ */
+// Fields left out of a sparse fieldset are null and not serialized. Genres are ids, resolved through /api/v1/genres.
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record MovieResource(int id, String title, String sinopsis, LocalDate premiereDate, String youtubeTrailerId,
+                            String cover, List<Integer> genres) {
+}
@@ -0,0 +1,23 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.entity.Movie;
+
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 13.15
+ * To change this template use File | Settings | File Templates.
+ */
+// Headlines are HTML-escaped with only the matched terms wrapped in <mark>, so they are safe to render unescaped
+public record MovieSearchResults(String query, List<Hit> hits, int size, String previous, String next) {
+
+    public record Hit(Movie movie, String titleHtml, String sinopsisHtml) {
+    }
+}
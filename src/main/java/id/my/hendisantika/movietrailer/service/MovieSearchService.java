@@ -0,0 +1,118 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.repository.MovieSearchHit;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.util.HtmlUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 13.20
+ * To change this template use File | Settings | File Templates.
+ */
+@Service
+@RequiredArgsConstructor
+public class MovieSearchService {
+    private static final int MAX_QUERY_LENGTH = 200;
+
+    private static final int MAX_WINDOW_SIZE = 50;
+
+    // ts_headline marks matches with control characters that cannot occur in escaped text, so the headline can be
+    // HTML-escaped first and the markers swapped for <mark> tags afterwards
+    private static final String START_SEL = "\u0002";
+
+    private static final String STOP_SEL = "\u0003";
+
+    private static final String TITLE_OPTIONS = "StartSel=" + START_SEL + ", StopSel=" + STOP_SEL
+            + ", HighlightAll=true";
+
+    private static final String SINOPSIS_OPTIONS = "StartSel=" + START_SEL + ", StopSel=" + STOP_SEL
+            + ", MinWords=15, MaxWords=35";
+
+    private final MovieRepository movieRepository;
+
+    /**
+     * Ranked search over titles and synopses with web-search syntax: quoted phrases, {@code or} and {@code -term}.
+     *
+     * The hits and their movies are read in one read-only transaction, so both come from the same database.
+     *
+     * @param cursor an opaque cursor from a previous window of the same query, or {@code null} for the best matches
+     */
+    @Transactional(readOnly = true)
+    public MovieSearchResults search(String query, String cursor, int size) {
+        String terms = query == null ? "" : query.strip();
+        if (terms.length() > MAX_QUERY_LENGTH) {
+            terms = terms.substring(0, MAX_QUERY_LENGTH);
+        }
+        int limit = Math.clamp(size, 1, MAX_WINDOW_SIZE);
+        if (terms.isEmpty()) {
+            return new MovieSearchResults(terms, List.of(), limit, null, null);
+        }
+        SearchCursor position = cursor == null || cursor.isBlank() ? null : SearchCursor.decode(cursor);
+        boolean backwards = position != null && position.before();
+
+        List<MovieSearchHit> hits;
+        if (backwards) {
+            hits = movieRepository.searchBefore(terms, position.rank(), position.id(), limit + 1, TITLE_OPTIONS,
+                    SINOPSIS_OPTIONS);
+        } else if (position != null) {
+            hits = movieRepository.searchAfter(terms, position.rank(), position.id(), limit + 1, TITLE_OPTIONS,
+                    SINOPSIS_OPTIONS);
+        } else {
+            // Every rank is finite, so this seeks from the top
+            hits = movieRepository.searchAfter(terms, Float.POSITIVE_INFINITY, Integer.MAX_VALUE, limit + 1,
+                    TITLE_OPTIONS, SINOPSIS_OPTIONS);
+        }
+        boolean more = hits.size() > limit;
+        if (more) {
+            hits = hits.subList(0, limit);
+        }
+        if (backwards) {
+            hits = hits.reversed();
+        }
+        if (hits.isEmpty()) {
+            return new MovieSearchResults(terms, List.of(), limit, null, null);
+        }
+
+        Map<Integer, Movie> movies = movieRepository.findAllWithGenresInOrder(
+                        hits.stream().map(MovieSearchHit::getId).toList()).stream()
+                .collect(Collectors.toMap(Movie::getId, Function.identity()));
+        List<MovieSearchResults.Hit> results = new ArrayList<>(hits.size());
+        for (MovieSearchHit hit : hits) {
+            // A hit whose movie is gone by the time the rows are loaded is left out
+            Movie movie = movies.get(hit.getId());
+            if (movie != null) {
+                results.add(new MovieSearchResults.Hit(movie, highlight(hit.getTitleHeadline()),
+                        highlight(hit.getSinopsisHeadline())));
+            }
+        }
+        boolean hasPrevious = backwards ? more : position != null;
+        boolean hasNext = backwards || more;
+        MovieSearchHit first = hits.getFirst();
+        MovieSearchHit last = hits.getLast();
+        return new MovieSearchResults(terms, results, limit,
+                hasPrevious ? new SearchCursor(first.getRank(), first.getId(), true).encode() : null,
+                hasNext ? new SearchCursor(last.getRank(), last.getId(), false).encode() : null);
+    }
+
+    private String highlight(String headline) {
+        return HtmlUtils.htmlEscape(headline)
+                .replace(START_SEL, "<mark>")
+                .replace(STOP_SEL, "</mark>");
+    }
+}
@@ -0,0 +1,51 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.entity.Movie;
+
+import java.time.LocalDate;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 12.00
+ * To change this template use File | Settings | File Templates.
+ */
+public enum MovieSort {
+    /**
+     * Newest first, ties broken by descending id.
+     */
+    PREMIERE_DATE {
+        @Override
+        String keyOf(LocalDate premiereDate, String title) {
+            return premiereDate.toString();
+        }
+
+        @Override
+        void validateKey(String key) {
+            LocalDate.parse(key);
+        }
+    },
+    /**
+     * Alphabetical, ties broken by ascending id.
+     */
+    TITLE {
+        @Override
+        String keyOf(LocalDate premiereDate, String title) {
+            return title;
+        }
+    };
+
+    abstract String keyOf(LocalDate premiereDate, String title);
+
+    String keyOf(Movie movie) {
+        return keyOf(movie.getPremiereDate(), movie.getTitle());
+    }
+
+    void validateKey(String key) {
+    }
+}
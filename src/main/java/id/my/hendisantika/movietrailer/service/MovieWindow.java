@@ -0,0 +1,18 @@
+package id.my.hendisantika.movietrailer.service;
+
+import java.util.List;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 12.15
+ * To change this template use File | Settings | File Templates.
+ */
+// Cursors are null where there is no neighbouring window. Holds entities for the pages and DTOs for the JSON API.
+public record MovieWindow<T>(List<T> movies, int size, String previous, String next) {
+}
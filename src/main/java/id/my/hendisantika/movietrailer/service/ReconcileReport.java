@@ -0,0 +1,22 @@
+package id.my.hendisantika.movietrailer.service;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 18.35
+ * To change this template use File | Settings | File Templates.
+ */
+public record ReconcileReport(int shards, long quarantined, long reclaimed, long restored, long missing) {
+
+    static final ReconcileReport EMPTY = new ReconcileReport(0, 0, 0, 0, 0);
+
+    ReconcileReport plus(ReconcileReport other) {
+        return new ReconcileReport(shards + other.shards, quarantined + other.quarantined,
+                reclaimed + other.reclaimed, restored + other.restored, missing + other.missing);
+    }
+}
@@ -0,0 +1,48 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.exception.InvalidCursorException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 13.10
+ * To change this template use File | Settings | File Templates.
+ */
+// Rank and id of the hit at the edge of a search window. Ranks are float4 in PostgreSQL and Float.toString
+// round-trips them exactly, so the seek predicate lands on the same row.
+record SearchCursor(float rank, int id, boolean before) {
+
+    private static final String PREFIX = "SEARCH";
+
+    private static final char SEPARATOR = '|';
+
+    static SearchCursor decode(String token) {
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\" + SEPARATOR);
+            if (parts.length != 4 || !PREFIX.equals(parts[0])) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            float rank = Float.parseFloat(parts[2]);
+            if (!Float.isFinite(rank)) {
+                throw new InvalidCursorException("Malformed cursor");
+            }
+            return new SearchCursor(rank, Integer.parseInt(parts[3]), "b".equals(parts[1]));
+        } catch (IllegalArgumentException exception) {
+            throw new InvalidCursorException("Malformed cursor", exception);
+        }
+    }
+
+    String encode() {
+        String value = PREFIX + SEPARATOR + (before ? "b" : "a") + SEPARATOR + rank + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,429 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.entity.StorageReconcile;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.repository.StorageReconcileRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.Lock;
+import java.util.function.Predicate;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 18.40
+ * To change this template use File | Settings | File Templates.
+ */
+// Finds the covers nobody references and the references with no cover. Uploads are stored before their movie row
+// commits and deletes swallow failures, so the two drift apart; this walks both sides one shard per transaction:
+// the directory listing of each ab/cd leaf against a keyset-paged read of the route_cover values under ab, merged
+// in name order. Memory stays at one page plus one leaf however large the store grows.
+@Slf4j
+@Service
+@ConditionalOnProperty(name = "storage.reconcile.enabled", havingValue = "true")
+public class StorageReconciler {
+    static final String QUARANTINE = WarehouseService.QUARANTINE;
+
+    private static final String STAGED = WarehouseService.STAGED;
+
+    private static final String UPLOAD_PREFIX = ".upload-";
+
+    // 00-ff for the content-addressed directories, then the legacy files in the root
+    private static final int HEX_SHARDS = 256;
+
+    private static final int ROOT_SHARD = HEX_SHARDS;
+
+    private final WarehouseService warehouseService;
+
+    private final MovieRepository movieRepository;
+
+    private final StorageReconcileRepository storageReconcileRepository;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final MeterRegistry meterRegistry;
+
+    private final Path root;
+
+    private final int shardsPerRun;
+
+    private final int pageSize;
+
+    private final Duration gracePeriod;
+
+    private final Duration quarantineRetention;
+
+    public StorageReconciler(WarehouseService warehouseService, MovieRepository movieRepository,
+                             StorageReconcileRepository storageReconcileRepository,
+                             PlatformTransactionManager transactionManager, MeterRegistry meterRegistry,
+                             @Value("${storage.location}") String storageLocation,
+                             @Value("${storage.reconcile.shards-per-run:16}") int shardsPerRun,
+                             @Value("${storage.reconcile.page-size:1000}") int pageSize,
+                             @Value("${storage.reconcile.grace-period:1h}") Duration gracePeriod,
+                             @Value("${storage.reconcile.quarantine-retention:7d}") Duration quarantineRetention) {
+        this.warehouseService = warehouseService;
+        this.movieRepository = movieRepository;
+        this.storageReconcileRepository = storageReconcileRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.meterRegistry = meterRegistry;
+        this.root = Paths.get(storageLocation);
+        this.shardsPerRun = shardsPerRun;
+        this.pageSize = pageSize;
+        this.gracePeriod = gracePeriod;
+        this.quarantineRetention = quarantineRetention;
+    }
+
+    @Scheduled(initialDelayString = "${storage.reconcile.initial-delay:5m}",
+            fixedDelayString = "${storage.reconcile.interval:5m}")
+    public void reconcileScheduled() {
+        try {
+            ReconcileReport report = reconcile(shardsPerRun);
+            if (report.quarantined() + report.reclaimed() + report.restored() + report.missing() > 0) {
+                log.info("Reconciled {} storage shards: {}", report.shards(), report);
+            }
+        } catch (RuntimeException exception) {
+            // The checkpoint did not move, so the failed shard is retried on the next run
+            log.warn("Storage reconciliation failed, will retry", exception);
+        }
+    }
+
+    /**
+     * Reconciles up to {@code shards} shards from the checkpoint on, each in its own transaction that advances the
+     * checkpoint. Stops early when another instance holds the checkpoint.
+     */
+    public ReconcileReport reconcile(int shards) {
+        ReconcileReport total = ReconcileReport.EMPTY;
+        for (int i = 0; i < shards; i++) {
+            ReconcileReport report = transactionTemplate.execute(status -> reconcileNextShard());
+            if (report == null) {
+                log.debug("The storage checkpoint is held by another instance");
+                break;
+            }
+            total = total.plus(report);
+        }
+        return total;
+    }
+
+    private ReconcileReport reconcileNextShard() {
+        StorageReconcile checkpoint = storageReconcileRepository.lockById(StorageReconcile.CHECKPOINT_ID)
+                .orElse(null);
+        if (checkpoint == null) {
+            if (storageReconcileRepository.existsById(StorageReconcile.CHECKPOINT_ID)) {
+                return null;
+            }
+            checkpoint = storageReconcileRepository.saveAndFlush(new StorageReconcile(StorageReconcile.CHECKPOINT_ID));
+        }
+        Instant now = Instant.now();
+        int shard = checkpoint.getNextShard();
+        if (shard == 0) {
+            checkpoint.setCycleStartedAt(now);
+            checkpoint.setQuarantined(0);
+            checkpoint.setReclaimed(0);
+            checkpoint.setRestored(0);
+            checkpoint.setMissing(0);
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        ReconcileReport report;
+        try {
+            report = shard == ROOT_SHARD ? reconcileRoot() : reconcileShard(hex(shard));
+        } catch (IOException exception) {
+            throw new UncheckedIOException(exception);
+        } finally {
+            sample.stop(meterRegistry.timer("storage.reconcile.shard"));
+        }
+        count("quarantined", report.quarantined());
+        count("reclaimed", report.reclaimed());
+        count("restored", report.restored());
+        count("missing", report.missing());
+
+        checkpoint.setQuarantined(checkpoint.getQuarantined() + report.quarantined());
+        checkpoint.setReclaimed(checkpoint.getReclaimed() + report.reclaimed());
+        checkpoint.setRestored(checkpoint.getRestored() + report.restored());
+        checkpoint.setMissing(checkpoint.getMissing() + report.missing());
+        checkpoint.setUpdatedAt(now);
+        if (shard == ROOT_SHARD) {
+            log.info("Storage reconcile cycle {} finished: {} quarantined, {} reclaimed, {} restored, {} missing",
+                    checkpoint.getCycle(), checkpoint.getQuarantined(), checkpoint.getReclaimed(),
+                    checkpoint.getRestored(), checkpoint.getMissing());
+            checkpoint.setCycle(checkpoint.getCycle() + 1);
+            checkpoint.setNextShard(0);
+        } else {
+            checkpoint.setNextShard(shard + 1);
+        }
+        return report;
+    }
+
+    private ReconcileReport reconcileShard(String shard) throws IOException {
+        References references = new References(after -> movieRepository.findRouteCoversBetween(shard,
+                upperBound(shard), after, pageSize), warehouseService::isContentAddressed);
+        Tally tally = new Tally();
+        for (int leaf = 0; leaf < HEX_SHARDS; leaf++) {
+            String prefix = shard + hex(leaf);
+            Set<String> referenced = references.takeWithPrefix(prefix);
+            Path directory = root.resolve(shard).resolve(hex(leaf));
+            Path quarantine = root.resolve(QUARANTINE).resolve(shard).resolve(hex(leaf));
+            Path staged = root.resolve(STAGED).resolve(shard).resolve(hex(leaf));
+            if (referenced.isEmpty() && !Files.isDirectory(directory) && !Files.isDirectory(quarantine)
+                    && !Files.isDirectory(staged)) {
+                continue;
+            }
+            reconcileLeaf(directory, quarantine, staged, referenced, tally);
+        }
+        return tally.report();
+    }
+
+    // Legacy names predate content addressing and are few, so the root is one leaf with all of them
+    private ReconcileReport reconcileRoot() throws IOException {
+        References references = new References(after -> movieRepository.findLegacyRouteCoversAfter(after, pageSize),
+                name -> true);
+        Tally tally = new Tally();
+        reconcileLeaf(root, root.resolve(QUARANTINE), root.resolve(STAGED), references.takeWithPrefix(""), tally);
+        return tally.report();
+    }
+
+    /**
+     * Quarantines the files of a leaf that nothing references once they are past the grace period, moves quarantined
+     * files back when a reference reappeared, deletes them once the retention is over, and reports references
+     * to files that are gone from both places. Renditions follow the original they were derived from. Reuse markers
+     * are dropped once they no longer extend any grace period.
+     */
+    private void reconcileLeaf(Path directory, Path quarantine, Path staged, Set<String> referenced, Tally tally)
+            throws IOException {
+        Set<String> referencedStems = new HashSet<>();
+        referenced.forEach(name -> referencedStems.add(stemOf(name)));
+        Set<String> present = new HashSet<>();
+        Instant now = Instant.now();
+
+        for (Path file : regularFiles(directory)) {
+            String name = file.getFileName().toString();
+            if (name.startsWith(UPLOAD_PREFIX)) {
+                // Left behind by an upload that died before its finally block
+                if (olderThan(file, gracePeriod, now) && Files.deleteIfExists(file)) {
+                    tally.reclaimed++;
+                }
+            } else if (name.startsWith(".")) {
+                continue;
+            } else if (referencedStems.contains(stemOf(name))) {
+                present.add(name);
+            } else {
+                // Younger files may belong to an upload whose movie row has not committed yet. An upload reusing
+                // the file marks it under the same lock, so the age is read and acted on without it changing.
+                Lock lock = warehouseService.blobLock(name);
+                lock.lock();
+                try {
+                    if (stagedBefore(file, now.minus(gracePeriod)) && move(file, quarantine.resolve(name))) {
+                        Files.setLastModifiedTime(quarantine.resolve(name), FileTime.from(now));
+                        Files.deleteIfExists(staged.resolve(name));
+                        tally.quarantined++;
+                    }
+                } finally {
+                    lock.unlock();
+                }
+            }
+        }
+
+        for (Path file : regularFiles(quarantine)) {
+            String name = file.getFileName().toString();
+            if (referencedStems.contains(stemOf(name))) {
+                if (move(file, directory.resolve(name))) {
+                    present.add(name);
+                    tally.restored++;
+                }
+            } else if (olderThan(file, quarantineRetention, now) && Files.deleteIfExists(file)) {
+                tally.reclaimed++;
+            }
+        }
+
+        for (Path marker : regularFiles(staged)) {
+            Lock lock = warehouseService.blobLock(marker.getFileName().toString());
+            lock.lock();
+            try {
+                if (olderThan(marker, gracePeriod, now)) {
+                    Files.deleteIfExists(marker);
+                }
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        for (String name : referenced) {
+            if (!present.contains(name)) {
+                tally.missing++;
+                log.warn("Cover {} is referenced but missing from the store", name);
+            }
+        }
+    }
+
+    // Files only, sorted for a stable log; a leaf holds a few hundred entries at most
+    private static List<Path> regularFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return List.of();
+        }
+        try (DirectoryStream<Path> entries = Files.newDirectoryStream(directory, Files::isRegularFile)) {
+            List<Path> files = new ArrayList<>();
+            entries.forEach(files::add);
+            files.sort(null);
+            return files;
+        }
+    }
+
+    // A concurrent delete or store may win the race for the file; either way it is no longer ours to move. Names are
+    // content hashes, so a file already at the target holds the same bytes and the source is a spare copy.
+    private static boolean move(Path source, Path target) throws IOException {
+        Files.createDirectories(target.getParent());
+        try {
+            if (Files.exists(target)) {
+                Files.delete(source);
+                return false;
+            }
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException exception) {
+            return false;
+        }
+    }
+
+    private boolean stagedBefore(Path file, Instant cutoff) throws IOException {
+        try {
+            return warehouseService.lastStaged(file).isBefore(cutoff);
+        } catch (NoSuchFileException exception) {
+            return false;
+        }
+    }
+
+    private static boolean olderThan(Path file, Duration age, Instant now) throws IOException {
+        try {
+            return Files.getLastModifiedTime(file).toInstant().isBefore(now.minus(age));
+        } catch (NoSuchFileException exception) {
+            return false;
+        }
+    }
+
+    // abcd.png and its renditions abcd@sm.jpg, abcd@md.jpg share the stem abcd
+    static String stemOf(String name) {
+        for (CoverSize size : CoverSize.values()) {
+            String suffix = "@" + size.getKey() + ".jpg";
+            if (name.endsWith(suffix)) {
+                return name.substring(0, name.length() - suffix.length());
+            }
+        }
+        return StringUtils.stripFilenameExtension(name);
+    }
+
+    private static String upperBound(String prefix) {
+        return prefix.substring(0, prefix.length() - 1) + (char) (prefix.charAt(prefix.length() - 1) + 1);
+    }
+
+    private static String hex(int value) {
+        return String.format("%02x", value);
+    }
+
+    private void count(String outcome, long amount) {
+        if (amount > 0) {
+            Counter.builder("storage.reconcile.files")
+                    .description("Cover files the storage reconciler acted on or found missing")
+                    .tag("outcome", outcome)
+                    .register(meterRegistry)
+                    .increment(amount);
+        }
+    }
+
+    private static final class Tally {
+        private long quarantined;
+
+        private long reclaimed;
+
+        private long restored;
+
+        private long missing;
+
+        ReconcileReport report() {
+            return new ReconcileReport(1, quarantined, reclaimed, restored, missing);
+        }
+    }
+
+    // The referenced names of a shard in ascending order, fetched a page at a time as the leaves ask for them
+    private static final class References {
+        private final PageSource source;
+
+        private final Predicate<String> stored;
+
+        private final Deque<String> page = new ArrayDeque<>();
+
+        private String last = "";
+
+        private boolean exhausted;
+
+        References(PageSource source, Predicate<String> stored) {
+            this.source = source;
+            this.stored = stored;
+        }
+
+        Set<String> takeWithPrefix(String prefix) {
+            Set<String> taken = new HashSet<>();
+            while (true) {
+                if (page.isEmpty()) {
+                    if (exhausted) {
+                        return taken;
+                    }
+                    List<String> next = source.after(last);
+                    exhausted = next.isEmpty();
+                    if (!next.isEmpty()) {
+                        last = next.getLast();
+                        page.addAll(next);
+                    }
+                    continue;
+                }
+                String name = page.peekFirst();
+                if (name.compareTo(prefix) < 0) {
+                    page.removeFirst();
+                } else if (name.startsWith(prefix)) {
+                    page.removeFirst();
+                    if (stored.test(name)) {
+                        taken.add(name);
+                    }
+                } else {
+                    return taken;
+                }
+            }
+        }
+    }
+
+    @FunctionalInterface
+    private interface PageSource {
+        List<String> after(String last);
+    }
+}
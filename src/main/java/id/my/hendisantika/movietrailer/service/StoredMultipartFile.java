@@ -0,0 +1,87 @@
+package id.my.hendisantika.movietrailer.service;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 10.20
+ * To change this template use File | Settings | File Templates.
+ */
+@RequiredArgsConstructor
+public class StoredMultipartFile implements MultipartFile {
+    private final String name;
+
+    private final String originalFilename;
+
+    private final String contentType;
+
+    // Name of the committed blob in the warehouse, null when the form field was left empty
+    @Getter
+    private final String storedName;
+
+    private final Path file;
+
+    public static StoredMultipartFile empty(String name) {
+        return new StoredMultipartFile(name, "", null, null, null);
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getOriginalFilename() {
+        return originalFilename;
+    }
+
+    @Override
+    public String getContentType() {
+        return contentType;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return storedName == null;
+    }
+
+    @Override
+    public long getSize() {
+        try {
+            return isEmpty() ? 0 : Files.size(file);
+        } catch (IOException exception) {
+            return 0;
+        }
+    }
+
+    @Override
+    public byte[] getBytes() throws IOException {
+        return isEmpty() ? new byte[0] : Files.readAllBytes(file);
+    }
+
+    @Override
+    public InputStream getInputStream() throws IOException {
+        return isEmpty() ? InputStream.nullInputStream() : Files.newInputStream(file);
+    }
+
+    @Override
+    public void transferTo(File dest) throws IOException {
+        if (!isEmpty()) {
+            Files.copy(file, dest.toPath());
+        }
+    }
+}
@@ -0,0 +1,497 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.repository.MovieTitle;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.10
+ * To change this template use File | Settings | File Templates.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TitleSuggestIndex {
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final int MAX_QUERY_LENGTH = 64;
+
+    // A typed prefix is matched against the start of a title or of any later word in it. Prefix hits are collected
+    // from a bounded scan of the sorted word suffixes so a one-letter query can't walk the whole catalog.
+    private static final int MAX_PREFIX_SCAN = 2048;
+
+    // Typo tolerance: trigrams from the first characters after every word start, padded so the first letters count
+    private static final int GRAM_WINDOW = 12;
+
+    private static final String PAD = "$$";
+
+    // Shorter prefixes are one typo away from far too many titles to be useful
+    private static final int MIN_FUZZY_LENGTH = 4;
+
+    private static final int TWO_EDITS_LENGTH = 7;
+
+    // A trigram shared by this many titles (the "$$t" of every "The ...") narrows nothing down and is skipped
+    private static final int MAX_POSTING_SCAN = 4096;
+
+    private static final int MAX_FUZZY_CANDIDATES = 256;
+
+    private final MovieRepository movieRepository;
+
+    private final CatalogVersion catalogVersion;
+
+    // Readers take the current snapshot without locking; writers build a new one and publish it
+    private volatile Snapshot snapshot;
+
+    // Guarded by the same lock as the builds and patches
+    private final AppliedRevisions revisions = new AppliedRevisions();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        synchronized (this) {
+            long started = System.nanoTime();
+            revisions.built(catalogVersion.current());
+            Snapshot built = Snapshot.of(movieRepository.findAllTitles().stream()
+                    .map(title -> new TitleSuggestion(title.getId(), title.getTitle()))
+                    .toList());
+            snapshot = built;
+            log.info("Title suggest index built for {} titles in {} ms", built.live,
+                    (System.nanoTime() - started) / 1_000_000);
+        }
+    }
+
+    // Same refresh as GenreIndex: only revisions no local patch applied cost a rebuild
+    @Scheduled(initialDelayString = "${catalog-index.refresh-interval:30s}",
+            fixedDelayString = "${catalog-index.refresh-interval:30s}")
+    public void refresh() {
+        synchronized (this) {
+            if (snapshot != null && !revisions.coverUpTo(catalogVersion.current())) {
+                build();
+            }
+        }
+    }
+
+    /**
+     * Titles starting with the typed prefix first, then titles with a later word starting with it, then titles
+     * within one typo (two from seven characters on) of it.
+     */
+    public List<TitleSuggestion> suggest(String query, int limit) {
+        String prefix = normalize(query);
+        if (prefix.length() > MAX_QUERY_LENGTH) {
+            prefix = prefix.substring(0, MAX_QUERY_LENGTH);
+        }
+        int wanted = Math.clamp(limit, 1, MAX_SUGGESTIONS);
+        List<TitleSuggestion> suggestions = new ArrayList<>(wanted);
+        if (prefix.isEmpty()) {
+            return suggestions;
+        }
+        Snapshot current = current();
+        Set<Integer> picked = new LinkedHashSet<>();
+        current.collectPrefixed(prefix, true, wanted, picked);
+        current.collectPrefixed(prefix, false, wanted, picked);
+        if (picked.size() < wanted && prefix.length() >= MIN_FUZZY_LENGTH) {
+            current.collectFuzzy(prefix, wanted, picked);
+        }
+        for (int slot : picked) {
+            suggestions.add(new TitleSuggestion(current.ids[slot], current.titles[slot]));
+        }
+        return suggestions;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.type() == MovieChangedEvent.ChangeType.BULK) {
+            build();
+            return;
+        }
+        if (event.movieId() == null) {
+            return;
+        }
+        synchronized (this) {
+            if (snapshot == null) {
+                return;
+            }
+            String title = movieRepository.findTitleById(event.movieId()).map(MovieTitle::getTitle).orElse(null);
+            snapshot = snapshot.with(event.movieId(), title);
+            revisions.patched(event.revision());
+        }
+    }
+
+    private Snapshot current() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            build();
+            current = snapshot;
+        }
+        return current;
+    }
+
+    // Case, accents and punctuation don't matter when typing: "Amélie!" is found by "ame"
+    static String normalize(String text) {
+        if (text == null) {
+            return "";
+        }
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder normalized = new StringBuilder(decomposed.length());
+        boolean separated = true;
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            if (Character.getType(c) == Character.NON_SPACING_MARK) {
+                continue;
+            }
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(Character.toLowerCase(c));
+                separated = false;
+            } else if (!separated) {
+                normalized.append(' ');
+                separated = true;
+            }
+        }
+        int length = normalized.length();
+        if (length > 0 && normalized.charAt(length - 1) == ' ') {
+            normalized.setLength(length - 1);
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Optimal string alignment distance between the query and the closest prefix of the text, or {@code limit + 1}
+     * once it is certain to exceed the limit.
+     */
+    static int prefixDistance(String query, String text, int limit) {
+        int rows = query.length();
+        int columns = Math.min(text.length(), rows + limit);
+        int[] previous2 = new int[columns + 1];
+        int[] previous = new int[columns + 1];
+        int[] current = new int[columns + 1];
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= rows; i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= columns; j++) {
+                int cost = query.charAt(i - 1) == text.charAt(j - 1) ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && query.charAt(i - 1) == text.charAt(j - 2)
+                        && query.charAt(i - 2) == text.charAt(j - 1)) {
+                    value = Math.min(value, previous2[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > limit) {
+                return limit + 1;
+            }
+            int[] recycled = previous2;
+            previous2 = previous;
+            previous = current;
+            current = recycled;
+        }
+        int best = limit + 1;
+        for (int j = Math.max(0, rows - limit); j <= columns; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    // Movies live in append-only slots so posting lists stay valid across updates; a removed or edited movie leaves
+    // a tombstone (null title) that readers skip, and the snapshot is compacted once tombstones pile up.
+    private record Snapshot(int[] ids, String[] titles, String[] normalized, int live, Map<Integer, Integer> slotById,
+                            String[] entryKeys, int[] entrySlots, Map<String, int[]> postings) {
+
+        static Snapshot of(List<TitleSuggestion> movies) {
+            int size = movies.size();
+            int[] ids = new int[size];
+            String[] titles = new String[size];
+            String[] normalized = new String[size];
+            Map<Integer, Integer> slotById = new HashMap<>(size * 2);
+            List<Entry> entries = new ArrayList<>(size * 3);
+            Map<String, List<Integer>> postingLists = new HashMap<>();
+            for (int slot = 0; slot < size; slot++) {
+                TitleSuggestion movie = movies.get(slot);
+                ids[slot] = movie.id();
+                titles[slot] = movie.title();
+                normalized[slot] = normalize(movie.title());
+                slotById.put(movie.id(), slot);
+                for (String suffix : wordSuffixes(normalized[slot])) {
+                    entries.add(new Entry(suffix, slot));
+                }
+                for (String gram : titleGrams(normalized[slot])) {
+                    postingLists.computeIfAbsent(gram, key -> new ArrayList<>()).add(slot);
+                }
+            }
+            entries.sort(Entry.ORDER);
+            Map<String, int[]> postings = new HashMap<>(postingLists.size() * 2);
+            postingLists.forEach((gram, slots) -> postings.put(gram, slots.stream().mapToInt(Integer::intValue).toArray()));
+            return new Snapshot(ids, titles, normalized, size, slotById,
+                    entries.stream().map(Entry::key).toArray(String[]::new),
+                    entries.stream().mapToInt(Entry::slot).toArray(), postings);
+        }
+
+        Snapshot with(int movieId, String title) {
+            Integer oldSlot = slotById.get(movieId);
+            int tombstones = ids.length - live + (oldSlot != null ? 1 : 0);
+            int remaining = live - (oldSlot != null ? 1 : 0) + (title != null ? 1 : 0);
+            if (tombstones > Math.max(64, remaining / 4)) {
+                List<TitleSuggestion> movies = new ArrayList<>(remaining);
+                for (int slot = 0; slot < ids.length; slot++) {
+                    if (titles[slot] != null && ids[slot] != movieId) {
+                        movies.add(new TitleSuggestion(ids[slot], titles[slot]));
+                    }
+                }
+                if (title != null) {
+                    movies.add(new TitleSuggestion(movieId, title));
+                }
+                return of(movies);
+            }
+
+            int slots = ids.length + (title != null ? 1 : 0);
+            int[] newIds = Arrays.copyOf(ids, slots);
+            String[] newTitles = Arrays.copyOf(titles, slots);
+            String[] newNormalized = Arrays.copyOf(normalized, slots);
+            Map<Integer, Integer> newSlotById = new HashMap<>(slotById);
+            List<Entry> added = new ArrayList<>();
+            Map<String, int[]> newPostings = postings;
+            if (oldSlot != null) {
+                newTitles[oldSlot] = null;
+                newNormalized[oldSlot] = null;
+                newSlotById.remove(movieId);
+            }
+            if (title != null) {
+                int slot = slots - 1;
+                newIds[slot] = movieId;
+                newTitles[slot] = title;
+                newNormalized[slot] = normalize(title);
+                newSlotById.put(movieId, slot);
+                for (String suffix : wordSuffixes(newNormalized[slot])) {
+                    added.add(new Entry(suffix, slot));
+                }
+                added.sort(Entry.ORDER);
+                // The new slot is the highest, so appending keeps every posting list sorted
+                newPostings = new HashMap<>(postings);
+                for (String gram : titleGrams(newNormalized[slot])) {
+                    int[] posting = newPostings.getOrDefault(gram, new int[0]);
+                    int[] appended = Arrays.copyOf(posting, posting.length + 1);
+                    appended[posting.length] = slot;
+                    newPostings.put(gram, appended);
+                }
+            }
+
+            // Merge the new entries in and drop the old slot's entries in one pass
+            int removed = 0;
+            if (oldSlot != null) {
+                for (int entrySlot : entrySlots) {
+                    if (entrySlot == oldSlot) {
+                        removed++;
+                    }
+                }
+            }
+            int total = entryKeys.length - removed + added.size();
+            String[] newKeys = new String[total];
+            int[] newSlots = new int[total];
+            int i = 0;
+            int a = 0;
+            int out = 0;
+            while (out < total) {
+                if (i < entryKeys.length && oldSlot != null && entrySlots[i] == oldSlot) {
+                    i++;
+                    continue;
+                }
+                boolean takeAdded = a < added.size() && (i >= entryKeys.length
+                        || Entry.ORDER.compare(added.get(a), new Entry(entryKeys[i], entrySlots[i])) < 0);
+                if (takeAdded) {
+                    newKeys[out] = added.get(a).key();
+                    newSlots[out++] = added.get(a++).slot();
+                } else {
+                    newKeys[out] = entryKeys[i];
+                    newSlots[out++] = entrySlots[i++];
+                }
+            }
+            return new Snapshot(newIds, newTitles, newNormalized, remaining, Map.copyOf(newSlotById), newKeys,
+                    newSlots, newPostings);
+        }
+
+        void collectPrefixed(String prefix, boolean titleStart, int wanted, Set<Integer> picked) {
+            int index = lowerBound(prefix);
+            int end = Math.min(entryKeys.length, index + MAX_PREFIX_SCAN);
+            for (; index < end && picked.size() < wanted; index++) {
+                String key = entryKeys[index];
+                if (!key.startsWith(prefix)) {
+                    return;
+                }
+                int slot = entrySlots[index];
+                // A suffix as long as the whole title is the title itself
+                if (titles[slot] != null && (key.length() == normalized[slot].length()) == titleStart) {
+                    picked.add(slot);
+                }
+            }
+        }
+
+        void collectFuzzy(String prefix, int wanted, Set<Integer> picked) {
+            int maxEdits = prefix.length() >= TWO_EDITS_LENGTH ? 2 : 1;
+            List<String> queryGrams = grams(prefix);
+            List<int[]> used = new ArrayList<>(queryGrams.size());
+            int scanned = 0;
+            for (String gram : queryGrams) {
+                int[] posting = postings.get(gram);
+                if (posting != null && posting.length <= MAX_POSTING_SCAN) {
+                    used.add(posting);
+                    scanned += posting.length;
+                }
+            }
+            if (used.isEmpty()) {
+                return;
+            }
+            // Sized to the postings scanned rather than to the catalog, so a miss costs the same in any catalog
+            SlotCounts counts = new SlotCounts(Math.min(scanned, ids.length));
+            for (int[] posting : used) {
+                for (int slot : posting) {
+                    counts.increment(slot);
+                }
+            }
+            // Each edit can destroy at most three trigrams
+            int needed = Math.max(1, used.size() - 3 * maxEdits);
+            List<long[]> matches = new ArrayList<>();
+            int verified = 0;
+            for (int t = 0; t < counts.size() && verified < MAX_FUZZY_CANDIDATES; t++) {
+                int slot = counts.slot(t);
+                if (counts.count(t) < needed || titles[slot] == null || picked.contains(slot)) {
+                    continue;
+                }
+                verified++;
+                int best = maxEdits + 1;
+                for (String suffix : wordSuffixes(normalized[slot])) {
+                    best = Math.min(best, prefixDistance(prefix, suffix, maxEdits));
+                }
+                if (best <= maxEdits) {
+                    matches.add(new long[]{best, slot});
+                }
+            }
+            matches.sort(Comparator.<long[]>comparingLong(match -> match[0])
+                    .thenComparing(match -> normalized[(int) match[1]]));
+            for (long[] match : matches) {
+                if (picked.size() >= wanted) {
+                    return;
+                }
+                picked.add((int) match[1]);
+            }
+        }
+
+        private int lowerBound(String key) {
+            int low = 0;
+            int high = entryKeys.length;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (entryKeys[middle].compareTo(key) < 0) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            return low;
+        }
+
+        private static List<String> wordSuffixes(String normalized) {
+            List<String> suffixes = new ArrayList<>(4);
+            int start = 0;
+            while (true) {
+                suffixes.add(normalized.substring(start));
+                int space = normalized.indexOf(' ', start);
+                if (space < 0) {
+                    return suffixes;
+                }
+                start = space + 1;
+            }
+        }
+
+        private static Set<String> titleGrams(String normalized) {
+            Set<String> grams = new LinkedHashSet<>();
+            for (String suffix : wordSuffixes(normalized)) {
+                grams.addAll(grams(suffix));
+            }
+            return grams;
+        }
+
+        private static List<String> grams(String text) {
+            String padded = PAD + (text.length() > GRAM_WINDOW ? text.substring(0, GRAM_WINDOW) : text);
+            List<String> grams = new ArrayList<>(padded.length() - 2);
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+            return grams;
+        }
+    }
+
+    private record Entry(String key, int slot) {
+        static final Comparator<Entry> ORDER = Comparator.comparing(Entry::key).thenComparingInt(Entry::slot);
+    }
+
+    // Trigram hits per slot in an open-addressing table kept at most half full. Slots are numbered in the order
+    // they were first counted, which is the order the fuzzy matching verifies them in.
+    private static final class SlotCounts {
+        private final int[] keys;
+        private final int[] counts;
+        private final int[] order;
+        private final int shift;
+        private int size;
+
+        SlotCounts(int maxSlots) {
+            int capacity = Integer.highestOneBit(Math.max(1, maxSlots)) << 2;
+            keys = new int[capacity];
+            counts = new int[capacity];
+            order = new int[maxSlots];
+            shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        }
+
+        void increment(int slot) {
+            int mask = keys.length - 1;
+            // Fibonacci hashing spreads the consecutive slot numbers of a posting over the table
+            int index = (slot * 0x9E3779B9) >>> shift;
+            // Keys are stored one up, so a zero marks a free entry
+            while (keys[index] != 0 && keys[index] != slot + 1) {
+                index = (index + 1) & mask;
+            }
+            if (keys[index] == 0) {
+                keys[index] = slot + 1;
+                order[size++] = index;
+            }
+            counts[index]++;
+        }
+
+        int size() {
+            return size;
+        }
+
+        int slot(int nth) {
+            return keys[order[nth]] - 1;
+        }
+
+        int count(int nth) {
+            return counts[order[nth]];
+        }
+    }
+}
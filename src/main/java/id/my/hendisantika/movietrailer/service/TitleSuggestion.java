@@ -0,0 +1,15 @@
+package id.my.hendisantika.movietrailer.service;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.05
+ * To change this template use File | Settings | File Templates.
+ */
+public record TitleSuggestion(int id, String title) {
+}
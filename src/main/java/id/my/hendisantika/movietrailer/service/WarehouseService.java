@@ -1,23 +1,52 @@
 package id.my.hendisantika.movietrailer.service;
 
+import id.my.hendisantika.movietrailer.event.CoverStoredEvent;
 import id.my.hendisantika.movietrailer.exception.FileNotFoundException;
+import id.my.hendisantika.movietrailer.exception.InvalidFileException;
 import id.my.hendisantika.movietrailer.exception.WarehouseException;
+import id.my.hendisantika.movietrailer.metrics.Routes;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.Resource;
 import org.springframework.core.io.UrlResource;
 import org.springframework.stereotype.Service;
 import org.springframework.util.FileSystemUtils;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.InterruptedIOException;
 import java.net.MalformedURLException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
 
 /**
  * Created by IntelliJ IDEA.
@@ -32,14 +61,57 @@ import java.nio.file.StandardCopyOption;
  */
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class WarehouseService {
+    // Unreferenced blobs are parked here rather than deleted; StorageReconciler restores or reclaims them
+    static final String QUARANTINE = ".quarantine";
+
+    // An upload reusing a blob records the time on an empty marker here; the blob's own modification time is part of
+    // the validators it is served with and stays as it was stored
+    static final String STAGED = ".staged";
+
+    // SHA-256 of the content in hex, followed by the extension of the uploaded file
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}(\\.[a-z0-9]{1,8})?");
+
+    private static final Pattern EXTENSION = Pattern.compile("[a-z0-9]{1,8}");
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private static final byte[] JPEG = {(byte) 0xFF, (byte) 0xD8, (byte) 0xFF};
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+    private static final byte[] GIF = {'G', 'I', 'F', '8'};
+    private static final byte[] RIFF = {'R', 'I', 'F', 'F'};
+    private static final byte[] WEBP = {'W', 'E', 'B', 'P'};
+
+    private static final int SIGNATURE_LENGTH = 12;
+
+    private static final int LOCK_STRIPES = 64;
+
+    private final MovieRepository movieRepository;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final MeterRegistry meterRegistry;
+
     @Value("${storage.location}")
     private String storageLocation;
 
+    // An fsync blocks its carrier thread. On virtual threads the scheduler then adds carriers to compensate, so a
+    // burst of uploads would grow the carrier pool instead of queueing; bounding the syncs keeps it near the core count.
+    @Value("${storage.io.max-concurrent-syncs:8}")
+    private int maxConcurrentSyncs;
+
+    private Semaphore syncPermits;
+
+    // Reusing a stored blob and deciding that nothing uses it must not interleave, or the blob is moved away between
+    // an upload finding it and its movie row committing. Striped by name, so memory stays fixed.
+    private final Lock[] blobLocks = Stream.generate(ReentrantLock::new).limit(LOCK_STRIPES).toArray(Lock[]::new);
+
     //This is used to indicate that this method is going to be executed every time it finds a new instance of this
     // class.
     @PostConstruct
     public void startStoreFiles() {
+        syncPermits = new Semaphore(maxConcurrentSyncs);
         try {
             Files.createDirectories(Paths.get(storageLocation));
         } catch (IOException exception) {
@@ -47,22 +119,170 @@ public class WarehouseService {
         }
     }
 
+    /**
+     * Stores the upload under the SHA-256 of its content, so identical covers share one blob and a name never
+     * points to different bytes. The returned name is what goes into {@code movie.route_cover}.
+     */
     public String storeFile(MultipartFile archive) {
+        if (archive instanceof StoredMultipartFile stored) {
+            // Already committed by the streaming upload filter
+            return stored.getStoredName();
+        }
         String filename = archive.getOriginalFilename();
         if (archive.isEmpty()) {
             throw new WarehouseException("Can't store an empty file");
         }
-        try {
-            InputStream inputStream = archive.getInputStream();
-            Files.copy(inputStream, Paths.get(storageLocation).resolve(filename), StandardCopyOption.REPLACE_EXISTING);
+        try (InputStream inputStream = archive.getInputStream()) {
+            return storeStream(inputStream, filename);
         } catch (IOException exception) {
             throw new WarehouseException("Error al almacenar el archive " + filename, exception);
         }
-        return filename;
     }
 
+    /**
+     * Streams the body into a temp file in the storage directory through one fixed-size direct buffer, checking
+     * the image signature on the first bytes, then fsyncs and atomically renames it into place. A crash never
+     * leaves a truncated file under a final name, and heap use does not depend on the upload size.
+     */
+    public String storeStream(InputStream inputStream, String originalFilename) throws IOException {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "ERROR";
+        Path root = Paths.get(storageLocation);
+        Path temporary = Files.createTempFile(root, ".upload-", ".tmp");
+        try {
+            MessageDigest digest = sha256();
+            ByteBuffer buffer = ByteBuffer.allocateDirect(BUFFER_SIZE);
+            boolean sniffed = false;
+            long written = 0;
+            try (ReadableByteChannel source = Channels.newChannel(inputStream);
+                 FileChannel target = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                while (true) {
+                    boolean endOfStream = source.read(buffer) == -1;
+                    if (!sniffed) {
+                        if (buffer.position() < SIGNATURE_LENGTH && !endOfStream) {
+                            continue;
+                        }
+                        requireImage(buffer);
+                        sniffed = true;
+                    }
+                    if (buffer.position() > 0 && (endOfStream || !buffer.hasRemaining())) {
+                        buffer.flip();
+                        written += buffer.remaining();
+                        digest.update(buffer.duplicate());
+                        while (buffer.hasRemaining()) {
+                            target.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                    if (endOfStream) {
+                        break;
+                    }
+                }
+                if (written == 0) {
+                    throw new WarehouseException("Can't store an empty file");
+                }
+                storedBytes().record(written);
+                acquireSyncPermit();
+                try {
+                    target.force(true);
+                } finally {
+                    syncPermits.release();
+                }
+            }
+
+            String filename = HexFormat.of().formatHex(digest.digest()) + extension(originalFilename);
+            Path archive = fileUpload(filename);
+            Lock lock = blobLock(filename);
+            lock.lock();
+            try {
+                if (Files.exists(archive)) {
+                    log.debug("Cover {} is already stored, reusing it", filename);
+                    // An unreferenced blob may be old enough for the reconciler to quarantine; the new reference has
+                    // not committed yet, so restart its grace period
+                    markStaged(archive);
+                    outcome = "DUPLICATE";
+                } else {
+                    Files.createDirectories(archive.getParent());
+                    Files.move(temporary, archive, StandardCopyOption.ATOMIC_MOVE);
+                    acquireSyncPermit();
+                    try {
+                        syncDirectory(archive.getParent());
+                    } finally {
+                        syncPermits.release();
+                    }
+                    outcome = "SUCCESS";
+                }
+            } finally {
+                lock.unlock();
+            }
+            eventPublisher.publishEvent(new CoverStoredEvent(filename));
+            return filename;
+        } finally {
+            Files.deleteIfExists(temporary);
+            sample.stop(operationTimer("store", outcome));
+        }
+    }
+
+    public boolean isContentAddressed(String filename) {
+        return filename != null && CONTENT_ADDRESSED.matcher(filename).matches();
+    }
+
+    /**
+     * Content-addressed names live two directory levels deep ({@code ab/cd/abcd...}) so no directory grows past
+     * 256 entries per level; names stored before hashing was introduced stay in the storage root.
+     */
     public Path fileUpload(String filename) {
-        return Paths.get(storageLocation).resolve(filename);
+        Path root = Paths.get(storageLocation);
+        if (isContentAddressed(filename)) {
+            return root.resolve(filename.substring(0, 2)).resolve(filename.substring(2, 4)).resolve(filename);
+        }
+        return root.resolve(filename);
+    }
+
+    /**
+     * Down-scaled renditions sit next to their original as {@code <name>@<size>.jpg}.
+     */
+    public Path derivativeFile(String filename, CoverSize size) {
+        Path archive = fileUpload(filename);
+        String stem = StringUtils.stripFilenameExtension(archive.getFileName().toString());
+        return archive.resolveSibling(stem + "@" + size.getKey() + ".jpg");
+    }
+
+    /**
+     * Where {@link #deleteArchive(String)} parks a blob: the same relative path under {@code .quarantine}.
+     */
+    public Path quarantineFile(String filename) {
+        Path root = Paths.get(storageLocation);
+        return root.resolve(QUARANTINE).resolve(root.relativize(fileUpload(filename)));
+    }
+
+    /**
+     * When an upload last handed out the blob: when it was stored, or the latest reuse if there was one since.
+     * StorageReconciler counts its grace period from here and CoverFilePipeline skips releases older than this.
+     */
+    Instant lastStaged(Path archive) throws IOException {
+        Instant stored = Files.getLastModifiedTime(archive).toInstant();
+        try {
+            Instant reused = Files.getLastModifiedTime(stagedMarker(archive)).toInstant();
+            return reused.isAfter(stored) ? reused : stored;
+        } catch (NoSuchFileException exception) {
+            return stored;
+        }
+    }
+
+    // The same relative path as the blob, under .staged
+    Path stagedMarker(Path archive) {
+        Path root = Paths.get(storageLocation);
+        return root.resolve(STAGED).resolve(root.relativize(archive));
+    }
+
+    public Path loadFile(String filename) {
+        Path root = Paths.get(storageLocation).toAbsolutePath().normalize();
+        Path archive = fileUpload(filename).toAbsolutePath().normalize();
+        if (!archive.startsWith(root) || !(Files.isRegularFile(archive) || restore(filename))) {
+            throw new FileNotFoundException("The file could not be found " + filename);
+        }
+        return archive;
     }
 
     public Resource uploadAsResource(String filename) {
@@ -81,12 +301,158 @@ public class WarehouseService {
         }
     }
 
+    /**
+     * Moves the blob into the quarantine once no movie references it anymore. It is never deleted outright: an
+     * upload of the same content may have reused it just before the count and commit its movie row just after.
+     * Such a reference gets the blob back on its first read, or from StorageReconciler, which also reclaims what
+     * stays unreferenced past the quarantine retention. Renditions are simply deleted, they are derived again.
+     * Called by {@link CoverFilePipeline} after the write that may have dropped the last reference has ended.
+     */
     public void deleteArchive(String filename) {
-        Path archive = fileUpload(filename);
+        Timer.Sample sample = Timer.start(meterRegistry);
+        String outcome = "SUCCESS";
+        Lock lock = blobLock(filename);
+        lock.lock();
         try {
-            FileSystemUtils.deleteRecursively(archive);
+            if (movieRepository.countByRouteCover(filename) > 0) {
+                log.debug("Cover {} is still referenced, keeping it", filename);
+                outcome = "REFERENCED";
+                return;
+            }
+            Path archive = fileUpload(filename);
+            if (Files.isRegularFile(archive)) {
+                Path quarantined = quarantineFile(filename);
+                Files.createDirectories(quarantined.getParent());
+                Files.move(archive, quarantined, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+                // The retention counts from the quarantine, not from the upload
+                Files.setLastModifiedTime(quarantined, FileTime.from(Instant.now()));
+                Files.deleteIfExists(stagedMarker(archive));
+            }
+            for (CoverSize size : CoverSize.values()) {
+                Files.deleteIfExists(derivativeFile(filename, size));
+            }
         } catch (Exception exception) {
+            outcome = "ERROR";
             log.info("Error: ", exception);
+        } finally {
+            lock.unlock();
+            sample.stop(operationTimer("delete", outcome));
+        }
+    }
+
+    // abcd.png and its renditions abcd@sm.jpg share a stripe
+    Lock blobLock(String filename) {
+        int end = filename.length();
+        for (int i = 0; i < filename.length(); i++) {
+            char c = filename.charAt(i);
+            if (c == '.' || c == '@') {
+                end = i;
+                break;
+            }
+        }
+        return blobLocks[Math.floorMod(filename.substring(0, end).hashCode(), blobLocks.length)];
+    }
+
+    // A reference that committed after its blob was quarantined; bring the blob back instead of serving a 404
+    // until the reconciler reaches its shard
+    private boolean restore(String filename) {
+        Path quarantined = quarantineFile(filename);
+        if (!Files.isRegularFile(quarantined) || movieRepository.countByRouteCover(filename) == 0) {
+            return false;
+        }
+        Path archive = fileUpload(filename);
+        Lock lock = blobLock(filename);
+        lock.lock();
+        try {
+            if (!Files.isRegularFile(archive)) {
+                Files.createDirectories(archive.getParent());
+                Files.move(quarantined, archive, StandardCopyOption.ATOMIC_MOVE);
+                log.info("Cover {} was referenced after its release, restored it from the quarantine", filename);
+            }
+            return true;
+        } catch (IOException exception) {
+            log.warn("Could not restore cover {} from the quarantine", filename, exception);
+            return Files.isRegularFile(archive);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    // Called under the blob lock, like the reconciler reading the time back
+    private void markStaged(Path archive) throws IOException {
+        Path marker = stagedMarker(archive);
+        Files.createDirectories(marker.getParent());
+        if (!Files.exists(marker)) {
+            Files.createFile(marker);
+        }
+        Files.setLastModifiedTime(marker, FileTime.from(Instant.now()));
+    }
+
+    // Looked up per call rather than cached: the route tag differs between an admin upload and a bulk import
+    private Timer operationTimer(String operation, String outcome) {
+        return Timer.builder("storage.operations")
+                .description("Latency of storing and deleting covers")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .tag(Routes.TAG, Routes.current())
+                .register(meterRegistry);
+    }
+
+    private DistributionSummary storedBytes() {
+        return DistributionSummary.builder("storage.bytes")
+                .description("Bytes written to the cover store per upload")
+                .baseUnit("bytes")
+                .tag("direction", "written")
+                .tag(Routes.TAG, Routes.current())
+                .register(meterRegistry);
+    }
+
+    private static void requireImage(ByteBuffer buffer) {
+        boolean image = startsWith(buffer, 0, JPEG) || startsWith(buffer, 0, PNG) || startsWith(buffer, 0, GIF)
+                || (startsWith(buffer, 0, RIFF) && startsWith(buffer, 8, WEBP));
+        if (!image) {
+            throw new InvalidFileException("Covers must be JPEG, PNG, GIF or WebP images");
+        }
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int offset, byte[] signature) {
+        return buffer.position() >= offset + signature.length
+                && buffer.slice(offset, signature.length).equals(ByteBuffer.wrap(signature));
+    }
+
+    private void acquireSyncPermit() throws InterruptedIOException {
+        try {
+            syncPermits.acquire();
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting to sync an upload");
+        }
+    }
+
+    private static void syncDirectory(Path directory) {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        } catch (IOException exception) {
+            // Not every platform allows opening a directory; the rename itself is still atomic
+            log.debug("Could not sync directory {}", directory);
+        }
+    }
+
+    private static String extension(String originalFilename) {
+        String extension = StringUtils.getFilenameExtension(originalFilename);
+        if (extension == null) {
+            return "";
+        }
+        extension = extension.toLowerCase(Locale.ROOT);
+        return EXTENSION.matcher(extension).matches() ? "." + extension : "";
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
         }
     }
 }
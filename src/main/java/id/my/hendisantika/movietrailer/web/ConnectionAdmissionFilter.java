@@ -0,0 +1,111 @@
+package id.my.hendisantika.movietrailer.web;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 14.40
+ * To change this template use File | Settings | File Templates.
+ */
+// With virtual threads Tomcat no longer caps concurrency at its thread pool, so thousands of requests can end up
+// parked inside Hikari until connection-timeout. Admitting about as many requests as there are connections keeps
+// that queue here, short and bounded, and turns overload into a fast 503 instead of a 30 second wait.
+// A slot covers the handler only: ConnectionAdmissionInterceptor gives it back before the view renders and the
+// response goes out, which borrow no connection with open-in-view off.
+@Slf4j
+public class ConnectionAdmissionFilter extends OncePerRequestFilter {
+    // Served from disk or memory, they never borrow a connection
+    private static final List<String> EXEMPT_PREFIXES = List.of("/assets/", "/css/", "/images/", "/actuator/",
+            "/movies/suggest");
+
+    static final String PERMIT_ATTRIBUTE = ConnectionAdmissionFilter.class.getName() + ".permit";
+
+    private final Semaphore permits;
+
+    private final int maxConcurrent;
+
+    private final long timeoutNanos;
+
+    private final Counter rejected;
+
+    public ConnectionAdmissionFilter(int maxConcurrent, Duration timeout, MeterRegistry meterRegistry) {
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.maxConcurrent = maxConcurrent;
+        this.timeoutNanos = timeout.toNanos();
+        this.rejected = Counter.builder("http.admission.rejected")
+                .description("Requests turned away because every database-bound slot stayed busy")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.active", this, filter -> filter.maxConcurrent - filter.permits.availablePermits())
+                .description("Database-bound requests currently admitted")
+                .register(meterRegistry);
+        Gauge.builder("http.admission.waiting", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for a database-bound slot")
+                .register(meterRegistry);
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        return EXEMPT_PREFIXES.stream().anyMatch(path::startsWith);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        boolean admitted;
+        try {
+            admitted = permits.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException exception) {
+            Thread.currentThread().interrupt();
+            admitted = false;
+        }
+        if (!admitted) {
+            rejected.increment();
+            log.debug("Rejected {} {}, all {} slots busy", request.getMethod(), request.getRequestURI(), maxConcurrent);
+            response.setHeader(HttpHeaders.RETRY_AFTER, "1");
+            response.sendError(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+            return;
+        }
+        Permit permit = new Permit();
+        request.setAttribute(PERMIT_ATTRIBUTE, permit);
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            // Requests no handler returned from, failed ones and those outside Spring MVC
+            permit.release();
+        }
+    }
+
+    // Released by whichever of the interceptor and the filter comes first
+    final class Permit {
+        private final AtomicBoolean held = new AtomicBoolean(true);
+
+        void release() {
+            if (held.compareAndSet(true, false)) {
+                permits.release();
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package id.my.hendisantika.movietrailer.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 23.55
+ * To change this template use File | Settings | File Templates.
+ */
+// postHandle runs once the handler has returned and before the view renders, so a slow template or a slow client
+// doesn't keep a database-bound slot. A @ResponseBody handler has written its body by then.
+public class ConnectionAdmissionInterceptor implements HandlerInterceptor {
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        Object permit = request.getAttribute(ConnectionAdmissionFilter.PERMIT_ATTRIBUTE);
+        if (permit instanceof ConnectionAdmissionFilter.Permit held) {
+            held.release();
+        }
+    }
+}
@@ -0,0 +1,136 @@
+package id.my.hendisantika.movietrailer.web;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 13.40
+ * To change this template use File | Settings | File Templates.
+ */
+@Slf4j
+public class PageCache {
+    private final Cache<String, Page> pages;
+
+    // Bumped by every purge. A render that started under an older generation may have read the rows the purge is
+    // about, so it is served to its own request but never stored.
+    private final ReadWriteLock purgeLock = new ReentrantReadWriteLock();
+
+    private long generation;
+
+    public PageCache(long maxBytes, Duration maxAge, MeterRegistry meterRegistry) {
+        this.pages = Caffeine.newBuilder()
+                .maximumWeight(maxBytes)
+                .weigher((String key, Page page) -> page.weight())
+                .expireAfterWrite(maxAge)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, pages, "pageCache");
+    }
+
+    public Page get(String key) {
+        return pages.getIfPresent(key);
+    }
+
+    public long generation() {
+        purgeLock.readLock().lock();
+        try {
+            return generation;
+        } finally {
+            purgeLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores the page unless a purge happened since {@code renderGeneration} was read.
+     */
+    public boolean put(String key, Page page, long renderGeneration) {
+        purgeLock.readLock().lock();
+        try {
+            if (renderGeneration != generation) {
+                return false;
+            }
+            pages.put(key, page);
+            return true;
+        } finally {
+            purgeLock.readLock().unlock();
+        }
+    }
+
+    // Last in line after commit: the catalog caches are already evicted, so whatever renders next is fresh
+    @Order(Ordered.LOWEST_PRECEDENCE)
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onMovieChanged(MovieChangedEvent event) {
+        if (event.movieId() == null) {
+            clear();
+            log.debug("Purged every cached page after a {} change", event.type());
+            return;
+        }
+        int movieId = event.movieId();
+        boolean listingsChanged = event.listingsChanged();
+        purgeLock.writeLock().lock();
+        try {
+            generation++;
+            int purged = 0;
+            for (Iterator<Page> iterator = pages.asMap().values().iterator(); iterator.hasNext(); ) {
+                Page page = iterator.next();
+                if (page.shows(movieId) || (listingsChanged && page.listing())) {
+                    iterator.remove();
+                    purged++;
+                }
+            }
+            log.debug("Purged {} cached pages for movie {} ({})", purged, movieId, event.type());
+        } finally {
+            purgeLock.writeLock().unlock();
+        }
+    }
+
+    public void clear() {
+        purgeLock.writeLock().lock();
+        try {
+            generation++;
+            pages.invalidateAll();
+        } finally {
+            purgeLock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * A rendered page with its precompressed variant. {@code movieIds} is sorted and lists every movie the page
+     * shows; {@code listing} marks pages whose membership depends on sort keys and genres rather than on one id.
+     */
+    public record Page(byte[] body, byte[] gzipBody, String etag, String contentType, int[] movieIds,
+                       boolean listing) {
+
+        boolean shows(int movieId) {
+            return Arrays.binarySearch(movieIds, movieId) >= 0;
+        }
+
+        String gzipEtag() {
+            return etag.substring(0, etag.length() - 1) + "-gzip\"";
+        }
+
+        int weight() {
+            return body.length + (gzipBody != null ? gzipBody.length : 0) + 128;
+        }
+    }
+}
@@ -0,0 +1,164 @@
+package id.my.hendisantika.movietrailer.web;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.util.DigestUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.regex.Pattern;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 13.55
+ * To change this template use File | Settings | File Templates.
+ */
+@RequiredArgsConstructor
+public class PageCacheFilter extends OncePerRequestFilter {
+    static final String GENERATION_ATTRIBUTE = PageCacheFilter.class.getName() + ".generation";
+
+    private static final String CACHE_STATUS_HEADER = "X-Page-Cache";
+
+    private static final Pattern MOVIE_DETAILS = Pattern.compile("/movies/\\d{1,9}");
+
+    // Anything else in the query string bypasses the cache instead of minting a new entry per value
+    private static final Set<String> LISTING_PARAMS = Set.of("cursor", "size", "genre", "match", "page", "sort");
+
+    // Browsers keep the page but revalidate on every visit, which the ETag turns into a 304 without a body
+    private static final String CACHE_CONTROL = CacheControl.noCache().getHeaderValue();
+
+    private final PageCache pageCache;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !(HttpMethod.GET.matches(request.getMethod()) || HttpMethod.HEAD.matches(request.getMethod()))
+                || cacheKey(request) == null;
+    }
+
+    /**
+     * Serves the public catalog pages from rendered bytes. On a miss the page is rendered as usual, captured, gzipped
+     * once and stored, so later requests touch neither the database nor the template engine.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        String key = cacheKey(request);
+        PageCache.Page page = pageCache.get(key);
+        if (page != null) {
+            response.setHeader(CACHE_STATUS_HEADER, "HIT");
+            write(page, request, response);
+            return;
+        }
+
+        long generation = pageCache.generation();
+        request.setAttribute(GENERATION_ATTRIBUTE, generation);
+        ContentCachingResponseWrapper wrapper = new ContentCachingResponseWrapper(response);
+        filterChain.doFilter(request, wrapper);
+
+        int[] movieIds = (int[]) request.getAttribute(PageCacheInterceptor.MOVIE_IDS_ATTRIBUTE);
+        if (wrapper.getStatus() != HttpServletResponse.SC_OK || movieIds == null || !isHtml(wrapper.getContentType())
+                || response.containsHeader(HttpHeaders.SET_COOKIE) || response.isCommitted()) {
+            wrapper.copyBodyToResponse();
+            return;
+        }
+
+        byte[] body = wrapper.getContentAsByteArray();
+        page = new PageCache.Page(body, gzip(body), "\"" + DigestUtils.md5DigestAsHex(body) + "\"",
+                wrapper.getContentType(), movieIds, !MOVIE_DETAILS.matcher(key).matches());
+        pageCache.put(key, page, generation);
+        response.setHeader(CACHE_STATUS_HEADER, "MISS");
+        write(page, request, response);
+    }
+
+    private void write(PageCache.Page page, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean gzip = page.gzipBody() != null && AcceptEncoding.acceptsGzip(request);
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL);
+        if (new ServletWebRequest(request, response).checkNotModified(gzip ? page.gzipEtag() : page.etag())) {
+            return;
+        }
+        byte[] body = gzip ? page.gzipBody() : page.body();
+        response.setContentType(page.contentType());
+        if (gzip) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.setContentLength(body.length);
+        if (!HttpMethod.HEAD.matches(request.getMethod())) {
+            response.getOutputStream().write(body);
+        }
+    }
+
+    // Path plus the recognised parameters in a canonical order, or null for requests that are not cacheable.
+    // Messages come from a single bundle, so the pages do not vary by Accept-Language.
+    static String cacheKey(HttpServletRequest request) {
+        String path = request.getRequestURI().substring(request.getContextPath().length());
+        Map<String, String[]> parameters = request.getParameterMap();
+        if (path.equals("/") || MOVIE_DETAILS.matcher(path).matches()) {
+            return parameters.isEmpty() ? path : null;
+        }
+        if (!path.equals("/movies")) {
+            return null;
+        }
+        StringBuilder key = new StringBuilder(path);
+        char separator = '?';
+        for (Map.Entry<String, String[]> parameter : new TreeMap<>(parameters).entrySet()) {
+            if (!LISTING_PARAMS.contains(parameter.getKey())) {
+                return null;
+            }
+            String[] values = parameter.getValue();
+            if (parameter.getKey().equals("genre")) {
+                values = values.clone();
+                Arrays.sort(values);
+            }
+            for (String value : values) {
+                key.append(separator).append(parameter.getKey()).append('=').append(value);
+                separator = '&';
+            }
+        }
+        return key.toString();
+    }
+
+    private static boolean isHtml(String contentType) {
+        try {
+            return contentType != null && MediaType.TEXT_HTML.includes(MediaType.parseMediaType(contentType));
+        } catch (IllegalArgumentException exception) {
+            return false;
+        }
+    }
+
+    // Compressed once per render and served many times, so the slowest level is worth it
+    private static byte[] gzip(byte[] body) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(body.length / 4 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(body);
+        }
+        return buffer.size() < body.length ? buffer.toByteArray() : null;
+    }
+}
@@ -0,0 +1,54 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.entity.Movie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+
+import java.util.Collection;
+import java.util.TreeSet;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 13.50
+ * To change this template use File | Settings | File Templates.
+ */
+// Tells PageCacheFilter which movies ended up on a page, read from the model before the view renders it
+public class PageCacheInterceptor implements HandlerInterceptor {
+    static final String MOVIE_IDS_ATTRIBUTE = PageCacheInterceptor.class.getName() + ".movieIds";
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView == null || request.getAttribute(PageCacheFilter.GENERATION_ATTRIBUTE) == null) {
+            return;
+        }
+        TreeSet<Integer> movieIds = new TreeSet<>();
+        for (Object value : modelAndView.getModel().values()) {
+            if (value instanceof Movie movie) {
+                addId(movieIds, movie);
+            } else if (value instanceof Iterable<?> iterable && !(value instanceof Collection<?> c && c.isEmpty())) {
+                for (Object element : iterable) {
+                    if (!(element instanceof Movie movie)) {
+                        break;
+                    }
+                    addId(movieIds, movie);
+                }
+            }
+        }
+        request.setAttribute(MOVIE_IDS_ATTRIBUTE, movieIds.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private void addId(TreeSet<Integer> movieIds, Movie movie) {
+        if (movie.getId() != null) {
+            movieIds.add(movie.getId());
+        }
+    }
+}
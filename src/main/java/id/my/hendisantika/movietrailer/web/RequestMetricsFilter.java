@@ -0,0 +1,72 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.metrics.QueryBudget;
+import id.my.hendisantika.movietrailer.metrics.RequestStatistics;
+import id.my.hendisantika.movietrailer.metrics.Routes;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.50
+ * To change this template use File | Settings | File Templates.
+ */
+// Publishes per request what RequestStatistics collected, tagged like http.server.requests so the two line up
+@RequiredArgsConstructor
+public class RequestMetricsFilter extends OncePerRequestFilter {
+    private final MeterRegistry meterRegistry;
+
+    private final QueryBudget queryBudget;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        RequestStatistics statistics = RequestStatistics.begin();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            RequestStatistics.end();
+            record(request, statistics);
+        }
+    }
+
+    private void record(HttpServletRequest request, RequestStatistics statistics) {
+        String route = Routes.of(request);
+        Tags tags = Tags.of(Routes.TAG, route, "method", request.getMethod());
+        DistributionSummary.builder("http.server.requests.statements")
+                .description("SQL statements prepared while serving one request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.statements());
+        DistributionSummary.builder("http.server.requests.entities.loaded")
+                .description("Entities Hibernate loaded while serving one request")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(statistics.entitiesLoaded());
+        if (statistics.connections() > 0) {
+            Timer.builder("http.server.requests.connection.wait")
+                    .description("Time one request spent waiting for pooled connections")
+                    .tags(tags)
+                    .register(meterRegistry)
+                    .record(statistics.connectionWaitNanos(), TimeUnit.NANOSECONDS);
+        }
+        queryBudget.checkRequest(route, statistics.statementTally());
+    }
+}
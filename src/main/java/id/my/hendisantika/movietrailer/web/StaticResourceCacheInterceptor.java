@@ -0,0 +1,41 @@
+package id.my.hendisantika.movietrailer.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.resource.ResourceHttpRequestHandler;
+
+import java.util.regex.Pattern;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 19.45
+ * To change this template use File | Settings | File Templates.
+ */
+// A fingerprinted name changes with the content, so it may be cached for good; the plain name, still asked for by
+// bookmarks and old pages, is revalidated. VersionResourceResolver refuses a hash that does not match the content.
+@RequiredArgsConstructor
+public class StaticResourceCacheInterceptor implements HandlerInterceptor {
+    private static final Pattern FINGERPRINTED = Pattern.compile("-[0-9a-f]{32}\\.[^/]+$");
+
+    private final CacheControl fingerprinted;
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof ResourceHttpRequestHandler) {
+            CacheControl cacheControl = FINGERPRINTED.matcher(request.getRequestURI()).find()
+                    ? fingerprinted : CacheControl.noCache().cachePublic();
+            response.setHeader(HttpHeaders.CACHE_CONTROL, cacheControl.getHeaderValue());
+        }
+        return true;
+    }
+}
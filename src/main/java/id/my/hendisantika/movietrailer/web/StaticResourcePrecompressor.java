@@ -0,0 +1,158 @@
+package id.my.hendisantika.movietrailer.web;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.util.StringUtils;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 19.40
+ * To change this template use File | Settings | File Templates.
+ */
+// Copies the static resources out of the jar once per start and writes a .gz next to each compressible one, so
+// EncodedResourceResolver hands out the compressed bytes as they are and no request pays for compression.
+// Each build gets its own directory, named after a hash of its resources: a resource dropped from the build is
+// not left behind to be served, and instances of different builds sharing the location never overwrite each other.
+@Slf4j
+@RequiredArgsConstructor
+public class StaticResourcePrecompressor {
+    private static final String ROOT = "classpath:/static/";
+
+    private static final Set<String> COMPRESSIBLE = Set.of("css", "js", "mjs", "map", "svg", "json", "txt", "xml",
+            "html");
+
+    // Below this the gzip header and a round trip for the encoding outweigh the saving
+    private static final int MIN_SIZE = 256;
+
+    // Enough of the hash to tell builds apart
+    private static final int BUILD_ID_LENGTH = 16;
+
+    private final Path location;
+
+    private Path directory;
+
+    /**
+     * @return the number of resources written, or -1 when the target directory is not writable; the classpath
+     * copies then serve uncompressed
+     */
+    public int precompress() {
+        PathMatchingResourcePatternResolver resolver = new PathMatchingResourcePatternResolver();
+        Path target = location;
+        try {
+            String root = resolver.getResource(ROOT).getURL().toString();
+            Map<String, byte[]> contents = new TreeMap<>();
+            for (Resource resource : resolver.getResources(ROOT + "**")) {
+                String url = resource.getURL().toString();
+                if (!resource.isReadable() || !url.startsWith(root)) {
+                    continue;
+                }
+                try (InputStream inputStream = resource.getInputStream()) {
+                    contents.put(url.substring(root.length()), inputStream.readAllBytes());
+                }
+            }
+            target = location.resolve(buildId(contents));
+            for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+                write(target, entry.getKey(), entry.getValue());
+            }
+            directory = target;
+            log.info("Precompressed {} static resources into {}", contents.size(), target);
+            return contents.size();
+        } catch (IOException exception) {
+            log.warn("Could not precompress static resources into {}, serving them from the classpath", target,
+                    exception);
+            return -1;
+        }
+    }
+
+    /**
+     * Where {@link #precompress()} wrote this build's resources, or {@code null} when it could not.
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    // Paths come sorted, so the same resources always hash the same
+    private static String buildId(Map<String, byte[]> contents) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException exception) {
+            throw new IllegalStateException(exception);
+        }
+        for (Map.Entry<String, byte[]> entry : contents.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(ByteBuffer.allocate(Long.BYTES).putLong(0, entry.getValue().length));
+            digest.update(entry.getValue());
+        }
+        return HexFormat.of().formatHex(digest.digest()).substring(0, BUILD_ID_LENGTH);
+    }
+
+    private static void write(Path target, String path, byte[] content) throws IOException {
+        Path file = target.resolve(path).normalize();
+        Files.createDirectories(file.getParent());
+        replace(file, content);
+
+        Path compressed = file.resolveSibling(file.getFileName() + ".gz");
+        String extension = StringUtils.getFilenameExtension(path);
+        if (content.length < MIN_SIZE || extension == null || !COMPRESSIBLE.contains(extension.toLowerCase())) {
+            Files.deleteIfExists(compressed);
+            return;
+        }
+        byte[] gzipped = gzip(content);
+        if (gzipped.length < content.length) {
+            replace(compressed, gzipped);
+        } else {
+            Files.deleteIfExists(compressed);
+        }
+    }
+
+    // A running instance sharing the directory never sees a half written file
+    private static void replace(Path file, byte[] content) throws IOException {
+        Path temporary = Files.createTempFile(file.getParent(), ".static-", ".tmp");
+        try {
+            Files.write(temporary, content);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+
+    // Compressed once per start, so the slowest level costs nothing per request
+    private static byte[] gzip(byte[] content) throws IOException {
+        ByteArrayOutputStream buffer = new ByteArrayOutputStream(content.length / 2);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content);
+        }
+        return buffer.toByteArray();
+    }
+}
@@ -0,0 +1,72 @@
+package id.my.hendisantika.movietrailer.web;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.support.AbstractMultipartHttpServletRequest;
+
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 10.30
+ * To change this template use File | Settings | File Templates.
+ */
+class StreamedMultipartRequest extends AbstractMultipartHttpServletRequest {
+    // The body has already been consumed, so parameters must never be looked up on the container request
+    private final Map<String, String[]> parameters;
+
+    StreamedMultipartRequest(HttpServletRequest request, MultiValueMap<String, MultipartFile> files,
+                             Map<String, String[]> parameters) {
+        super(request);
+        setMultipartFiles(files);
+        this.parameters = Collections.unmodifiableMap(parameters);
+    }
+
+    @Override
+    public String getParameter(String name) {
+        String[] values = parameters.get(name);
+        return values != null && values.length > 0 ? values[0] : null;
+    }
+
+    @Override
+    public String[] getParameterValues(String name) {
+        return parameters.get(name);
+    }
+
+    @Override
+    public Enumeration<String> getParameterNames() {
+        return Collections.enumeration(parameters.keySet());
+    }
+
+    @Override
+    public Map<String, String[]> getParameterMap() {
+        return parameters;
+    }
+
+    @Override
+    public String getMultipartContentType(String paramOrFileName) {
+        MultipartFile file = getFile(paramOrFileName);
+        return file != null ? file.getContentType() : null;
+    }
+
+    @Override
+    public HttpHeaders getMultipartHeaders(String paramOrFileName) {
+        String contentType = getMultipartContentType(paramOrFileName);
+        if (contentType == null) {
+            return null;
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.CONTENT_TYPE, contentType);
+        return headers;
+    }
+}
@@ -0,0 +1,132 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.exception.InvalidFileException;
+import id.my.hendisantika.movietrailer.exception.WarehouseException;
+import id.my.hendisantika.movietrailer.service.StoredMultipartFile;
+import id.my.hendisantika.movietrailer.service.WarehouseService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.fileupload2.core.DiskFileItem;
+import org.apache.commons.fileupload2.core.DiskFileItemFactory;
+import org.apache.commons.fileupload2.core.FileItemInput;
+import org.apache.commons.fileupload2.core.FileItemInputIterator;
+import org.apache.commons.fileupload2.core.FileUploadException;
+import org.apache.commons.fileupload2.core.FileUploadFileCountLimitException;
+import org.apache.commons.fileupload2.core.FileUploadSizeException;
+import org.apache.commons.fileupload2.jakarta.servlet6.JakartaServletFileUpload;
+import org.springframework.http.HttpMethod;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 10.40
+ * To change this template use File | Settings | File Templates.
+ */
+@Slf4j
+@RequiredArgsConstructor
+public class StreamingUploadFilter extends OncePerRequestFilter {
+    // Form fields of the movie form are short strings, anything bigger is not a legitimate submission
+    private static final int MAX_FIELD_SIZE = 64 * 1024;
+
+    private static final int MAX_PARTS = 64;
+
+    private final WarehouseService warehouseService;
+
+    private final long maxFileSize;
+
+    private final long maxRequestSize;
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || !JakartaServletFileUpload.isMultipartContent(request);
+    }
+
+    /**
+     * Parses the multipart body part by part, handing file parts straight to the warehouse while they arrive and
+     * keeping only the small form fields in memory. Downstream, the controller binds against the already stored
+     * files as if Spring had resolved the multipart request itself.
+     */
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+            throws ServletException, IOException {
+        Charset charset = request.getCharacterEncoding() != null
+                ? Charset.forName(request.getCharacterEncoding()) : StandardCharsets.UTF_8;
+        JakartaServletFileUpload<DiskFileItem, DiskFileItemFactory> upload = new JakartaServletFileUpload<>();
+        upload.setSizeMax(maxRequestSize);
+        upload.setFileSizeMax(maxFileSize);
+        upload.setHeaderCharset(charset);
+
+        MultiValueMap<String, String> fields = new LinkedMultiValueMap<>();
+        MultiValueMap<String, MultipartFile> files = new LinkedMultiValueMap<>();
+        try {
+            FileItemInputIterator items = upload.getItemIterator(request);
+            // fileCountMax only applies to parseRequest, the item iterator has to count the parts itself
+            int parts = 0;
+            while (items.hasNext()) {
+                FileItemInput item = items.next();
+                if (++parts > MAX_PARTS) {
+                    throw new FileUploadFileCountLimitException("More than " + MAX_PARTS + " parts", MAX_PARTS, parts);
+                }
+                try (InputStream body = item.getInputStream()) {
+                    if (item.isFormField()) {
+                        fields.add(item.getFieldName(), readField(body, charset));
+                    } else if (!StringUtils.hasLength(item.getName())) {
+                        body.transferTo(OutputStream.nullOutputStream());
+                        files.add(item.getFieldName(), StoredMultipartFile.empty(item.getFieldName()));
+                    } else {
+                        String storedName = warehouseService.storeStream(body, item.getName());
+                        files.add(item.getFieldName(), new StoredMultipartFile(item.getFieldName(), item.getName(),
+                                item.getContentType(), storedName, warehouseService.fileUpload(storedName)));
+                    }
+                }
+            }
+        } catch (FileUploadSizeException exception) {
+            log.debug("Rejected upload to {}: {}", request.getRequestURI(), exception.getMessage());
+            response.sendError(HttpServletResponse.SC_REQUEST_ENTITY_TOO_LARGE);
+            return;
+        } catch (InvalidFileException exception) {
+            log.debug("Rejected upload to {}: {}", request.getRequestURI(), exception.getMessage());
+            response.sendError(HttpServletResponse.SC_UNSUPPORTED_MEDIA_TYPE);
+            return;
+        } catch (WarehouseException | FileUploadException exception) {
+            log.debug("Malformed upload to {}: {}", request.getRequestURI(), exception.getMessage());
+            response.sendError(HttpServletResponse.SC_BAD_REQUEST);
+            return;
+        }
+
+        Map<String, String[]> parameters = new LinkedHashMap<>();
+        fields.forEach((name, values) -> parameters.put(name, values.toArray(String[]::new)));
+        filterChain.doFilter(new StreamedMultipartRequest(request, files, parameters), response);
+    }
+
+    private static String readField(InputStream body, Charset charset) throws IOException {
+        byte[] value = body.readNBytes(MAX_FIELD_SIZE + 1);
+        if (value.length > MAX_FIELD_SIZE) {
+            throw new FileUploadSizeException("Form field exceeds " + MAX_FIELD_SIZE + " bytes", MAX_FIELD_SIZE,
+                    value.length);
+        }
+        return new String(value, charset);
+    }
+}
@@ -0,0 +1,61 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.metrics.Routes;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.servlet.HandlerInterceptor;
+import org.springframework.web.servlet.ModelAndView;
+import org.springframework.web.servlet.view.UrlBasedViewResolver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Created by IntelliJ IDEA.
+ * Project : movie-trailer
+ * User: hendisantika
+ * Link: s.id/hendisantika
+ * Email: hendisantika@yahoo.co.id
+ * Telegram : @hendisantika34
+ * Date: 17/10/26
+ * Time: 15.55
+ * To change this template use File | Settings | File Templates.
+ */
+// postHandle runs right before the view renders and afterCompletion right after, so the gap is the template's time
+@RequiredArgsConstructor
+public class ViewRenderMetricsInterceptor implements HandlerInterceptor {
+    private static final String STARTED_ATTRIBUTE = ViewRenderMetricsInterceptor.class.getName() + ".started";
+
+    private static final String VIEW_ATTRIBUTE = ViewRenderMetricsInterceptor.class.getName() + ".view";
+
+    private final MeterRegistry meterRegistry;
+
+    @Override
+    public void postHandle(HttpServletRequest request, HttpServletResponse response, Object handler,
+                           ModelAndView modelAndView) {
+        if (modelAndView == null || modelAndView.getViewName() == null
+                || modelAndView.getViewName().startsWith(UrlBasedViewResolver.REDIRECT_URL_PREFIX)) {
+            return;
+        }
+        request.setAttribute(VIEW_ATTRIBUTE, modelAndView.getViewName());
+        request.setAttribute(STARTED_ATTRIBUTE, System.nanoTime());
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception exception) {
+        Object started = request.getAttribute(STARTED_ATTRIBUTE);
+        if (started == null) {
+            return;
+        }
+        Timer.builder("view.render")
+                .description("Time spent rendering a view template")
+                .tag("view", (String) request.getAttribute(VIEW_ATTRIBUTE))
+                .tag(Routes.TAG, Routes.of(request))
+                .tag("outcome", exception == null ? "SUCCESS" : "ERROR")
+                .register(meterRegistry)
+                .record(System.nanoTime() - (long) started, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,13 @@
+-- Flyway Migration: Catalog revision
+-- Description: A single row that every transaction changing movies or genres bumps before it commits, whichever
+--              instance or process runs it. The JSON API derives its ETag from it, so a revalidating client sees
+--              a write as soon as it is committed and not only after the instance that served it hears of it.
+-- Date: 17/10/2026
+
+CREATE TABLE IF NOT EXISTS catalog_revision (
+    id INTEGER NOT NULL,
+    revision BIGINT NOT NULL DEFAULT 0,
+    CONSTRAINT pk_catalog_revision PRIMARY KEY (id)
+);
+
+INSERT INTO catalog_revision (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
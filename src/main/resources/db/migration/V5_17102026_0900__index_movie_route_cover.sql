@@ -0,0 +1,9 @@
+-- Flyway Migration: Index movie.route_cover
+-- Description: Covers are stored under the SHA-256 of their content and can be shared by several movies.
+--              WarehouseService.deleteArchive counts the movies pointing at a cover before removing the blob,
+--              so that lookup must not scan the movie table.
+-- Date: 17/10/2026
+
+CREATE INDEX IF NOT EXISTS idx_movie_route_cover ON movie(route_cover);
+
+COMMENT ON COLUMN movie.route_cover IS 'Content-addressed cover file name (sha256.ext), legacy file name, or external URL';
@@ -0,0 +1,9 @@
+-- Flyway Migration: Composite indexes for keyset pagination
+-- Description: The /movies and /admin listings seek on (premiere_date, id) and (title, id) row values instead of
+--              using OFFSET. With the id as a tie-breaker inside the index every window is a single bounded range
+--              scan, in either direction, however deep it is.
+-- Date: 17/10/2026
+
+CREATE INDEX IF NOT EXISTS idx_movie_premiere_date_id ON movie(premiere_date DESC, id DESC);
+
+CREATE INDEX IF NOT EXISTS idx_movie_title_id ON movie(title, id);
@@ -0,0 +1,16 @@
+-- Flyway Migration: Full-text search over movie title and sinopsis
+-- Description: Adds a stored generated tsvector that PostgreSQL keeps in sync on every insert and update, with
+--              title terms weighted above sinopsis terms for ranking, and a GIN index to match queries against it.
+--              Used by the native search queries in MovieRepository; the column is not mapped on the entity.
+-- Date: 17/10/2026
+
+ALTER TABLE movie
+    ADD COLUMN IF NOT EXISTS search_vector tsvector
+        GENERATED ALWAYS AS (
+            setweight(to_tsvector('english', coalesce(title, '')), 'A') ||
+            setweight(to_tsvector('english', coalesce(sinopsis, '')), 'B')
+        ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_movie_search_vector ON movie USING GIN (search_vector);
+
+COMMENT ON COLUMN movie.search_vector IS 'Weighted English tsvector of title (A) and sinopsis (B), generated';
@@ -0,0 +1,49 @@
+-- Flyway Migration: Pooled movie ids and bulk import bookkeeping
+-- Description: movie.id moves from an identity column to a sequence stepping by 50. Hibernate's pooled optimizer
+--              hands out a block of 50 ids per call, so inserts no longer need one round trip each to read their
+--              key back and can be sent as JDBC batches. The column default keeps plain SQL inserts working.
+--              movie_import keeps each import's counters and the checkpoint it can be resumed from;
+--              movie_import_error keeps the rows it rejected and why.
+-- Date: 17/10/2026
+
+-- The identity's own sequence is also named movie_id_seq, so it has to go before ours can be created
+ALTER TABLE movie ALTER COLUMN id DROP IDENTITY IF EXISTS;
+
+CREATE SEQUENCE IF NOT EXISTS movie_id_seq INCREMENT BY 50;
+
+-- The first block handed out starts right after the current ids
+SELECT setval('movie_id_seq', COALESCE((SELECT MAX(id) FROM movie), 0) + 50, false);
+
+ALTER TABLE movie ALTER COLUMN id SET DEFAULT nextval('movie_id_seq');
+ALTER SEQUENCE movie_id_seq OWNED BY movie.id;
+
+CREATE TABLE IF NOT EXISTS movie_import (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    source VARCHAR(255) NOT NULL,
+    format VARCHAR(16) NOT NULL,
+    status VARCHAR(16) NOT NULL,
+    checkpoint_record BIGINT NOT NULL DEFAULT 0,
+    checkpoint_digest VARCHAR(64),
+    imported BIGINT NOT NULL DEFAULT 0,
+    rejected BIGINT NOT NULL DEFAULT 0,
+    message VARCHAR(1000),
+    started_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    updated_at TIMESTAMP WITH TIME ZONE NOT NULL,
+    finished_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT pk_movie_import PRIMARY KEY (id)
+);
+
+CREATE TABLE IF NOT EXISTS movie_import_error (
+    id BIGINT GENERATED BY DEFAULT AS IDENTITY,
+    import_id BIGINT NOT NULL,
+    record_number BIGINT NOT NULL,
+    message VARCHAR(1000) NOT NULL,
+    content VARCHAR(1000),
+    CONSTRAINT pk_movie_import_error PRIMARY KEY (id),
+    CONSTRAINT fk_movie_import_error_import FOREIGN KEY (import_id) REFERENCES movie_import(id) ON DELETE CASCADE
+);
+
+CREATE INDEX IF NOT EXISTS idx_movie_import_error_import_record ON movie_import_error(import_id, record_number);
+
+COMMENT ON COLUMN movie_import.checkpoint_record IS 'Input records consumed by the last committed chunk';
+COMMENT ON COLUMN movie_import.checkpoint_digest IS 'SHA-256 of those records, to check a resumed input matches';
@@ -0,0 +1,24 @@
+-- Flyway Migration: Storage reconciler checkpoint
+-- Description: StorageReconciler walks the cover store one shard at a time (the 256 two-hex-digit directories, then
+--              the legacy files in the root) and compares it with movie.route_cover. This single row records the
+--              next shard and the counts of the cycle in progress; it is locked for each shard, so only one
+--              instance reconciles at a time and a restart resumes where the last committed shard left off.
+-- Date: 17/10/2026
+
+CREATE TABLE IF NOT EXISTS storage_reconcile (
+    id INTEGER NOT NULL,
+    next_shard INTEGER NOT NULL DEFAULT 0,
+    cycle BIGINT NOT NULL DEFAULT 0,
+    quarantined BIGINT NOT NULL DEFAULT 0,
+    reclaimed BIGINT NOT NULL DEFAULT 0,
+    restored BIGINT NOT NULL DEFAULT 0,
+    missing BIGINT NOT NULL DEFAULT 0,
+    cycle_started_at TIMESTAMP WITH TIME ZONE,
+    updated_at TIMESTAMP WITH TIME ZONE,
+    CONSTRAINT pk_storage_reconcile PRIMARY KEY (id)
+);
+
+INSERT INTO storage_reconcile (id) VALUES (1) ON CONFLICT (id) DO NOTHING;
+
+COMMENT ON COLUMN storage_reconcile.next_shard IS '0-255 for the directories 00-ff, 256 for the legacy files in the root';
+COMMENT ON COLUMN storage_reconcile.missing IS 'Referenced covers found neither in the store nor in quarantine this cycle';
@@ -0,0 +1,116 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Concurrent cover fetch benchmark for the /assets endpoint.
+ * Reports p50/p95/p99 latency for full, conditional and ranged requests together with how many body bytes
+ * went out through sendfile versus being copied through the JVM.
+ * Run with: mvn test -Pbenchmark -Dtest=AssetDeliveryBenchmarkTest
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class AssetDeliveryBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 32);
+    private static final int REQUESTS_PER_WORKER = Integer.getInteger("benchmark.requests", 200);
+    private static final int COVER_SIZE = 256 * 1024;
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Value("${storage.location}")
+    private String storageLocation;
+
+    private final List<Path> covers = new ArrayList<>();
+
+    @BeforeEach
+    void writeCovers() throws IOException {
+        Path directory = Files.createDirectories(Paths.get(storageLocation));
+        Random random = new Random(42);
+        for (int i = 0; i < 16; i++) {
+            byte[] content = new byte[COVER_SIZE];
+            random.nextBytes(content);
+            covers.add(Files.write(directory.resolve("benchmark-cover-" + i + ".jpg"), content));
+        }
+    }
+
+    @AfterEach
+    void deleteCovers() throws IOException {
+        for (Path cover : covers) {
+            Files.deleteIfExists(cover);
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve covers concurrently with conditional and ranged requests")
+    void concurrentCoverFetches() throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        List<String> etags = new ArrayList<>();
+        for (Path cover : covers) {
+            HttpResponse<Void> response = client.send(request(cover).build(), HttpResponse.BodyHandlers.discarding());
+            etags.add(response.headers().firstValue("ETag").orElseThrow());
+        }
+
+        double sendfileBefore = deliveredBytes("sendfile");
+        double copiedBefore = deliveredBytes("copy");
+        LatencyReport full = HttpLoad.run(client, CONCURRENCY, REQUESTS_PER_WORKER,
+                i -> request(covers.get(i % covers.size())).build());
+        LatencyReport revalidated = HttpLoad.run(client, CONCURRENCY, REQUESTS_PER_WORKER,
+                i -> request(covers.get(i % covers.size()))
+                        .header("If-None-Match", etags.get(i % covers.size())).build());
+        LatencyReport ranged = HttpLoad.run(client, CONCURRENCY, REQUESTS_PER_WORKER,
+                i -> request(covers.get(i % covers.size())).header("Range", "bytes=0-65535").build());
+
+        log.info(full.format("GET /assets (full)"));
+        log.info(revalidated.format("GET /assets (If-None-Match)"));
+        log.info(ranged.format("GET /assets (Range)"));
+        log.info("bytes via sendfile={} bytes copied through the JVM={}",
+                "%,.0f".formatted(deliveredBytes("sendfile") - sendfileBefore),
+                "%,.0f".formatted(deliveredBytes("copy") - copiedBefore));
+
+        assertThat(full.errors()).isZero();
+        assertThat(full.bytes()).isEqualTo((long) CONCURRENCY * REQUESTS_PER_WORKER * COVER_SIZE);
+        assertThat(revalidated.errors()).isZero();
+        assertThat(revalidated.bytes()).isZero();
+        assertThat(ranged.errors()).isZero();
+        assertThat(ranged.bytes()).isEqualTo((long) CONCURRENCY * REQUESTS_PER_WORKER * 65536);
+    }
+
+    private HttpRequest.Builder request(Path cover) {
+        return HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/assets/" + cover.getFileName()));
+    }
+
+    private double deliveredBytes(String transfer) {
+        return meterRegistry.get("assets.delivered.bytes").tag("transfer", transfer).counter().count();
+    }
+}
@@ -0,0 +1,212 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.service.GenreIndex;
+import id.my.hendisantika.movietrailer.service.MovieCatalogService;
+import id.my.hendisantika.movietrailer.service.MovieSort;
+import id.my.hendisantika.movietrailer.service.MovieWindow;
+import id.my.hendisantika.movietrailer.service.TitleSuggestIndex;
+import id.my.hendisantika.movietrailer.service.WarehouseService;
+import id.my.hendisantika.movietrailer.web.PageCache;
+import jakarta.persistence.EntityManagerFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.assertj.core.api.SoftAssertions;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.cache.CacheManager;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * End-to-end load and latency regression suite for the public routes.
+ * Seeds a catalog with real covers, replays a weighted mix of home, listing, detail and cover requests from many
+ * concurrent clients, logs throughput and p50/p95/p99 per route and fails when a route's p99 exceeds its budget.
+ * Run with: mvn test -Pload, and tune with -Dload.catalog, -Dload.concurrency, -Dload.requests and
+ * -Dload.p99-millis.&lt;route&gt;
+ */
+@Slf4j
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.jpa.show-sql=false",
+        "logging.level.org.springframework.web=INFO",
+        "logging.level.org.hibernate.SQL=INFO",
+        "logging.level.id.my.hendisantika.movietrailer=INFO"
+})
+class CatalogLoadTest extends AbstractIntegrationTest {
+
+    private static final int CATALOG_SIZE = Integer.getInteger("load.catalog", 2_000);
+    private static final int COVERS = Integer.getInteger("load.covers", 64);
+    private static final int CONCURRENCY = Integer.getInteger("load.concurrency", 64);
+    private static final int REQUESTS_PER_WORKER = Integer.getInteger("load.requests", 200);
+
+    // Route, share of the traffic in percent and default p99 budget in milliseconds
+    private static final List<Route> ROUTES = List.of(
+            new Route("home", 20, 50),
+            new Route("movies", 25, 100),
+            new Route("movie", 40, 50),
+            new Route("asset", 15, 50));
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    @Autowired
+    private GenreIndex genreIndex;
+
+    @Autowired
+    private TitleSuggestIndex titleSuggestIndex;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ObjectProvider<PageCache> pageCache;
+
+    private final List<String> covers = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() throws IOException {
+        jdbcTemplate.update("delete from genre_movie");
+        jdbcTemplate.update("delete from movie");
+        Random random = new Random(42);
+        for (int i = 0; i < COVERS; i++) {
+            byte[] cover = new byte[32 * 1024 + random.nextInt(96 * 1024)];
+            random.nextBytes(cover);
+            cover[0] = (byte) 0xFF;
+            cover[1] = (byte) 0xD8;
+            cover[2] = (byte) 0xFF;
+            covers.add(warehouseService.storeStream(new ByteArrayInputStream(cover), "cover.jpg"));
+        }
+
+        List<Object[]> rows = new ArrayList<>(1_000);
+        LocalDate epoch = LocalDate.of(1950, 1, 1);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{"Movie " + i, "Synopsis of movie " + i,
+                    Date.valueOf(epoch.plusDays(random.nextInt(27_000))), "trailer" + i,
+                    covers.get(random.nextInt(covers.size()))});
+            if (rows.size() == 1_000 || i == CATALOG_SIZE - 1) {
+                jdbcTemplate.batchUpdate("insert into movie (title, sinopsis, premiere_date, youtube_trailer_id,"
+                        + " route_cover) values (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.update("insert into genre_movie (movie_id, id_genre) select id, 1 + id % 5 from movie");
+        jdbcTemplate.execute("analyze");
+        // The rows changed behind every cache layer's back, so each one is rebuilt or emptied
+        genreIndex.build();
+        titleSuggestIndex.build();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+        pageCache.ifAvailable(PageCache::clear);
+    }
+
+    @Test
+    @DisplayName("Should keep every public route within its p99 budget under a mixed load")
+    void routeMixWithinBudget() throws Exception {
+        List<Integer> ids = jdbcTemplate.queryForList("select id from movie order by id", Integer.class);
+        List<String> listings = listingPaths();
+        Random random = new Random(7);
+        int size = 4_096;
+        String[] routeOf = new String[size];
+        URI[] uris = new URI[size];
+        for (int i = 0; i < size; i++) {
+            Route route = pick(random);
+            routeOf[i] = route.name();
+            uris[i] = uri(switch (route.name()) {
+                case "home" -> "/";
+                case "movies" -> listings.get(random.nextInt(listings.size()));
+                // A few titles draw most of the traffic, the rest form a long tail
+                case "movie" -> "/movies/" + ids.get(skewed(random, ids.size()));
+                default -> "/assets/" + covers.get(skewed(random, covers.size()));
+            });
+        }
+
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        HttpLoad.run(client, 8, 100, i -> HttpRequest.newBuilder(uris[i % size]).build());
+        Map<String, LatencyReport> reports = HttpLoad.runMix(client, CONCURRENCY, REQUESTS_PER_WORKER,
+                i -> HttpRequest.newBuilder(uris[i % size]).build(), i -> routeOf[i % size]);
+
+        SoftAssertions softly = new SoftAssertions();
+        for (Route route : ROUTES) {
+            LatencyReport report = reports.get(route.name());
+            log.info(report.format(route.name()));
+            Duration budget = Duration.ofMillis(Long.getLong("load.p99-millis." + route.name(), route.p99Millis()));
+            softly.assertThat(report.errors()).as("errors on %s", route.name()).isZero();
+            softly.assertThat(report.p99()).as("p99 of %s", route.name()).isLessThanOrEqualTo(budget);
+        }
+        softly.assertAll();
+    }
+
+    // First pages with and without a genre, the legacy numbered pages and windows reached by following cursors
+    private List<String> listingPaths() {
+        List<String> paths = new ArrayList<>(List.of("/movies", "/movies?page=1", "/movies?page=5"));
+        for (int genre = 1; genre <= 5; genre++) {
+            paths.add("/movies?genre=" + genre);
+        }
+        String cursor = null;
+        for (int i = 0; i < 10; i++) {
+            MovieWindow<Movie> window = movieCatalogService.findWindow(MovieSort.PREMIERE_DATE, cursor, 20);
+            if (window.next() == null) {
+                break;
+            }
+            cursor = window.next();
+            paths.add("/movies?cursor=" + cursor);
+        }
+        return paths;
+    }
+
+    private static Route pick(Random random) {
+        int roll = random.nextInt(100);
+        for (Route route : ROUTES) {
+            roll -= route.share();
+            if (roll < 0) {
+                return route;
+            }
+        }
+        return ROUTES.getLast();
+    }
+
+    // Roughly Zipf shaped: squaring a uniform draw piles the picks onto the lowest indexes
+    private static int skewed(Random random, int bound) {
+        double draw = random.nextDouble();
+        return (int) (draw * draw * bound);
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+
+    private record Route(String name, int share, long p99Millis) {
+    }
+}
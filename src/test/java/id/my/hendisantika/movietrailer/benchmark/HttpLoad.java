@@ -0,0 +1,114 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import java.io.IOException;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntFunction;
+
+/**
+ * Closed-loop HTTP load driver shared by the benchmark suites.
+ * Every worker sends its requests back to back and records the latency of each exchange;
+ * responses with a status of 400 or above count as errors.
+ */
+public final class HttpLoad {
+
+    private HttpLoad() {
+    }
+
+    public static LatencyReport run(HttpClient client, int concurrency, int requestsPerWorker,
+                                    IntFunction<HttpRequest> requests) throws InterruptedException {
+        return runMix(client, concurrency, requestsPerWorker, requests, i -> "all").get("all");
+    }
+
+    /**
+     * Runs a mixed workload and reports each route on its own. {@code routeOf} names the route of the request
+     * with the same index; every report shares the elapsed time of the whole run, so its throughput is that
+     * route's share of the mix.
+     */
+    public static Map<String, LatencyReport> runMix(HttpClient client, int concurrency, int requestsPerWorker,
+                                                    IntFunction<HttpRequest> requests, IntFunction<String> routeOf)
+            throws InterruptedException {
+        int total = concurrency * requestsPerWorker;
+        long[] samples = new long[total];
+        boolean[] failed = new boolean[total];
+        long[] bytes = new long[total];
+        AtomicInteger sequence = new AtomicInteger();
+        CountDownLatch ready = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(concurrency);
+
+        Duration elapsed;
+        try (ExecutorService executor = Executors.newFixedThreadPool(concurrency)) {
+            for (int worker = 0; worker < concurrency; worker++) {
+                executor.execute(() -> {
+                    try {
+                        ready.await();
+                        for (int i = 0; i < requestsPerWorker; i++) {
+                            int index = sequence.getAndIncrement();
+                            HttpRequest request = requests.apply(index);
+                            long started = System.nanoTime();
+                            try {
+                                HttpResponse<byte[]> response = client.send(request, HttpResponse.BodyHandlers.ofByteArray());
+                                samples[index] = System.nanoTime() - started;
+                                bytes[index] = response.body().length;
+                                failed[index] = response.statusCode() >= 400;
+                            } catch (IOException exception) {
+                                samples[index] = System.nanoTime() - started;
+                                failed[index] = true;
+                            }
+                        }
+                    } catch (InterruptedException exception) {
+                        Thread.currentThread().interrupt();
+                    } finally {
+                        done.countDown();
+                    }
+                });
+            }
+            long started = System.nanoTime();
+            ready.countDown();
+            done.await();
+            elapsed = Duration.ofNanos(System.nanoTime() - started);
+        }
+
+        Map<String, Route> routes = new LinkedHashMap<>();
+        for (int index = 0; index < total; index++) {
+            routes.computeIfAbsent(routeOf.apply(index), name -> new Route(total)).add(samples[index], failed[index],
+                    bytes[index]);
+        }
+        Map<String, LatencyReport> reports = new LinkedHashMap<>();
+        routes.forEach((name, route) -> reports.put(name, route.report(elapsed)));
+        return reports;
+    }
+
+    private static final class Route {
+        private final long[] samples;
+
+        private int count;
+
+        private int errors;
+
+        private long bytes;
+
+        Route(int capacity) {
+            this.samples = new long[capacity];
+        }
+
+        void add(long sample, boolean failed, long length) {
+            samples[count++] = sample;
+            errors += failed ? 1 : 0;
+            bytes += length;
+        }
+
+        LatencyReport report(Duration elapsed) {
+            return LatencyReport.of(Arrays.copyOf(samples, count), errors, bytes, elapsed);
+        }
+    }
+}
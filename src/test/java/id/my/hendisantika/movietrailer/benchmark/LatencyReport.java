@@ -0,0 +1,42 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import java.time.Duration;
+import java.util.Arrays;
+
+/**
+ * Latency distribution and throughput of one benchmark run.
+ * Percentiles are taken with the nearest-rank method over every recorded sample.
+ */
+public record LatencyReport(int requests, int errors, long bytes, Duration elapsed,
+                            long p50Nanos, long p95Nanos, long p99Nanos, long maxNanos) {
+
+    public static LatencyReport of(long[] samples, int errors, long bytes, Duration elapsed) {
+        long[] sorted = samples.clone();
+        Arrays.sort(sorted);
+        return new LatencyReport(sorted.length, errors, bytes, elapsed,
+                percentile(sorted, 50), percentile(sorted, 95), percentile(sorted, 99),
+                sorted.length == 0 ? 0 : sorted[sorted.length - 1]);
+    }
+
+    private static long percentile(long[] sorted, int percentile) {
+        if (sorted.length == 0) {
+            return 0;
+        }
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.length);
+        return sorted[Math.max(0, rank - 1)];
+    }
+
+    public double throughput() {
+        return requests / Math.max(elapsed.toNanos() / 1e9, 1e-9);
+    }
+
+    public Duration p99() {
+        return Duration.ofNanos(p99Nanos);
+    }
+
+    public String format(String name) {
+        return String.format("%-28s %7d req %5d err %9.1f req/s  p50=%7.2fms p95=%7.2fms p99=%7.2fms max=%7.2fms %,d bytes",
+                name, requests, errors, throughput(), p50Nanos / 1e6, p95Nanos / 1e6, p99Nanos / 1e6,
+                maxNanos / 1e6, bytes);
+    }
+}
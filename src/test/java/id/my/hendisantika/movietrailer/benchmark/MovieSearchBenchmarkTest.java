@@ -0,0 +1,161 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.service.MovieSearchResults;
+import id.my.hendisantika.movietrailer.service.MovieSearchService;
+import lombok.extern.slf4j.Slf4j;
+import org.flywaydb.core.Flyway;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Date;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Full-text search benchmark over a large synthetic catalog.
+ * Runs the real Flyway migrations in a dedicated schema so the generated search_vector column and its GIN index
+ * exist, then reports p50/p95/p99 latency of ranked, highlighted first and follow-up windows.
+ * Run with: mvn test -Pbenchmark -Dtest=MovieSearchBenchmarkTest
+ */
+@Slf4j
+@Tag("benchmark")
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=search_benchmark",
+        "spring.flyway.default-schema=search_benchmark",
+        "spring.flyway.clean-disabled=false",
+        "spring.datasource.hikari.schema=search_benchmark",
+        "spring.jpa.hibernate.ddl-auto=none",
+        "spring.jpa.show-sql=false"
+})
+class MovieSearchBenchmarkTest extends AbstractIntegrationTest {
+
+    private static final int CATALOG_SIZE = Integer.getInteger("benchmark.catalog", 200_000);
+    private static final int QUERIES = Integer.getInteger("benchmark.queries", 2_000);
+    private static final long P95_BUDGET_MILLIS = Long.getLong("benchmark.search.p95-millis", 10);
+    private static final int VOCABULARY_SIZE = 4_000;
+
+    @Autowired
+    private MovieSearchService movieSearchService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private final List<String> vocabulary = new ArrayList<>();
+
+    @BeforeEach
+    void seedCatalog() {
+        Random random = new Random(42);
+        for (int i = 0; i < VOCABULARY_SIZE; i++) {
+            vocabulary.add(word(random));
+        }
+        List<Object[]> rows = new ArrayList<>(1_000);
+        LocalDate epoch = LocalDate.of(1950, 1, 1);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{sentence(random, 3), sentence(random, 25),
+                    Date.valueOf(epoch.plusDays(random.nextInt(27_000))), "trailer" + i, "cover" + i + ".jpg"});
+            if (rows.size() == 1_000) {
+                insert(rows);
+            }
+        }
+        insert(rows);
+        jdbcTemplate.execute("analyze movie");
+    }
+
+    @Test
+    @DisplayName("Should answer ranked searches over a large catalog within budget")
+    void rankedSearches() {
+        Random random = new Random(7);
+        // Warm up plans and the buffer cache
+        for (int i = 0; i < 200; i++) {
+            movieSearchService.search(query(random), null, 20);
+        }
+
+        long[] firstWindows = new long[QUERIES];
+        long[] nextWindows = new long[QUERIES];
+        int followed = 0;
+        long started = System.nanoTime();
+        for (int i = 0; i < QUERIES; i++) {
+            String query = query(random);
+            long begin = System.nanoTime();
+            MovieSearchResults results = movieSearchService.search(query, null, 20);
+            firstWindows[i] = System.nanoTime() - begin;
+            if (results.next() != null) {
+                begin = System.nanoTime();
+                movieSearchService.search(query, results.next(), 20);
+                nextWindows[followed++] = System.nanoTime() - begin;
+            }
+        }
+        Duration elapsed = Duration.ofNanos(System.nanoTime() - started);
+
+        LatencyReport first = LatencyReport.of(firstWindows, 0, 0, elapsed);
+        LatencyReport next = LatencyReport.of(Arrays.copyOf(nextWindows, followed), 0, 0, elapsed);
+        log.info(first.format("search (first window)"));
+        log.info(next.format("search (next window)"));
+
+        assertThat(followed).isPositive();
+        assertThat(Duration.ofNanos(first.p95Nanos())).isLessThan(Duration.ofMillis(P95_BUDGET_MILLIS));
+        assertThat(Duration.ofNanos(next.p95Nanos())).isLessThan(Duration.ofMillis(P95_BUDGET_MILLIS));
+    }
+
+    private void insert(List<Object[]> rows) {
+        jdbcTemplate.batchUpdate("insert into movie (title, sinopsis, premiere_date, youtube_trailer_id, route_cover)"
+                + " values (?, ?, ?, ?, ?)", rows);
+        rows.clear();
+    }
+
+    private String query(Random random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> vocabulary.get(random.nextInt(VOCABULARY_SIZE));
+            case 1 -> vocabulary.get(random.nextInt(VOCABULARY_SIZE)) + " " + vocabulary.get(random.nextInt(VOCABULARY_SIZE));
+            default -> vocabulary.get(random.nextInt(VOCABULARY_SIZE)) + " or " + vocabulary.get(random.nextInt(VOCABULARY_SIZE));
+        };
+    }
+
+    private String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder();
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(vocabulary.get(random.nextInt(VOCABULARY_SIZE)));
+        }
+        return sentence.toString();
+    }
+
+    private static String word(Random random) {
+        int length = 4 + random.nextInt(6);
+        StringBuilder word = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            word.append((char) ('a' + random.nextInt(26)));
+        }
+        return word.toString();
+    }
+
+    @TestConfiguration
+    static class CleanSchema {
+        // The schema is dedicated to this benchmark, so start from scratch on every run
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return (Flyway flyway) -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,23 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Route mix served by Tomcat's platform thread pool.
+ * Run both modes with: mvn test -Pbenchmark -Dtest='*ThreadBenchmarkTest'
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=false",
+        "spring.cache.type=none",
+        "page-cache.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+class PlatformThreadBenchmarkTest extends ThreadModeBenchmark {
+
+    @Override
+    String mode() {
+        return "platform";
+    }
+}
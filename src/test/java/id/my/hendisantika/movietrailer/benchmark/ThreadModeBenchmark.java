@@ -0,0 +1,123 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.service.GenreIndex;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Shared workload for comparing request execution on platform and on virtual threads.
+ * Caches are switched off so every request reaches the database, and the client runs more concurrent
+ * connections than Tomcat has platform threads. Once both modes have run, their throughput is logged side by side.
+ */
+@Slf4j
+abstract class ThreadModeBenchmark extends AbstractIntegrationTest {
+
+    private static final int CATALOG_SIZE = Integer.getInteger("benchmark.catalog", 5_000);
+    private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 400);
+    private static final int REQUESTS_PER_WORKER = Integer.getInteger("benchmark.requests", 50);
+
+    private static final Map<String, LatencyReport> RESULTS = new ConcurrentHashMap<>();
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private GenreIndex genreIndex;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    abstract String mode();
+
+    @BeforeEach
+    void seedCatalog() {
+        jdbcTemplate.update("delete from genre_movie");
+        jdbcTemplate.update("delete from movie");
+        Random random = new Random(42);
+        LocalDate epoch = LocalDate.of(1950, 1, 1);
+        List<Object[]> rows = new ArrayList<>(1_000);
+        for (int i = 0; i < CATALOG_SIZE; i++) {
+            rows.add(new Object[]{"Movie " + i, "Synopsis of movie " + i,
+                    Date.valueOf(epoch.plusDays(random.nextInt(27_000))), "trailer" + i, "cover" + i + ".jpg"});
+            if (rows.size() == 1_000 || i == CATALOG_SIZE - 1) {
+                jdbcTemplate.batchUpdate("insert into movie (title, sinopsis, premiere_date, youtube_trailer_id,"
+                        + " route_cover) values (?, ?, ?, ?, ?)", rows);
+                rows.clear();
+            }
+        }
+        jdbcTemplate.update("insert into genre_movie (movie_id, id_genre) select id, 1 + id % 5 from movie");
+        jdbcTemplate.execute("analyze");
+        genreIndex.build();
+    }
+
+    @Test
+    @DisplayName("Should serve a database-bound route mix with more clients than platform threads")
+    void routeMix() throws Exception {
+        List<Integer> ids = jdbcTemplate.queryForList("select id from movie", Integer.class);
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        Random random = new Random(7);
+        List<URI> uris = new ArrayList<>();
+        for (int i = 0; i < 1_024; i++) {
+            uris.add(switch (i % 3) {
+                case 0 -> uri("/movies/" + ids.get(random.nextInt(ids.size())));
+                case 1 -> uri("/movies");
+                default -> uri("/movies?genre=" + (1 + random.nextInt(5)));
+            });
+        }
+        // Warm up the JIT, the connection pool and the statement cache
+        HttpLoad.run(client, 16, 50, i -> HttpRequest.newBuilder(uris.get(i % uris.size())).build());
+
+        LatencyReport report = HttpLoad.run(client, CONCURRENCY, REQUESTS_PER_WORKER,
+                i -> HttpRequest.newBuilder(uris.get(i % uris.size())).build());
+        RESULTS.put(mode(), report);
+        log.info(report.format("route mix (" + mode() + ")"));
+        Timer pinned = meterRegistry.find("jvm.threads.virtual.pinned").timer();
+        if (pinned != null) {
+            log.info("virtual thread pinning events={} total={}ms", pinned.count(),
+                    "%.1f".formatted(pinned.totalTime(TimeUnit.MILLISECONDS)));
+        }
+
+        assertThat(report.errors()).isZero();
+    }
+
+    @AfterAll
+    static void compareModes() {
+        LatencyReport platform = RESULTS.get("platform");
+        LatencyReport virtual = RESULTS.get("virtual");
+        if (platform != null && virtual != null) {
+            log.info("virtual/platform throughput={}x p99 {}ms vs {}ms",
+                    "%.2f".formatted(virtual.throughput() / platform.throughput()),
+                    "%.2f".formatted(virtual.p99Nanos() / 1e6), "%.2f".formatted(platform.p99Nanos() / 1e6));
+        }
+    }
+
+    private URI uri(String path) {
+        return URI.create("http://localhost:" + port + path);
+    }
+}
@@ -0,0 +1,24 @@
+package id.my.hendisantika.movietrailer.benchmark;
+
+import org.junit.jupiter.api.Tag;
+import org.springframework.boot.test.context.SpringBootTest;
+
+/**
+ * Route mix served on virtual threads behind the connection admission filter.
+ * Run both modes with: mvn test -Pbenchmark -Dtest='*ThreadBenchmarkTest'
+ */
+@Tag("benchmark")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.threads.virtual.enabled=true",
+        "web.admission.timeout=10s",
+        "spring.cache.type=none",
+        "page-cache.enabled=false",
+        "spring.jpa.show-sql=false"
+})
+class VirtualThreadBenchmarkTest extends ThreadModeBenchmark {
+
+    @Override
+    String mode() {
+        return "virtual";
+    }
+}
@@ -0,0 +1,165 @@
+package id.my.hendisantika.movietrailer.controller;
+
+import com.jayway.jsonpath.JsonPath;
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import id.my.hendisantika.movietrailer.repository.CatalogRevisionRepository;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.service.MovieAdminService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the read-only JSON API.
+ * Checks cursor windows, sparse fieldsets, conditional GETs and the statements each response costs.
+ */
+@AutoConfigureMockMvc
+class MovieApiControllerTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MovieAdminService movieAdminService;
+
+    @Autowired
+    private CatalogRevisionRepository catalogRevisionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    private final List<Movie> movies = new ArrayList<>();
+
+    private Movie newest;
+
+    @BeforeEach
+    void setUp() {
+        Genre action = genreRepository.findById(1).orElseThrow();
+        Genre comedy = genreRepository.findById(2).orElseThrow();
+        for (int i = 5; i >= 0; i--) {
+            Movie created = new Movie();
+            created.setTitle("Movie " + i);
+            created.setSinopsis("Synopsis " + i);
+            created.setPremiereDate(LocalDate.now().minusDays(i));
+            created.setYoutubeTrailerId("trailer" + i);
+            created.setRouteCover("cover" + i + ".jpg");
+            created.setGenres(new ArrayList<>(List.of(action, comedy)));
+            newest = movieRepository.save(created);
+            movies.add(newest);
+        }
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the movies this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.deleteAll(movies);
+    }
+
+    @Test
+    @DisplayName("Should page through the catalog with cursors in four statements per window")
+    void shouldPageWithCursors() throws Exception {
+        // Given
+        String next;
+        try (QueryCount queries = QueryCount.start()) {
+            // When
+            MvcResult first = mockMvc.perform(get("/api/v1/movies").param("size", "4"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.movies", hasSize(4)))
+                    .andExpect(jsonPath("$.movies[0].title").value("Movie 0"))
+                    .andExpect(jsonPath("$.movies[0].cover").value("/assets/cover0.jpg"))
+                    .andExpect(jsonPath("$.movies[0].genres", contains(1, 2)))
+                    .andExpect(jsonPath("$.movies[0].sinopsis").doesNotExist())
+                    .andReturn();
+
+            // Then: the version, ids, their columns and their genre ids
+            queries.assertStatements(4).assertNoRepeatedStatements();
+            next = JsonPath.read(first.getResponse().getContentAsString(), "$.next");
+        }
+        mockMvc.perform(get("/api/v1/movies").param("size", "4").param("cursor", next))
+                .andExpect(jsonPath("$.movies[*].title", contains("Movie 4", "Movie 5")))
+                .andExpect(jsonPath("$.next").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("Should leave out unrequested fields and the genre query with them")
+    void shouldServeSparseFieldsets() throws Exception {
+        // Given
+        try (QueryCount queries = QueryCount.start()) {
+            // When
+            mockMvc.perform(get("/api/v1/movies/{id}", newest.getId()).param("fields", "title,sinopsis"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.id").value(newest.getId()))
+                    .andExpect(jsonPath("$.sinopsis").value("Synopsis 0"))
+                    .andExpect(jsonPath("$.premiereDate").doesNotExist())
+                    .andExpect(jsonPath("$.genres").doesNotExist());
+
+            // Then: the version and the movie
+            queries.assertStatements(2);
+        }
+        mockMvc.perform(get("/api/v1/movies").param("fields", "rating"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @DisplayName("Should answer a revalidation with 304 until any process changes the catalog")
+    void shouldRevalidateAgainstCatalogVersion() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/api/v1/genres"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[*].title", contains("ACTION", "ADVENTURE", "COMEDY", "HORROR", "THRILLER")))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When
+        try (QueryCount queries = QueryCount.start()) {
+            mockMvc.perform(get("/api/v1/genres").header(HttpHeaders.IF_NONE_MATCH, etag))
+                    .andExpect(status().isNotModified());
+
+            // Then: the version row alone
+            queries.assertStatements(1);
+        }
+        movieAdminService.delete(newest.getId());
+        String afterDelete = mockMvc.perform(get("/api/v1/genres").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        // A write committed by another process, which publishes no event here
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> catalogRevisionRepository.bump());
+        mockMvc.perform(get("/api/v1/genres").header(HttpHeaders.IF_NONE_MATCH, afterDelete))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, not(afterDelete)));
+    }
+}
@@ -0,0 +1,248 @@
+package id.my.hendisantika.movietrailer.datasource;
+
+import id.my.hendisantika.movietrailer.service.CatalogVersion;
+import id.my.hendisantika.movietrailer.web.ReadYourWritesFilter;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.testcontainers.containers.Container;
+import org.testcontainers.containers.GenericContainer;
+import org.testcontainers.containers.Network;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.containers.wait.strategy.Wait;
+import org.testcontainers.images.builder.Transferable;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for read replica routing against a streaming replica of the primary.
+ * Checks that read-only transactions reach the replica, that writers stay on the primary, that the JSON API reads
+ * its ETag and its rows from the same server and that reads fall back to the primary while the replica lags or has
+ * stopped replicating.
+ */
+@AutoConfigureMockMvc
+@SpringBootTest(properties = {"replica.enabled=true", "replica.max-lag=200ms", "replica.lag-check-interval=1h",
+        "replica.write-window=0s"})
+@ActiveProfiles("test")
+class ReplicaRoutingTest {
+
+    private static final String IMAGE = "postgres:18.0-alpine3.22";
+
+    private static final Network NETWORK = Network.newNetwork();
+
+    private static final PostgreSQLContainer<?> PRIMARY;
+
+    private static final GenericContainer<?> REPLICA;
+
+    static {
+        PRIMARY = new PostgreSQLContainer<>(IMAGE)
+                .withNetwork(NETWORK)
+                .withNetworkAliases("primary")
+                .withDatabaseName("movie_trailers_test")
+                .withUsername("testuser")
+                .withPassword("testpass")
+                .withCommand("postgres", "-c", "fsync=off", "-c", "wal_level=replica", "-c", "max_wal_senders=4")
+                .withCopyToContainer(Transferable.of(
+                                "echo 'host replication all all scram-sha-256' >> \"$PGDATA/pg_hba.conf\"\n"),
+                        "/docker-entrypoint-initdb.d/replication.sh");
+        PRIMARY.start();
+        // A hot standby cloned from the primary, which then streams its WAL
+        REPLICA = new GenericContainer<>(IMAGE)
+                .withNetwork(NETWORK)
+                .withExposedPorts(PostgreSQLContainer.POSTGRESQL_PORT)
+                .withEnv("PGPASSWORD", "testpass")
+                .withCreateContainerCmdModifier(cmd -> cmd.withUser("postgres").withEntrypoint("sh", "-c"))
+                .withCommand("pg_basebackup -h primary -U testuser -D /tmp/standby -R -X stream"
+                        + " && chmod 700 /tmp/standby && exec postgres -D /tmp/standby")
+                .waitingFor(Wait.forLogMessage(".*ready to accept read-only connections.*", 1)
+                        .withStartupTimeout(Duration.ofMinutes(2)));
+        REPLICA.start();
+    }
+
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void registerDynamicProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", PRIMARY::getJdbcUrl);
+        registry.add("spring.datasource.username", PRIMARY::getUsername);
+        registry.add("spring.datasource.password", PRIMARY::getPassword);
+        registry.add("replica.urls", () -> "jdbc:postgresql://" + REPLICA.getHost() + ":"
+                + REPLICA.getMappedPort(PostgreSQLContainer.POSTGRESQL_PORT) + "/movie_trailers_test");
+    }
+
+    @BeforeEach
+    void setUp() {
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    @DisplayName("Should run read-only transactions on the replica and the rest on the primary")
+    void shouldRouteByTransaction() {
+        // When / Then
+        assertThat(inRecovery(true)).isTrue();
+        assertThat(inRecovery(false)).isFalse();
+        assertThat(jdbcTemplate.queryForObject("select pg_is_in_recovery()", Boolean.class)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Should keep a browser that has just written on the primary")
+    void shouldPinAfterWrite() throws Exception {
+        // Given
+        ReadYourWritesFilter filter = new ReadYourWritesFilter(Duration.ofSeconds(15));
+        MockHttpServletResponse write = new MockHttpServletResponse();
+        filter.doFilter(new MockHttpServletRequest("POST", "/admin/movies"), write, (request, response) -> {
+        });
+        MockHttpServletRequest read = new MockHttpServletRequest("GET", "/movies");
+        read.setCookies(write.getCookie(ReadYourWritesFilter.COOKIE));
+        AtomicBoolean recovery = new AtomicBoolean(true);
+
+        // When
+        filter.doFilter(read, new MockHttpServletResponse(), (request, response) -> recovery.set(inRecovery(true)));
+
+        // Then
+        assertThat(recovery).isFalse();
+        assertThat(ReplicaRouting.isPinned()).isFalse();
+        assertThat(inRecovery(true)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should tag /api/v1 responses with the catalog version of the replica that read the rows")
+    void shouldTagApiResponsesFromReplica() throws Exception {
+        // Given: a version both servers have, then a newer one the paused replica has not replayed
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> catalogVersion.bump());
+        awaitReplayed();
+        replicaLagMonitor.check();
+        String replicated = catalogVersion.etag();
+        replicaJdbc("select pg_wal_replay_pause()");
+        try {
+            awaitReplica("select pg_get_wal_replay_pause_state()", "paused");
+            new TransactionTemplate(transactionManager).executeWithoutResult(status -> catalogVersion.bump());
+
+            // When / Then: still routed to the replica, which was within the lag at the last check
+            for (String path : List.of("/api/v1/movies", "/api/v1/genres")) {
+                mockMvc.perform(get(path))
+                        .andExpect(status().isOk())
+                        .andExpect(header().string(HttpHeaders.ETAG, replicated));
+            }
+            mockMvc.perform(get("/api/v1/movies/-1"))
+                    .andExpect(status().isNotFound());
+            mockMvc.perform(get("/api/v1/genres").header(HttpHeaders.IF_NONE_MATCH, replicated))
+                    .andExpect(status().isNotModified());
+            assertThat(catalogVersion.etag()).isNotEqualTo(replicated);
+        } finally {
+            replicaJdbc("select pg_wal_replay_resume()");
+        }
+        awaitReplayed();
+        replicaLagMonitor.check();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary while the replica lags and return once it caught up")
+    void shouldFallBackWhileLagging() throws Exception {
+        // Given: replay stopped while the primary keeps committing
+        replicaJdbc("select pg_wal_replay_pause()");
+        try {
+            jdbcTemplate.queryForObject("select txid_current()", Long.class);
+            replicaLagMonitor.check();
+            Thread.sleep(500);
+
+            // When
+            replicaLagMonitor.check();
+
+            // Then
+            assertThat(inRecovery(true)).isFalse();
+        } finally {
+            replicaJdbc("select pg_wal_replay_resume()");
+        }
+        Thread.sleep(500);
+        replicaLagMonitor.check();
+        assertThat(inRecovery(true)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Should read from the primary once the replica stops receiving WAL")
+    void shouldFallBackWhenReplicationStops() throws Exception {
+        // Given: the standby cut off from the primary, which has replayed all it received
+        String primaryConninfo = replicaJdbc("show primary_conninfo");
+        replicaJdbc("alter system set primary_conninfo = ''");
+        replicaJdbc("select pg_reload_conf()");
+        try {
+            awaitReplica("select count(*) from pg_stat_wal_receiver", "0");
+            jdbcTemplate.queryForObject("select txid_current()", Long.class);
+
+            // When
+            replicaLagMonitor.check();
+
+            // Then
+            assertThat(inRecovery(true)).isFalse();
+        } finally {
+            replicaJdbc("alter system set primary_conninfo = '" + primaryConninfo.replace("'", "''") + "'");
+            replicaJdbc("select pg_reload_conf()");
+        }
+        awaitReplica("select status from pg_stat_wal_receiver", "streaming");
+        awaitReplayed();
+        replicaLagMonitor.check();
+        assertThat(inRecovery(true)).isTrue();
+    }
+
+    private boolean inRecovery(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return Boolean.TRUE.equals(transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("select pg_is_in_recovery()", Boolean.class)));
+    }
+
+    // Waits for the replica to replay everything the primary has written so far
+    private void awaitReplayed() throws Exception {
+        awaitReplica("select pg_last_wal_replay_lsn() >= '" + jdbcTemplate.queryForObject(
+                "select pg_current_wal_lsn()::text", String.class) + "'::pg_lsn", "t");
+    }
+
+    private static String replicaJdbc(String sql) throws Exception {
+        Container.ExecResult result = REPLICA.execInContainer("psql", "-U", "testuser", "-d", "movie_trailers_test",
+                "-tA", "-c", sql);
+        assertThat(result.getExitCode()).as(result.getStderr()).isZero();
+        return result.getStdout().strip();
+    }
+
+    private static void awaitReplica(String sql, String expected) throws Exception {
+        long deadline = System.nanoTime() + Duration.ofSeconds(30).toNanos();
+        while (!replicaJdbc(sql).equals(expected)) {
+            assertThat(System.nanoTime()).as("Waiting for %s to return %s", sql, expected).isLessThan(deadline);
+            Thread.sleep(100);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package id.my.hendisantika.movietrailer.metrics;
+
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Counts the SQL statements prepared on the current thread while it is open, for pinning the query cost of a
+ * repository call or a MockMvc request in tests.
+ * Failures list every statement shape with its count, so an N+1 names itself.
+ */
+public final class QueryCount implements AutoCloseable {
+
+    private final RequestStatistics statistics;
+
+    private QueryCount(RequestStatistics statistics) {
+        this.statistics = statistics;
+    }
+
+    public static QueryCount start() {
+        return new QueryCount(RequestStatistics.begin());
+    }
+
+    public int statements() {
+        return statistics.statements();
+    }
+
+    public QueryCount assertStatements(int expected) {
+        if (statements() != expected) {
+            throw new AssertionError("Expected " + expected + " statements but " + describe());
+        }
+        return this;
+    }
+
+    public QueryCount assertStatementsAtMost(int budget) {
+        if (statements() > budget) {
+            throw new AssertionError("Expected at most " + budget + " statements but " + describe());
+        }
+        return this;
+    }
+
+    public QueryCount assertNoRepeatedStatements() {
+        RepeatedStatement repeated = statistics.statementTally().mostRepeated();
+        if (repeated != null) {
+            throw new AssertionError("Expected every statement to run once but " + repeated.count() + "x: "
+                    + repeated.shape() + "; " + describe());
+        }
+        return this;
+    }
+
+    @Override
+    public void close() {
+        RequestStatistics.end();
+    }
+
+    private String describe() {
+        Map<String, Integer> shapes = statistics.statementTally().shapes();
+        return statements() + " were prepared:" + shapes.entrySet().stream()
+                .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                .map(entry -> "\n  " + entry.getValue() + "x " + entry.getKey())
+                .collect(Collectors.joining());
+    }
+}
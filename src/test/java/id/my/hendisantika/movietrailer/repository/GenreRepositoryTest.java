@@ -140,4 +140,20 @@ class GenreRepositoryTest extends AbstractIntegrationTest {
         assertThat(exists).isTrue();
         assertThat(notExists).isFalse();
     }
+
+    @Test
+    @DisplayName("Should seed the default genres once and write nothing on later boots")
+    void shouldUpsertDefaultsIdempotently() {
+        // Given
+        genreRepository.saveAndFlush(new Genre(2, "Comedy"));
+
+        // When
+        int firstBoot = genreRepository.upsertDefaults();
+        int secondBoot = genreRepository.upsertDefaults();
+
+        // Then: four inserted and one renamed, then no rows touched at all
+        assertThat(firstBoot).isEqualTo(5);
+        assertThat(secondBoot).isZero();
+        assertThat(genreRepository.count()).isEqualTo(5);
+    }
 }
@@ -3,13 +3,20 @@ package id.my.hendisantika.movietrailer.repository;
 import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
 import id.my.hendisantika.movietrailer.entity.Genre;
 import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
 
@@ -28,6 +35,9 @@ class MovieRepositoryTest extends AbstractIntegrationTest {
     @Autowired
     private GenreRepository genreRepository;
 
+    @PersistenceContext
+    private EntityManager entityManager;
+
     private Genre actionGenre;
     private Genre dramaGenre;
 
@@ -181,6 +191,100 @@ class MovieRepositoryTest extends AbstractIntegrationTest {
         assertThat(count).isEqualTo(3);
     }
 
+    @Test
+    @DisplayName("Should count movies sharing a cover")
+    void shouldCountMoviesSharingCover() {
+        // Given
+        Movie movie1 = createTestMovie("Movie 1", "Synopsis 1", LocalDate.now(), "id1", List.of(actionGenre));
+        Movie movie2 = createTestMovie("Movie 2", "Synopsis 2", LocalDate.now(), "id2", List.of(dramaGenre));
+        Movie movie3 = createTestMovie("Movie 3", "Synopsis 3", LocalDate.now(), "id3", List.of(actionGenre));
+        movie3.setRouteCover("/covers/other.jpg");
+        movieRepository.saveAll(List.of(movie1, movie2, movie3));
+
+        // When
+        long shared = movieRepository.countByRouteCover("/covers/default.jpg");
+        long unused = movieRepository.countByRouteCover("/covers/unused.jpg");
+
+        // Then
+        assertThat(shared).isEqualTo(2);
+        assertThat(unused).isZero();
+    }
+
+    @Test
+    @DisplayName("Should load a page with genres in a fixed number of queries")
+    void shouldLoadPageWithGenresInFixedNumberOfQueries() {
+        // Given
+        for (int i = 0; i < 12; i++) {
+            movieRepository.save(createTestMovie("Movie " + i, "Synopsis " + i, LocalDate.now().minusDays(i),
+                    "id" + i, List.of(actionGenre, dramaGenre)));
+        }
+        entityManager.flush();
+
+        for (int size : new int[]{3, 10}) {
+            entityManager.clear();
+
+            // When
+            try (QueryCount queries = QueryCount.start()) {
+                Page<Movie> page = movieRepository.findPageWithGenres(PageRequest.of(0, size, Sort.by("title")));
+                long genreCount = page.stream().mapToLong(movie -> movie.getGenres().size()).sum();
+
+                // Then: one query for the ids, one for the total and one for the movies with their genres
+                assertThat(page.getContent()).hasSize(size).extracting(Movie::getTitle).isSorted();
+                assertThat(page.getTotalElements()).isEqualTo(12);
+                assertThat(genreCount).isEqualTo(2L * size);
+                queries.assertStatements(3).assertNoRepeatedStatements();
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should leave out ids whose movie was deleted after they were read")
+    void shouldSkipDeletedIds() {
+        // Given
+        List<Movie> movies = movieRepository.saveAll(List.of(
+                createTestMovie("Movie 1", "Synopsis 1", LocalDate.of(2024, 5, 1), "id1", List.of(actionGenre)),
+                createTestMovie("Movie 2", "Synopsis 2", LocalDate.of(2024, 5, 2), "id2", List.of(actionGenre)),
+                createTestMovie("Movie 3", "Synopsis 3", LocalDate.of(2024, 5, 3), "id3", List.of(dramaGenre))));
+        List<Integer> ids = movies.stream().map(Movie::getId).toList();
+        movieRepository.delete(movies.get(1));
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Movie> loaded = movieRepository.findAllWithGenresInOrder(ids);
+
+        // Then
+        assertThat(loaded).extracting(Movie::getId).containsExactly(ids.get(0), ids.get(2));
+    }
+
+    @Test
+    @DisplayName("Should seek past movies sharing a premiere date")
+    void shouldSeekPastMoviesSharingPremiereDate() {
+        // Given
+        LocalDate sameDay = LocalDate.of(2024, 5, 1);
+        List<Movie> movies = movieRepository.saveAll(List.of(
+                createTestMovie("Movie 1", "Synopsis 1", sameDay, "id1", List.of(actionGenre)),
+                createTestMovie("Movie 2", "Synopsis 2", sameDay, "id2", List.of(actionGenre)),
+                createTestMovie("Movie 3", "Synopsis 3", sameDay, "id3", List.of(dramaGenre)),
+                createTestMovie("Movie 4", "Synopsis 4", sameDay.minusDays(1), "id4", List.of(dramaGenre))));
+        List<Integer> expected = movies.stream()
+                .sorted(Comparator.comparing(Movie::getPremiereDate).thenComparing(Movie::getId).reversed())
+                .map(Movie::getId)
+                .toList();
+
+        // When
+        List<Integer> first = movieRepository.findIdsByPremiereDate(2);
+        Movie edge = movieRepository.findById(first.getLast()).orElseThrow();
+        List<Integer> next = movieRepository.findIdsByPremiereDateAfter(edge.getPremiereDate(), edge.getId(), 2);
+        Movie start = movieRepository.findById(next.getFirst()).orElseThrow();
+        List<Integer> previous = movieRepository.findIdsByPremiereDateBefore(start.getPremiereDate(), start.getId(), 2);
+
+        // Then
+        assertThat(first).isEqualTo(expected.subList(0, 2));
+        assertThat(next).isEqualTo(expected.subList(2, 4));
+        assertThat(previous.reversed()).isEqualTo(first);
+    }
+
     private Movie createTestMovie(String title, String sinopsis, LocalDate premiereDate,
                                   String youtubeTrailerId, List<Genre> genres) {
         Movie movie = new Movie();
@@ -0,0 +1,143 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for serving stored assets.
+ * Checks single, suffix and multiple ranges, If-Range, unsatisfiable and amplifying ranges and conditional requests.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "storage.location=test-assets-delivery")
+class AssetDeliveryServiceTest extends AbstractIntegrationTest {
+
+    private static final Path ROOT = Path.of("test-assets-delivery");
+
+    private static final String COVER = "delivery-cover.jpg";
+
+    private static final int LENGTH = 100;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private byte[] content;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+        Files.createDirectories(ROOT);
+        content = new byte[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            content[i] = (byte) i;
+        }
+        Files.write(ROOT.resolve(COVER), content);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    @DisplayName("Should answer a single range and a suffix range with 206 and the requested bytes")
+    void shouldServeSingleAndSuffixRange() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/assets/" + COVER).header(HttpHeaders.RANGE, "bytes=10-19"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 10-19/100"))
+                .andExpect(header().longValue(HttpHeaders.CONTENT_LENGTH, 10))
+                .andExpect(content().bytes(Arrays.copyOfRange(content, 10, 20)));
+        mockMvc.perform(get("/assets/" + COVER).header(HttpHeaders.RANGE, "bytes=-5"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes 95-99/100"))
+                .andExpect(content().bytes(Arrays.copyOfRange(content, 95, 100)));
+    }
+
+    @Test
+    @DisplayName("Should answer several ranges with one multipart/byteranges body")
+    void shouldServeMultipleRangesAsMultipart() throws Exception {
+        // When
+        MockHttpServletResponse response = mockMvc.perform(get("/assets/" + COVER)
+                        .header(HttpHeaders.RANGE, "bytes=0-4,50-54"))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, startsWith("multipart/byteranges; boundary=")))
+                .andReturn().getResponse();
+
+        // Then
+        byte[] body = response.getContentAsByteArray();
+        assertThat(body).hasSize((int) response.getContentLengthLong());
+        String text = new String(body, StandardCharsets.ISO_8859_1);
+        assertThat(text).contains("Content-Range: bytes 0-4/100\r\n\r\n"
+                + new String(Arrays.copyOfRange(content, 0, 5), StandardCharsets.ISO_8859_1));
+        assertThat(text).contains("Content-Range: bytes 50-54/100\r\n\r\n"
+                + new String(Arrays.copyOfRange(content, 50, 55), StandardCharsets.ISO_8859_1));
+        assertThat(text).endsWith("--\r\n");
+    }
+
+    @Test
+    @DisplayName("Should send the whole file when If-Range names another version")
+    void shouldIgnoreRangeForStaleIfRange() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/assets/" + COVER)
+                        .header(HttpHeaders.RANGE, "bytes=10-19")
+                        .header(HttpHeaders.IF_RANGE, "\"stale\""))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_RANGE))
+                .andExpect(content().bytes(content));
+    }
+
+    @Test
+    @DisplayName("Should answer 416 with the length for a range past the end of the file")
+    void shouldRejectUnsatisfiableRange() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/assets/" + COVER).header(HttpHeaders.RANGE, "bytes=200-300"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string(HttpHeaders.CONTENT_RANGE, "bytes */100"));
+    }
+
+    @Test
+    @DisplayName("Should answer 416 for overlapping ranges that add up to more than the file")
+    void shouldRejectAmplifyingRanges() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/assets/" + COVER).header(HttpHeaders.RANGE, "bytes=0-99,0-99"))
+                .andExpect(status().isRequestedRangeNotSatisfiable());
+    }
+
+    @Test
+    @DisplayName("Should answer 304 without a body when If-None-Match carries the current ETag")
+    void shouldAnswerNotModifiedForCurrentEtag() throws Exception {
+        // Given
+        String etag = mockMvc.perform(get("/assets/" + COVER))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isNotBlank();
+
+        // When / Then
+        mockMvc.perform(get("/assets/" + COVER).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().bytes(new byte[0]));
+    }
+}
@@ -0,0 +1,176 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.util.FileSystemUtils;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.locks.Lock;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for cover renditions.
+ * Checks generation after an upload, serving them, unreadable covers and covers deleted mid-generation.
+ */
+@AutoConfigureMockMvc
+@TestPropertySource(properties = "storage.location=test-assets-derivatives")
+class CoverDerivativeServiceTest extends AbstractIntegrationTest {
+
+    private static final Path ROOT = Path.of("test-assets-derivatives");
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+
+    @Autowired
+    private CoverDerivativeService coverDerivativeService;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+        Files.createDirectories(ROOT);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    @DisplayName("Should create every rendition of a stored cover at its width")
+    void shouldCreateRenditionsOfStoredCover() throws IOException {
+        // When
+        String filename = warehouseService.storeStream(new ByteArrayInputStream(png(1600, 2400)), "poster.png");
+
+        // Then
+        await().atMost(TIMEOUT).untilAsserted(() -> {
+            for (CoverSize size : CoverSize.values()) {
+                assertThat(warehouseService.derivativeFile(filename, size)).isRegularFile();
+            }
+        });
+        for (CoverSize size : CoverSize.values()) {
+            BufferedImage rendition = ImageIO.read(warehouseService.derivativeFile(filename, size).toFile());
+            assertThat(rendition.getWidth()).isEqualTo(size.getWidth());
+            assertThat(rendition.getHeight()).isEqualTo(size.getWidth() * 3 / 2);
+        }
+    }
+
+    @Test
+    @DisplayName("Should serve the original until the rendition exists, then the rendition as immutable")
+    void shouldServeOriginalUntilRenditionExists() throws Exception {
+        // Given: stored before the pipeline existed, so no rendition was scheduled
+        String filename = "ab".repeat(32) + ".png";
+        place(filename, png(800, 1200));
+
+        // When / Then
+        mockMvc.perform(get("/assets/md/" + filename))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/png"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=60"));
+        await().atMost(TIMEOUT).until(() -> Files.isRegularFile(
+                warehouseService.derivativeFile(filename, CoverSize.MEDIUM)));
+        mockMvc.perform(get("/assets/md/" + filename))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_TYPE, "image/jpeg"))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, containsString("immutable")));
+    }
+
+    @Test
+    @DisplayName("Should not create renditions of a cover that can't be decoded")
+    void shouldSkipUnreadableCover() throws IOException {
+        // Given: an image signature followed by junk
+        String filename = "cd".repeat(32) + ".png";
+        byte[] junk = new byte[4096];
+        System.arraycopy(png(1, 1), 0, junk, 0, 16);
+        place(filename, junk);
+
+        // When
+        coverDerivativeService.schedule(filename);
+
+        // Then
+        await().during(Duration.ofSeconds(2)).atMost(TIMEOUT).until(() -> renditions(filename) == 0);
+        assertThat(coverDerivativeService.findDerivative(filename, CoverSize.SMALL)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should not leave renditions behind when the cover is deleted while they are written")
+    void shouldNotOutliveDeletedCover() throws IOException {
+        // Given
+        String filename = "ef".repeat(32) + ".png";
+        place(filename, png(1600, 2400));
+        Path directory = warehouseService.fileUpload(filename).getParent();
+
+        // When: the job has written its first rendition and waits for the blob's lock to move it in
+        Lock lock = warehouseService.blobLock(filename);
+        lock.lock();
+        try {
+            coverDerivativeService.schedule(filename);
+            await().atMost(TIMEOUT).until(() -> temporaryFiles(directory) > 0);
+            warehouseService.deleteArchive(filename);
+        } finally {
+            lock.unlock();
+        }
+
+        // Then
+        await().atMost(TIMEOUT).until(() -> temporaryFiles(directory) == 0);
+        await().during(Duration.ofSeconds(1)).atMost(TIMEOUT).until(() -> renditions(filename) == 0);
+        assertThat(warehouseService.fileUpload(filename)).doesNotExist();
+        assertThat(warehouseService.quarantineFile(filename)).isRegularFile();
+    }
+
+    private void place(String filename, byte[] content) throws IOException {
+        Path archive = warehouseService.fileUpload(filename);
+        Files.createDirectories(archive.getParent());
+        Files.write(archive, content);
+    }
+
+    private long renditions(String filename) {
+        return Stream.of(CoverSize.values())
+                .filter(size -> Files.exists(warehouseService.derivativeFile(filename, size)))
+                .count();
+    }
+
+    private static long temporaryFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().startsWith(".derivative-")).count();
+        }
+    }
+
+    private static byte[] png(int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        for (int y = 0; y < height; y++) {
+            for (int x = 0; x < width; x++) {
+                image.setRGB(x, y, (x * 255 / width) << 16 | (y * 255 / height) << 8);
+            }
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        ImageIO.write(image, "png", out);
+        return out.toByteArray();
+    }
+}
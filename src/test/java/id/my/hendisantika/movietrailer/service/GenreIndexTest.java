@@ -0,0 +1,203 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.web.PageCache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the in-memory genre index.
+ * Checks AND/OR filtering, newest-first keyset windows, incremental updates, the refresh after writes made
+ * elsewhere and listings served while the index is behind against PostgreSQL data.
+ */
+@AutoConfigureMockMvc
+class GenreIndexTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private GenreIndex genreIndex;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    private final List<Movie> created = new ArrayList<>();
+
+    private Genre action;
+    private Genre comedy;
+
+    @BeforeEach
+    void setUp() {
+        // Genres seeded at startup, shared with every other test
+        action = genreRepository.findById(1).orElseThrow();
+        comedy = genreRepository.findById(2).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the rows this test created, then an index without them
+        movieRepository.deleteAll(created);
+        genreIndex.build();
+    }
+
+    @Test
+    @DisplayName("Should filter by genres newest first and follow admin writes")
+    void shouldFilterByGenresAndFollowWrites() {
+        // Given
+        Movie both = save(createMovie("Both", LocalDate.of(2020, 1, 1), action, comedy));
+        Movie actionOnly = save(createMovie("Action only", LocalDate.of(2021, 1, 1), action));
+        Movie comedyOnly = save(createMovie("Comedy only", LocalDate.of(2022, 1, 1), comedy));
+        genreIndex.build();
+
+        // When
+        List<Integer> all = genreIndex.findIds(GenreFilter.of(List.of(1, 2), GenreMatch.ALL), null, 10);
+        List<Integer> any = genreIndex.findIds(GenreFilter.of(List.of(1, 2), GenreMatch.ANY), null, 10);
+        List<Integer> nextWindow = genreIndex.findIds(GenreFilter.of(List.of(1, 2), GenreMatch.ANY),
+                MovieCursor.after(MovieSort.PREMIERE_DATE, comedyOnly), 10);
+
+        // Then
+        assertThat(all).containsExactly(both.getId());
+        assertThat(any).containsExactly(comedyOnly.getId(), actionOnly.getId(), both.getId());
+        assertThat(nextWindow).containsExactly(actionOnly.getId(), both.getId());
+
+        // When the admin tags a movie with another genre
+        actionOnly.setGenres(new ArrayList<>(List.of(action, comedy)));
+        movieRepository.save(actionOnly);
+        genreIndex.onMovieChanged(new MovieChangedEvent(actionOnly.getId(), MovieChangedEvent.ChangeType.UPDATED));
+
+        // Then
+        assertThat(genreIndex.findIds(GenreFilter.of(List.of(1, 2), GenreMatch.ALL), null, 10))
+                .containsExactly(actionOnly.getId(), both.getId());
+    }
+
+    @Test
+    @DisplayName("Should pick up a write made by another process on the next refresh")
+    void shouldRefreshAfterWriteElsewhere() {
+        // Given
+        Movie older = save(createMovie("Older", LocalDate.of(2020, 1, 1), comedy));
+        genreIndex.build();
+
+        // When: committed with the catalog revision bumped and no event published here
+        Movie newer = new TransactionTemplate(transactionManager).execute(status -> {
+            Movie saved = save(createMovie("Newer", LocalDate.of(2021, 1, 1), comedy));
+            catalogVersion.bump();
+            return saved;
+        });
+        genreIndex.refresh();
+
+        // Then
+        assertThat(genreIndex.findIds(GenreFilter.of(List.of(2), GenreMatch.ANY), null, 10))
+                .containsExactly(newer.getId(), older.getId());
+    }
+
+    @Test
+    @DisplayName("Should not rebuild for revisions its own patches applied")
+    void shouldNotRebuildAfterLocalPatch() {
+        // Given
+        genreIndex.build();
+        long revision = new TransactionTemplate(transactionManager).execute(status -> {
+            save(createMovie("Patched", LocalDate.of(2020, 1, 1), comedy));
+            return catalogVersion.bump();
+        });
+        Movie patched = created.getLast();
+        genreIndex.onMovieChanged(new MovieChangedEvent(patched.getId(), MovieChangedEvent.ChangeType.CREATED, true,
+                revision));
+
+        // When
+        try (QueryCount queries = QueryCount.start()) {
+            genreIndex.refresh();
+
+            // Then: the revision is read, the catalog is not
+            queries.assertStatements(1);
+        }
+        assertThat(genreIndex.findIds(GenreFilter.of(List.of(2), GenreMatch.ANY), null, 10))
+                .containsExactly(patched.getId());
+    }
+
+    @Test
+    @DisplayName("Should leave a movie deleted behind the index out of the genre listing")
+    void shouldSkipMoviesDeletedBehindIndex() throws Exception {
+        // Given
+        Movie kept = save(createMovie("Kept in the listing", LocalDate.of(2020, 1, 1), comedy));
+        Movie deleted = save(createMovie("Deleted elsewhere", LocalDate.of(2021, 1, 1), comedy));
+        genreIndex.build();
+
+        // When: deleted with no event published here, as by another instance before the next refresh
+        movieRepository.delete(deleted);
+        pageCache.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+
+        // Then
+        assertThat(genreIndex.findIds(GenreFilter.of(List.of(2), GenreMatch.ANY), null, 10))
+                .containsExactly(deleted.getId(), kept.getId());
+        MovieWindow<Movie> window = movieCatalogService.findWindow(GenreFilter.of(List.of(2), GenreMatch.ANY),
+                null, 10);
+        assertThat(window.movies()).extracting(Movie::getId).containsExactly(kept.getId());
+        assertThat(window.next()).isNull();
+        mockMvc.perform(get("/movies").param("genre", "2"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("Kept in the listing")))
+                .andExpect(content().string(not(containsString("Deleted elsewhere"))));
+    }
+
+    private Movie save(Movie movie) {
+        Movie saved = movieRepository.save(movie);
+        created.add(saved);
+        return saved;
+    }
+
+    private Movie createMovie(String title, LocalDate premiereDate, Genre... genres) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        movie.setSinopsis("Synopsis of " + title);
+        movie.setPremiereDate(premiereDate);
+        movie.setYoutubeTrailerId("trailer");
+        movie.setRouteCover("/covers/default.jpg");
+        movie.setGenres(new ArrayList<>(List.of(genres)));
+        return movie;
+    }
+}
@@ -0,0 +1,251 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for admin writes and the cover release pipeline.
+ * Checks that replaced and rolled back covers are reclaimed after the transaction, that a journal left by a
+ * crash is replayed and that a cover reused during its release survives.
+ */
+@TestPropertySource(properties = "storage.location=test-assets-pipeline")
+class MovieAdminServiceTest extends AbstractIntegrationTest {
+
+    private static final Path ROOT = Path.of("test-assets-pipeline");
+
+    @Autowired
+    private MovieAdminService movieAdminService;
+
+    @Autowired
+    private CoverFilePipeline coverFilePipeline;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    private Set<Integer> existing;
+
+    @BeforeEach
+    void setUp() {
+        existing = movieIds();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        coverFilePipeline.awaitReleases();
+        // Only the movies this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.deleteAllById(movieIds().stream().filter(id -> !existing.contains(id)).toList());
+        // The root and the live journal stay, both are opened once per context
+        try (Stream<Path> children = Files.list(ROOT)) {
+            for (Path child : children.filter(child -> !child.endsWith(".journal")).toList()) {
+                FileSystemUtils.deleteRecursively(child);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Should delete the replaced cover once the update committed and keep the new one")
+    void shouldReleaseReplacedCoverAfterCommit() throws Exception {
+        // Given
+        Movie movie = movieAdminService.create(movie(cover("first")));
+        String first = movie.getRouteCover();
+
+        // When
+        movieAdminService.update(movie.getId(), movie(cover("second")));
+        coverFilePipeline.awaitReleases();
+
+        // Then
+        String second = movieRepository.findRouteCoverById(movie.getId()).orElseThrow();
+        assertThat(second).isNotEqualTo(first);
+        assertThat(warehouseService.fileUpload(first)).doesNotExist();
+        assertThat(warehouseService.fileUpload(second)).exists();
+        assertThat(coverFilePipeline.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should reclaim the staged cover when the transaction rolls back")
+    void shouldReclaimStagedCoverOnRollback() throws Exception {
+        // Given
+        MockMultipartFile upload = cover("orphan");
+        String staged = warehouseService.storeFile(upload);
+
+        // When
+        assertThatThrownBy(() -> movieAdminService.update(-1, movie(upload)))
+                .isInstanceOf(IllegalArgumentException.class);
+        coverFilePipeline.awaitReleases();
+
+        // Then
+        assertThat(warehouseService.fileUpload(staged)).doesNotExist();
+        assertThat(coverFilePipeline.pendingCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should carry out releases a crash left in the journal and keep covers still referenced")
+    void shouldReplayJournal() throws Exception {
+        // Given: a journal written by a run that stopped before releasing its entries
+        String orphan = warehouseService.storeStream(new ByteArrayInputStream(png("crashed")), "cover.png");
+        Movie movie = movieAdminService.create(movie(cover("kept")));
+        Path journal = ROOT.resolve("replay").resolve(CoverFilePipeline.JOURNAL_DIRECTORY)
+                .resolve("cover-releases-crashed.log");
+        Files.createDirectories(journal.getParent());
+        Instant journaledAt = Instant.now();
+        Files.writeString(journal, "+ 1 " + journaledAt + " " + orphan + "\n"
+                + "+ 2 " + journaledAt + " " + movie.getRouteCover() + "\n"
+                + "- 2\n"
+                + "+ 3 " + journaledAt + " " + movie.getRouteCover() + "\n"
+                + "+ 4 torn");
+        CoverFilePipeline restarted = pipeline("replay");
+
+        // When
+        restarted.openJournal();
+        assertThat(restarted.pendingCount()).isEqualTo(2);
+        restarted.releasePending();
+        restarted.awaitReleases();
+        restarted.destroy();
+
+        // Then
+        assertThat(warehouseService.fileUpload(orphan)).doesNotExist();
+        assertThat(warehouseService.fileUpload(movie.getRouteCover())).exists();
+        assertThat(journal).doesNotExist();
+        assertThat(journals("replay")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should leave the journal of a running instance alone and take it over once that one stopped")
+    void shouldTakeOverJournalOfStoppedInstance() throws Exception {
+        // Given: an instance with a release journaled and not carried out
+        String cover = warehouseService.storeStream(new ByteArrayInputStream(png("shared root")), "cover.png");
+        CoverFilePipeline running = pipeline("shared");
+        running.openJournal();
+        running.journal(cover);
+
+        // When: another instance starts on the same storage root
+        CoverFilePipeline started = pipeline("shared");
+        started.openJournal();
+
+        // Then
+        assertThat(started.pendingCount()).isZero();
+        assertThat(running.pendingCount()).isEqualTo(1);
+        assertThat(journals("shared")).hasSize(2);
+
+        // When: the first one stops with its release still pending, and a third instance starts
+        running.destroy();
+        CoverFilePipeline next = pipeline("shared");
+        next.openJournal();
+
+        // Then: the third took it over, and the second, still running, did not
+        assertThat(next.pendingCount()).isEqualTo(1);
+        assertThat(started.pendingCount()).isZero();
+        assertThat(journals("shared")).hasSize(2);
+        next.releasePending();
+        next.awaitReleases();
+        assertThat(warehouseService.fileUpload(cover)).doesNotExist();
+        next.destroy();
+        started.destroy();
+        assertThat(journals("shared")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should keep serving a cover that uploads reuse while releases of it run")
+    void shouldKeepCoverReusedDuringRelease() throws Exception {
+        // Given: a blob nothing references yet
+        String shared = warehouseService.storeStream(new ByteArrayInputStream(png("shared")), "cover.png");
+
+        // When: uploads of the same content race releases of it, each upload then committing its movie
+        List<Future<?>> tasks = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < 20; i++) {
+                tasks.add(executor.submit(() -> {
+                    Movie movie = movie(null);
+                    movie.setRouteCover(warehouseService.storeStream(new ByteArrayInputStream(png("shared")),
+                            "cover.png"));
+                    return movieRepository.save(movie);
+                }));
+                tasks.add(executor.submit(() -> warehouseService.deleteArchive(shared)));
+            }
+            for (Future<?> task : tasks) {
+                task.get(30, TimeUnit.SECONDS);
+            }
+        }
+
+        // Then: the committed references still find their cover
+        assertThat(movieRepository.countByRouteCover(shared)).isEqualTo(20);
+        assertThat(warehouseService.loadFile(shared)).exists();
+    }
+
+    private CoverFilePipeline pipeline(String root) {
+        CoverFilePipeline pipeline = new CoverFilePipeline(warehouseService, new SimpleMeterRegistry());
+        ReflectionTestUtils.setField(pipeline, "storageLocation", ROOT.resolve(root).toString());
+        return pipeline;
+    }
+
+    private static List<Path> journals(String root) throws IOException {
+        try (Stream<Path> files = Files.list(ROOT.resolve(root).resolve(CoverFilePipeline.JOURNAL_DIRECTORY))) {
+            return files.toList();
+        }
+    }
+
+    private Set<Integer> movieIds() {
+        return movieRepository.findAll().stream().map(Movie::getId).collect(Collectors.toSet());
+    }
+
+    private Movie movie(MockMultipartFile frontPage) {
+        Movie movie = new Movie();
+        movie.setTitle("Movie");
+        movie.setSinopsis("Synopsis");
+        movie.setPremiereDate(LocalDate.now());
+        movie.setYoutubeTrailerId("trailer");
+        movie.setGenres(new ArrayList<>(List.of(genreRepository.getReferenceById(1))));
+        movie.setFrontPage(frontPage);
+        return movie;
+    }
+
+    private static MockMultipartFile cover(String content) {
+        return new MockMultipartFile("frontPage", content + ".png", "image/png", png(content));
+    }
+
+    private static byte[] png(String content) {
+        byte[] body = content.getBytes(StandardCharsets.UTF_8);
+        byte[] png = new byte[8 + body.length];
+        System.arraycopy(new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'}, 0, png, 0, 8);
+        System.arraycopy(body, 0, png, 8, body.length);
+        return png;
+    }
+}
@@ -0,0 +1,150 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.config.CacheConfig;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.mock.web.MockMultipartFile;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the catalog caches.
+ * Checks that a cached read runs no statement, that admin writes evict the caches and that their statistics are
+ * published as metrics.
+ */
+@TestPropertySource(properties = "storage.location=test-assets-catalog")
+class MovieCatalogServiceTest extends AbstractIntegrationTest {
+
+    private static final Path ROOT = Path.of("test-assets-catalog");
+
+    @Autowired
+    private MovieCatalogService movieCatalogService;
+
+    @Autowired
+    private MovieAdminService movieAdminService;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private final List<Integer> created = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        for (String name : cacheManager.getCacheNames()) {
+            cacheManager.getCache(name).clear();
+        }
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        for (Integer id : created) {
+            movieAdminService.delete(id);
+        }
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    @DisplayName("Should answer a repeated read from the cache without a statement")
+    void shouldServeRepeatedReadFromCache() {
+        // Given
+        create("Cached");
+        List<Movie> first = movieCatalogService.findLatestReleases(5);
+        movieCatalogService.findPage(PageRequest.of(0, 5));
+
+        // When / Then
+        try (QueryCount queries = QueryCount.start()) {
+            assertThat(movieCatalogService.findLatestReleases(5)).isSameAs(first);
+            movieCatalogService.findPage(PageRequest.of(0, 5));
+            queries.assertStatements(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should evict the caches when a movie is created or deleted")
+    void shouldEvictCachesOnAdminWrites() {
+        // Given
+        movieCatalogService.findLatestReleases(5);
+
+        // When
+        Movie movie = create("Evicting");
+
+        // Then
+        assertThat(movieCatalogService.findLatestReleases(5)).extracting(Movie::getId).contains(movie.getId());
+        assertThat(movieCatalogService.findPage(PageRequest.of(0, 100)).getContent())
+                .extracting(Movie::getId).contains(movie.getId());
+
+        // When
+        movieAdminService.delete(movie.getId());
+        created.remove(movie.getId());
+
+        // Then
+        assertThat(movieCatalogService.findLatestReleases(5)).extracting(Movie::getId).doesNotContain(movie.getId());
+        assertThat(movieCatalogService.findPage(PageRequest.of(0, 100)).getContent())
+                .extracting(Movie::getId).doesNotContain(movie.getId());
+    }
+
+    @Test
+    @DisplayName("Should publish hits and misses of the catalog caches as cache.gets")
+    void shouldPublishCacheMetrics() {
+        // Given
+        double hits = gets(CacheConfig.LATEST_RELEASES, "hit");
+        double misses = gets(CacheConfig.LATEST_RELEASES, "miss");
+
+        // When
+        movieCatalogService.findLatestReleases(3);
+        movieCatalogService.findLatestReleases(3);
+
+        // Then
+        assertThat(gets(CacheConfig.LATEST_RELEASES, "miss")).isEqualTo(misses + 1);
+        assertThat(gets(CacheConfig.LATEST_RELEASES, "hit")).isEqualTo(hits + 1);
+        assertThat(meterRegistry.find("cache.gets").tag("cache", CacheConfig.MOVIE_PAGES).functionCounters())
+                .isNotEmpty();
+    }
+
+    private double gets(String cache, String result) {
+        FunctionCounter counter = meterRegistry.find("cache.gets").tag("cache", cache).tag("result", result)
+                .functionCounter();
+        assertThat(counter).as("cache.gets for %s %s", cache, result).isNotNull();
+        return counter.count();
+    }
+
+    private Movie create(String title) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        movie.setSinopsis("Synopsis");
+        // Newest of the catalog, so it opens the latest releases
+        movie.setPremiereDate(LocalDate.now().plusYears(1));
+        movie.setYoutubeTrailerId("trailer");
+        movie.setGenres(new ArrayList<>(List.of(genreRepository.getReferenceById(1))));
+        movie.setFrontPage(new MockMultipartFile("frontPage", "cover.png", "image/png",
+                new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 1}));
+        movie = movieAdminService.create(movie);
+        created.add(movie.getId());
+        return movie;
+    }
+}
@@ -0,0 +1,130 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieImportErrorRepository;
+import id.my.hendisantika.movietrailer.repository.MovieImportRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Integration tests for the streaming movie export.
+ * Checks that the catalog comes off a single query and that an export imports back unchanged.
+ */
+class MovieExportServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MovieExportService movieExportService;
+
+    @Autowired
+    private MovieImportService movieImportService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private MovieImportRepository movieImportRepository;
+
+    @Autowired
+    private MovieImportErrorRepository movieImportErrorRepository;
+
+    private Set<Integer> existing;
+
+    @BeforeEach
+    void setUp() {
+        movieImportErrorRepository.deleteAll();
+        movieImportRepository.deleteAll();
+        existing = movieIds();
+        List<Genre> genres = List.of(genreRepository.findById(1).orElseThrow(),
+                genreRepository.findById(2).orElseThrow());
+        List<Movie> movies = new ArrayList<>();
+        for (int i = 0; i < 30; i++) {
+            Movie movie = new Movie();
+            movie.setTitle("Movie, \"" + i + "\"");
+            movie.setSinopsis("Synopsis\nover two lines");
+            movie.setPremiereDate(LocalDate.of(2020, 1, 1).plusDays(i));
+            movie.setYoutubeTrailerId("yt" + i);
+            movie.setGenres(i % 2 == 0 ? genres : List.of(genres.get(1)));
+            movies.add(movie);
+        }
+        movieRepository.saveAll(movies);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the movies this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.deleteAllById(movieIds().stream().filter(id -> !existing.contains(id)).toList());
+    }
+
+    @Test
+    @DisplayName("Should stream the whole catalog, genres included, from one query")
+    void shouldExportWithOneQuery() {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        long written;
+        try (QueryCount queries = QueryCount.start()) {
+            written = movieExportService.export(MovieImport.Format.NDJSON, output);
+
+            // Then
+            queries.assertStatements(1);
+        }
+        List<String> lines = output.toString(StandardCharsets.UTF_8).lines().toList();
+        assertThat(written).isEqualTo(30);
+        assertThat(lines).hasSize(30);
+        assertThat(lines.getFirst()).contains("\"title\":\"Movie, \\\"0\\\"\"", "\"genres\":[1,2]");
+    }
+
+    @Test
+    @DisplayName("Should export CSV that the import reads back into the same catalog")
+    void shouldRoundTripThroughImport() {
+        // Given
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        movieExportService.export(MovieImport.Format.CSV, output);
+        List<Movie> exported = movieRepository.findAll();
+        movieRepository.deleteAll(exported);
+
+        // When
+        MovieImport job = movieImportService.importMovies(new ByteArrayInputStream(output.toByteArray()),
+                MovieImport.Format.CSV, "export", null);
+
+        // Then
+        assertThat(job.getStatus()).isEqualTo(MovieImport.Status.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(30);
+        assertThat(job.getRejected()).isZero();
+        assertThat(movieRepository.findAll())
+                .extracting(Movie::getTitle, Movie::getSinopsis, Movie::getPremiereDate, Movie::getYoutubeTrailerId)
+                .containsExactlyInAnyOrderElementsOf(exported.stream()
+                        .map(movie -> tuple(movie.getTitle(), movie.getSinopsis(), movie.getPremiereDate(),
+                                movie.getYoutubeTrailerId()))
+                        .toList());
+    }
+
+    private Set<Integer> movieIds() {
+        return movieRepository.findAll().stream().map(Movie::getId).collect(Collectors.toSet());
+    }
+}
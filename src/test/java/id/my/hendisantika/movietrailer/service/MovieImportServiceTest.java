@@ -0,0 +1,138 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.entity.MovieImport;
+import id.my.hendisantika.movietrailer.entity.MovieImportError;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieImportErrorRepository;
+import id.my.hendisantika.movietrailer.repository.MovieImportRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Limit;
+import org.springframework.test.context.TestPropertySource;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+/**
+ * Integration tests for the bulk movie import.
+ * Checks batched inserts, rejected records, checkpoints and resuming against a changed input.
+ */
+@TestPropertySource(properties = {"movie-import.chunk-size=100", "movie-import.batch-size=50"})
+class MovieImportServiceTest extends AbstractIntegrationTest {
+
+    private static final String HEADER = "title,sinopsis,premiere_date,youtube_trailer_id,genres\n";
+
+    @Autowired
+    private MovieImportService movieImportService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private MovieImportRepository movieImportRepository;
+
+    @Autowired
+    private MovieImportErrorRepository movieImportErrorRepository;
+
+    private Set<Integer> existing;
+
+    @BeforeEach
+    void setUp() {
+        movieImportErrorRepository.deleteAll();
+        movieImportRepository.deleteAll();
+        existing = movieIds();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the movies this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.deleteAllById(movieIds().stream().filter(id -> !existing.contains(id)).toList());
+    }
+
+    @Test
+    @DisplayName("Should batch valid records and report the rejected ones with their record numbers")
+    void shouldImportInBatchesAndReportRejects() {
+        // Given
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 250; i++) {
+            csv.append("\"Movie, ").append(i).append("\",\"Synopsis\nover two lines\",2020-01-01,yt")
+                    .append(i).append(",Action|comedy\n");
+        }
+        csv.append("Bad date,Synopsis,someday,yt,1\n")
+                .append("Bad genre,Synopsis,2020-01-01,yt,Western\n");
+
+        // When
+        MovieImport job;
+        try (QueryCount queries = QueryCount.start()) {
+            job = importCsv(csv.toString(), null);
+
+            // Then: 3 chunks of at most 2 movie batches each, not one insert per movie
+            queries.assertStatementsAtMost(40);
+        }
+        assertThat(job.getStatus()).isEqualTo(MovieImport.Status.COMPLETED);
+        assertThat(job.getImported()).isEqualTo(250);
+        assertThat(job.getRejected()).isEqualTo(2);
+        assertThat(job.getCheckpointRecord()).isEqualTo(252);
+        assertThat(movieRepository.count()).isEqualTo(existing.size() + 250);
+        Movie movie = movieRepository.findWithGenresById(movieRepository.findIdsByTitle(1).getFirst()).orElseThrow();
+        assertThat(movie.getTitle()).isEqualTo("Movie, 0");
+        assertThat(movie.getSinopsis()).isEqualTo("Synopsis\nover two lines");
+        assertThat(movie.getGenres()).extracting(Genre::getTitle).containsExactlyInAnyOrder("ACTION", "COMEDY");
+        assertThat(movieImportErrorRepository.findByImportIdAndRecordNumberGreaterThanOrderByRecordNumber(
+                job.getId(), 0, Limit.of(10)))
+                .extracting(MovieImportError::getRecordNumber, MovieImportError::getMessage)
+                .containsExactly(
+                        tuple(251L, "premiereDate must be an ISO date like 2019-05-30, was someday"),
+                        tuple(252L, "Unknown genre Western"));
+    }
+
+    @Test
+    @DisplayName("Should resume after the checkpoint and refuse an input that differs before it")
+    void shouldResumeFromCheckpoint() {
+        // Given: an import that stopped after its first chunk
+        StringBuilder csv = new StringBuilder(HEADER);
+        for (int i = 0; i < 150; i++) {
+            csv.append("Movie ").append(i).append(",Synopsis,2020-01-01,yt").append(i).append(",1\n");
+        }
+        MovieImport first = importCsv(csv.substring(0, csv.indexOf("Movie 100,")), null);
+        assertThat(first.getCheckpointRecord()).isEqualTo(100);
+        first.setStatus(MovieImport.Status.FAILED);
+        movieImportRepository.save(first);
+
+        // When
+        MovieImport changed = importCsv(csv.toString().replace("Movie 5,", "Movie five,"), first.getId());
+        MovieImport resumed = importCsv(csv.toString(), first.getId());
+
+        // Then
+        assertThat(changed.getStatus()).isEqualTo(MovieImport.Status.FAILED);
+        assertThat(changed.getMessage()).contains("differs");
+        assertThat(resumed.getStatus()).isEqualTo(MovieImport.Status.COMPLETED);
+        assertThat(resumed.getImported()).isEqualTo(150);
+        assertThat(movieRepository.count()).isEqualTo(existing.size() + 150);
+    }
+
+    private Set<Integer> movieIds() {
+        return movieRepository.findAll().stream().map(Movie::getId).collect(Collectors.toSet());
+    }
+
+    private MovieImport importCsv(String csv, Long resume) {
+        return movieImportService.importMovies(new ByteArrayInputStream(csv.getBytes(StandardCharsets.UTF_8)),
+                MovieImport.Format.CSV, "catalog.csv", resume);
+    }
+}
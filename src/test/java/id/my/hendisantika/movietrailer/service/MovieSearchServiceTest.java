@@ -0,0 +1,117 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.bean.override.mockito.MockitoSpyBean;
+
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+
+/**
+ * Integration tests for the full-text movie search.
+ * Checks that a search runs in one transaction and leaves out hits whose movie is deleted before it is loaded.
+ * Runs the real Flyway migrations in a dedicated schema, which is where the search_vector column comes from.
+ */
+@SpringBootTest(properties = {
+        "spring.flyway.enabled=true",
+        "spring.flyway.schemas=search_test",
+        "spring.flyway.default-schema=search_test",
+        "spring.flyway.clean-disabled=false",
+        "spring.datasource.hikari.schema=search_test",
+        "spring.jpa.hibernate.ddl-auto=none"
+})
+class MovieSearchServiceTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MovieSearchService movieSearchService;
+
+    @MockitoSpyBean
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    private Integer quokka;
+
+    private Integer quokkaSequel;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate.update("delete from movie where title like 'Quokka%'");
+        quokka = insert("Quokka", "A quokka smiles at every tourist on the island.");
+        quokkaSequel = insert("Quokka Returns", "The quokka is back on the island.");
+    }
+
+    @Test
+    @DisplayName("Should read the hits and their movies in one session and one transaction")
+    void shouldSearchInOneTransaction() {
+        // Given
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+
+        // When
+        MovieSearchResults results = movieSearchService.search("quokka", null, 20);
+
+        // Then
+        assertThat(results.hits()).extracting(hit -> hit.movie().getId())
+                .containsExactlyInAnyOrder(quokka, quokkaSequel);
+        assertThat(statistics.getSessionOpenCount()).isEqualTo(1);
+        assertThat(statistics.getTransactionCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should leave out a hit whose movie is deleted before the movies are loaded")
+    void shouldSkipHitDeletedBeforeLoad() {
+        // Given: another transaction deletes a hit between the search and the load
+        doAnswer(invocation -> {
+            CompletableFuture.runAsync(() -> jdbcTemplate.update("delete from movie where id = ?", quokka)).join();
+            return invocation.callRealMethod();
+        }).when(movieRepository).findAllWithGenresInOrder(anyList());
+
+        // When
+        MovieSearchResults results = movieSearchService.search("quokka", null, 20);
+
+        // Then
+        assertThat(results.hits()).extracting(hit -> hit.movie().getId()).containsExactly(quokkaSequel);
+    }
+
+    private Integer insert(String title, String sinopsis) {
+        jdbcTemplate.update("insert into movie (title, sinopsis, premiere_date, youtube_trailer_id, route_cover)"
+                + " values (?, ?, ?, ?, ?)", title, sinopsis, Date.valueOf(LocalDate.of(2020, 1, 1)), "trailer",
+                "cover.jpg");
+        return jdbcTemplate.queryForObject("select id from movie where title = ?", Integer.class, title);
+    }
+
+    @TestConfiguration
+    static class CleanSchema {
+        // The schema is dedicated to these tests, so start from scratch on every run
+        @Bean
+        FlywayMigrationStrategy cleanMigrate() {
+            return (Flyway flyway) -> {
+                flyway.clean();
+                flyway.migrate();
+            };
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.entity.StorageReconcile;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import id.my.hendisantika.movietrailer.repository.StorageReconcileRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the storage reconciler.
+ * Checks quarantine after the grace period, restore, reclaim, missing covers and the checkpoint.
+ */
+@TestPropertySource(properties = {"storage.location=test-assets-reconcile", "storage.reconcile.enabled=true",
+        "storage.reconcile.initial-delay=1d", "storage.reconcile.page-size=2"})
+class StorageReconcilerTest extends AbstractIntegrationTest {
+
+    private static final int ALL_SHARDS = 257;
+
+    private static final String REFERENCED = "ab".repeat(32) + ".png";
+
+    private static final String ORPHAN = "ab" + "cd".repeat(31) + ".jpg";
+
+    private static final String MISSING = "ff".repeat(32) + ".png";
+
+    private static final Path ROOT = Path.of("test-assets-reconcile");
+
+    @Autowired
+    private StorageReconciler storageReconciler;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private StorageReconcileRepository storageReconcileRepository;
+
+    private final List<Movie> movies = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+        storageReconcileRepository.deleteAll();
+        saveMovie(REFERENCED);
+        saveMovie(MISSING);
+        saveMovie("https://example.com/cover.png");
+        write(REFERENCED, Duration.ofDays(30));
+        write("ab".repeat(32) + "@sm.jpg", Duration.ofDays(30));
+        write(ORPHAN, Duration.ofHours(2));
+        write("cd".repeat(32) + "@md.jpg", Duration.ofHours(2));
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+        // Only the movies this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.deleteAll(movies);
+    }
+
+    @Test
+    @DisplayName("Should quarantine old orphans and their renditions, keep young ones and report missing covers")
+    void shouldQuarantineOrphansAndReportMissing() throws IOException {
+        // Given
+        String young = "cd".repeat(32) + ".png";
+        write(young, Duration.ZERO);
+
+        // When
+        ReconcileReport report = storageReconciler.reconcile(ALL_SHARDS);
+
+        // Then
+        assertThat(report.shards()).isEqualTo(ALL_SHARDS);
+        assertThat(report.quarantined()).isEqualTo(2);
+        assertThat(report.missing()).isEqualTo(1);
+        assertThat(warehouseService.fileUpload(REFERENCED)).exists();
+        assertThat(warehouseService.fileUpload(ORPHAN)).doesNotExist();
+        assertThat(warehouseService.fileUpload(young)).exists();
+        assertThat(ROOT.resolve(StorageReconciler.QUARANTINE).resolve("ab/cd").resolve(ORPHAN)).exists();
+        StorageReconcile checkpoint = storageReconcileRepository.findById(StorageReconcile.CHECKPOINT_ID).orElseThrow();
+        assertThat(checkpoint.getCycle()).isEqualTo(1);
+        assertThat(checkpoint.getNextShard()).isZero();
+        assertThat(checkpoint.getMissing()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should resume from the checkpoint, restore a cover referenced again and reclaim expired ones")
+    void shouldRestoreAndReclaimFromQuarantine() throws IOException {
+        // Given: the first half of a cycle, then the rest
+        storageReconciler.reconcile(0xab + 1);
+        assertThat(storageReconcileRepository.findById(StorageReconcile.CHECKPOINT_ID).orElseThrow().getNextShard())
+                .isEqualTo(0xac);
+        storageReconciler.reconcile(ALL_SHARDS - 0xac);
+        Path quarantine = ROOT.resolve(StorageReconciler.QUARANTINE);
+        Path rendition = quarantine.resolve("cd/cd").resolve("cd".repeat(32) + "@md.jpg");
+        Files.setLastModifiedTime(rendition, FileTime.from(Instant.now().minus(Duration.ofDays(8))));
+        saveMovie(ORPHAN);
+
+        // When
+        ReconcileReport report = storageReconciler.reconcile(ALL_SHARDS);
+
+        // Then
+        assertThat(report.restored()).isEqualTo(1);
+        assertThat(report.reclaimed()).isEqualTo(1);
+        assertThat(warehouseService.fileUpload(ORPHAN)).exists();
+        assertThat(rendition).doesNotExist();
+    }
+
+    @Test
+    @DisplayName("Should keep an old orphan an upload just reused, without changing the blob's modification time")
+    void shouldKeepOrphanReusedByUpload() throws Exception {
+        // Given
+        byte[] png = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', 7};
+        String name = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(png)) + ".png";
+        Path blob = warehouseService.fileUpload(name);
+        Files.createDirectories(blob.getParent());
+        Files.write(blob, png);
+        FileTime stored = FileTime.from(Instant.now().minus(Duration.ofDays(30)));
+        Files.setLastModifiedTime(blob, stored);
+
+        // When
+        String reused = warehouseService.storeStream(new ByteArrayInputStream(png), "cover.png");
+        storageReconciler.reconcile(ALL_SHARDS);
+
+        // Then
+        assertThat(reused).isEqualTo(name);
+        assertThat(blob).exists();
+        assertThat(Files.getLastModifiedTime(blob)).isEqualTo(stored);
+    }
+
+    private void saveMovie(String routeCover) {
+        Movie movie = new Movie();
+        movie.setTitle("Movie " + routeCover);
+        movie.setSinopsis("Synopsis");
+        movie.setPremiereDate(LocalDate.now());
+        movie.setYoutubeTrailerId("trailer");
+        movie.setRouteCover(routeCover);
+        movie.setGenres(List.of(genreRepository.getReferenceById(1)));
+        movies.add(movieRepository.save(movie));
+    }
+
+    private void write(String name, Duration age) throws IOException {
+        Path file = name.contains("@")
+                ? warehouseService.derivativeFile(name.substring(0, name.indexOf('@')) + ".png",
+                CoverSize.fromKey(name.substring(name.indexOf('@') + 1, name.indexOf('.'))).orElseThrow())
+                : warehouseService.fileUpload(name);
+        Files.createDirectories(file.getParent());
+        Files.write(file, new byte[]{1});
+        Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(age)));
+    }
+}
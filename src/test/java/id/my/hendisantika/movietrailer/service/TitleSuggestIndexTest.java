@@ -0,0 +1,160 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the title typeahead index.
+ * Checks prefix, word and typo-tolerant matches and that admin writes and writes made elsewhere are picked up.
+ */
+class TitleSuggestIndexTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private TitleSuggestIndex titleSuggestIndex;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private CatalogVersion catalogVersion;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final List<Movie> created = new ArrayList<>();
+
+    private Genre action;
+
+    @BeforeEach
+    void setUp() {
+        // A genre seeded at startup, shared with every other test
+        action = genreRepository.findById(1).orElseThrow();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the rows this test created, then an index without them
+        movieRepository.deleteAll(created);
+        titleSuggestIndex.build();
+    }
+
+    @Test
+    @DisplayName("Should suggest titles by prefix, by later word and despite a typo")
+    void shouldSuggestTitles() {
+        // Given
+        Movie matrix = save(createMovie("The Matrix"));
+        Movie amelie = save(createMovie("Amélie"));
+        Movie interstellar = save(createMovie("Interstellar"));
+        titleSuggestIndex.build();
+
+        // When / Then
+        assertThat(titleSuggestIndex.suggest("the m", 8)).extracting(TitleSuggestion::id).containsExactly(matrix.getId());
+        assertThat(titleSuggestIndex.suggest("matr", 8)).extracting(TitleSuggestion::id).containsExactly(matrix.getId());
+        assertThat(titleSuggestIndex.suggest("ame", 8)).extracting(TitleSuggestion::id).containsExactly(amelie.getId());
+        assertThat(titleSuggestIndex.suggest("intersetl", 8)).extracting(TitleSuggestion::id)
+                .containsExactly(interstellar.getId());
+    }
+
+    @Test
+    @DisplayName("Should follow renamed and deleted movies")
+    void shouldFollowAdminWrites() {
+        // Given
+        Movie movie = save(createMovie("Inception"));
+        titleSuggestIndex.build();
+
+        // When
+        movie.setTitle("Tenet");
+        movieRepository.save(movie);
+        titleSuggestIndex.onMovieChanged(new MovieChangedEvent(movie.getId(), MovieChangedEvent.ChangeType.UPDATED));
+
+        // Then
+        assertThat(titleSuggestIndex.suggest("ince", 8)).isEmpty();
+        assertThat(titleSuggestIndex.suggest("ten", 8)).extracting(TitleSuggestion::title).containsExactly("Tenet");
+
+        // When
+        movieRepository.delete(movie);
+        titleSuggestIndex.onMovieChanged(new MovieChangedEvent(movie.getId(), MovieChangedEvent.ChangeType.DELETED));
+
+        // Then
+        assertThat(titleSuggestIndex.suggest("ten", 8)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should pick up a title written by another process on the next refresh")
+    void shouldRefreshAfterWriteElsewhere() {
+        // Given
+        titleSuggestIndex.build();
+
+        // When: committed with the catalog revision bumped and no event published here
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            save(createMovie("Oppenheimer"));
+            catalogVersion.bump();
+        });
+        titleSuggestIndex.refresh();
+
+        // Then
+        assertThat(titleSuggestIndex.suggest("oppen", 8)).extracting(TitleSuggestion::title)
+                .containsExactly("Oppenheimer");
+    }
+
+    @Test
+    @DisplayName("Should not rebuild for revisions its own patches applied")
+    void shouldNotRebuildAfterLocalPatch() {
+        // Given
+        titleSuggestIndex.build();
+        long revision = new TransactionTemplate(transactionManager).execute(status -> {
+            save(createMovie("Dunkirk"));
+            return catalogVersion.bump();
+        });
+        titleSuggestIndex.onMovieChanged(new MovieChangedEvent(created.getLast().getId(),
+                MovieChangedEvent.ChangeType.CREATED, true, revision));
+
+        // When
+        try (QueryCount queries = QueryCount.start()) {
+            titleSuggestIndex.refresh();
+
+            // Then: the revision is read, the titles are not
+            queries.assertStatements(1);
+        }
+        assertThat(titleSuggestIndex.suggest("dunk", 8)).extracting(TitleSuggestion::title)
+                .containsExactly("Dunkirk");
+    }
+
+    private Movie save(Movie movie) {
+        Movie saved = movieRepository.save(movie);
+        created.add(saved);
+        return saved;
+    }
+
+    private Movie createMovie(String title) {
+        Movie movie = new Movie();
+        movie.setTitle(title);
+        movie.setSinopsis("Synopsis of " + title);
+        movie.setPremiereDate(LocalDate.of(2020, 1, 1));
+        movie.setYoutubeTrailerId("trailer");
+        movie.setRouteCover("/covers/default.jpg");
+        movie.setGenres(new ArrayList<>(List.of(action)));
+        return movie;
+    }
+}
@@ -0,0 +1,178 @@
+package id.my.hendisantika.movietrailer.service;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.exception.FileNotFoundException;
+import id.my.hendisantika.movietrailer.exception.InvalidFileException;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Integration tests for the cover store.
+ * Checks the sharded content-addressed layout, deduplication, the image signature check, quarantining on delete,
+ * restoring on load and path traversal.
+ */
+@TestPropertySource(properties = "storage.location=test-assets-warehouse")
+class WarehouseServiceTest extends AbstractIntegrationTest {
+
+    private static final Path ROOT = Path.of("test-assets-warehouse");
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    private final List<Movie> movies = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+        Files.createDirectories(ROOT);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        movieRepository.deleteAll(movies);
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    @DisplayName("Should store an upload under the hash of its content, two directory levels deep")
+    void shouldStoreUnderShardedHash() throws Exception {
+        // Given
+        byte[] content = png(1);
+        String hash = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+
+        // When
+        String filename = warehouseService.storeStream(new ByteArrayInputStream(content), "Poster.PNG");
+
+        // Then
+        assertThat(filename).isEqualTo(hash + ".png");
+        Path archive = ROOT.resolve(hash.substring(0, 2)).resolve(hash.substring(2, 4)).resolve(filename);
+        assertThat(warehouseService.fileUpload(filename)).isEqualTo(archive);
+        assertThat(archive).hasBinaryContent(content);
+    }
+
+    @Test
+    @DisplayName("Should keep one blob for identical uploads and leave no temp file behind")
+    void shouldDeduplicateIdenticalContent() throws IOException {
+        // Given
+        String first = warehouseService.storeStream(new ByteArrayInputStream(png(2)), "first.png");
+
+        // When
+        String second = warehouseService.storeStream(new ByteArrayInputStream(png(2)), "second.png");
+
+        // Then
+        assertThat(second).isEqualTo(first);
+        assertThat(warehouseService.fileUpload(first)).hasBinaryContent(png(2));
+        try (Stream<Path> files = Files.walk(ROOT)) {
+            assertThat(files.map(file -> file.getFileName().toString()))
+                    .noneMatch(name -> name.startsWith(".upload-"));
+        }
+    }
+
+    @Test
+    @DisplayName("Should reject content that is not a JPEG, PNG, GIF or WebP image")
+    void shouldRejectUnknownSignature() throws IOException {
+        // Given
+        byte[] script = "<script>alert(1)</script>".getBytes(StandardCharsets.UTF_8);
+
+        // When / Then
+        assertThatThrownBy(() -> warehouseService.storeStream(new ByteArrayInputStream(script), "cover.png"))
+                .isInstanceOf(InvalidFileException.class);
+        try (Stream<Path> files = Files.list(ROOT)) {
+            assertThat(files).isEmpty();
+        }
+    }
+
+    @Test
+    @DisplayName("Should quarantine a deleted cover only once no movie references it")
+    void shouldQuarantineOnlyUnreferencedBlobs() throws IOException {
+        // Given
+        String referenced = warehouseService.storeStream(new ByteArrayInputStream(png(3)), "referenced.png");
+        String unreferenced = warehouseService.storeStream(new ByteArrayInputStream(png(4)), "unreferenced.png");
+        saveMovie(referenced);
+
+        // When
+        warehouseService.deleteArchive(referenced);
+        warehouseService.deleteArchive(unreferenced);
+
+        // Then
+        assertThat(warehouseService.fileUpload(referenced)).exists();
+        assertThat(warehouseService.quarantineFile(referenced)).doesNotExist();
+        assertThat(warehouseService.fileUpload(unreferenced)).doesNotExist();
+        assertThat(warehouseService.quarantineFile(unreferenced)).hasBinaryContent(png(4));
+    }
+
+    @Test
+    @DisplayName("Should restore a quarantined cover on load once it is referenced again, and only then")
+    void shouldRestoreReferencedBlobOnLoad() throws IOException {
+        // Given
+        String restored = warehouseService.storeStream(new ByteArrayInputStream(png(5)), "restored.png");
+        String released = warehouseService.storeStream(new ByteArrayInputStream(png(6)), "released.png");
+        warehouseService.deleteArchive(restored);
+        warehouseService.deleteArchive(released);
+        saveMovie(restored);
+
+        // When
+        Path archive = warehouseService.loadFile(restored);
+
+        // Then
+        assertThat(archive).hasBinaryContent(png(5));
+        assertThat(warehouseService.quarantineFile(restored)).doesNotExist();
+        assertThatThrownBy(() -> warehouseService.loadFile(released)).isInstanceOf(FileNotFoundException.class);
+        assertThat(warehouseService.quarantineFile(released)).exists();
+    }
+
+    @Test
+    @DisplayName("Should refuse to load a file outside the storage location")
+    void shouldRejectPathTraversal() {
+        // When / Then: the project's pom.xml sits right above the storage location
+        assertThat(Path.of("pom.xml")).exists();
+        assertThatThrownBy(() -> warehouseService.loadFile("../pom.xml")).isInstanceOf(FileNotFoundException.class);
+        assertThatThrownBy(() -> warehouseService.loadFile("/etc/passwd"))
+                .isInstanceOf(FileNotFoundException.class);
+    }
+
+    private void saveMovie(String routeCover) {
+        Movie movie = new Movie();
+        movie.setTitle("Movie " + routeCover);
+        movie.setSinopsis("Synopsis");
+        movie.setPremiereDate(LocalDate.now());
+        movie.setYoutubeTrailerId("trailer");
+        movie.setRouteCover(routeCover);
+        movie.setGenres(List.of(genreRepository.getReferenceById(1)));
+        movies.add(movieRepository.save(movie));
+    }
+
+    // The PNG signature followed by a marker byte, so each marker hashes to its own name
+    private static byte[] png(int marker) {
+        return new byte[]{(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n', (byte) marker};
+    }
+}
@@ -0,0 +1,156 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.metrics.QueryCount;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.cache.CacheManager;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Pins the number of SQL statements each catalog page costs on a cold cache, and on a warm second-level cache.
+ * A failure lists the statements by shape, so a new N+1 shows up by name.
+ */
+@AutoConfigureMockMvc
+class EndpointQueryCountTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Autowired
+    private CacheManager cacheManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    private final List<Movie> movies = new ArrayList<>();
+
+    private Movie movie;
+
+    @BeforeEach
+    void setUp() {
+        Genre action = genreRepository.findById(1).orElseThrow();
+        Genre comedy = genreRepository.findById(2).orElseThrow();
+        for (int i = 0; i < 6; i++) {
+            Movie created = new Movie();
+            created.setTitle("Movie " + i);
+            created.setSinopsis("Synopsis " + i);
+            created.setPremiereDate(LocalDate.now().minusDays(i));
+            created.setYoutubeTrailerId("trailer" + i);
+            created.setRouteCover("/covers/default.jpg");
+            created.setGenres(new ArrayList<>(List.of(action, comedy)));
+            movie = movieRepository.save(created);
+            movies.add(movie);
+        }
+        pageCache.clear();
+        clearCaches();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the movies this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.deleteAll(movies);
+    }
+
+    @Test
+    @DisplayName("Should render the home page with the latest ids and one fetch of their genres")
+    void shouldRenderHomeInTwoStatements() throws Exception {
+        // Given
+        try (QueryCount queries = QueryCount.start()) {
+            // When
+            mockMvc.perform(get("/")).andExpect(status().isOk());
+
+            // Then
+            queries.assertStatements(2).assertNoRepeatedStatements();
+        }
+    }
+
+    @Test
+    @DisplayName("Should render a movie window with its ids, one fetch of the movies and the genre list")
+    void shouldRenderMovieWindowInThreeStatements() throws Exception {
+        // Given
+        try (QueryCount queries = QueryCount.start()) {
+            // When
+            mockMvc.perform(get("/movies")).andExpect(status().isOk());
+
+            // Then
+            queries.assertStatements(3).assertNoRepeatedStatements();
+        }
+    }
+
+    @Test
+    @DisplayName("Should render a movie with its genres in a single statement")
+    void shouldRenderMovieInOneStatement() throws Exception {
+        // Given
+        try (QueryCount queries = QueryCount.start()) {
+            // When
+            mockMvc.perform(get("/movies/" + movie.getId())).andExpect(status().isOk());
+
+            // Then
+            queries.assertStatements(1);
+        }
+    }
+
+    @Test
+    @DisplayName("Should render a movie without a statement once it is in the second-level cache")
+    void shouldRenderWarmMovieWithoutStatements() throws Exception {
+        // Given
+        mockMvc.perform(get("/movies/" + movie.getId())).andExpect(status().isOk());
+        pageCache.clear();
+
+        try (QueryCount queries = QueryCount.start()) {
+            // When
+            mockMvc.perform(get("/movies/" + movie.getId())).andExpect(status().isOk());
+
+            // Then
+            queries.assertStatements(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Should render the new movie form without a statement once the genre list is cached")
+    void shouldRenderNewMovieFormFromCachedGenres() throws Exception {
+        // Given
+        mockMvc.perform(get("/admin/movies/new")).andExpect(status().isOk());
+
+        try (QueryCount queries = QueryCount.start()) {
+            // When
+            mockMvc.perform(get("/admin/movies/new")).andExpect(status().isOk());
+
+            // Then
+            queries.assertStatements(0);
+        }
+    }
+
+    private void clearCaches() {
+        pageCache.clear();
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).clear());
+        entityManagerFactory.unwrap(SessionFactory.class).getCache().evictAllRegions();
+    }
+}
@@ -0,0 +1,124 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.event.MovieChangedEvent;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the rendered page cache.
+ * Checks hits, gzip variants, conditional requests and purging after admin writes.
+ */
+@AutoConfigureMockMvc
+class PageCacheFilterTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private Movie movie;
+
+    @BeforeEach
+    void setUp() {
+        Genre action = genreRepository.findById(1).orElseThrow();
+        movie = new Movie();
+        movie.setTitle("The Matrix");
+        movie.setSinopsis("A hacker learns the truth");
+        movie.setPremiereDate(LocalDate.of(1999, 3, 31));
+        movie.setYoutubeTrailerId("trailer");
+        movie.setRouteCover("/covers/default.jpg");
+        movie.setGenres(new ArrayList<>(List.of(action)));
+        movie = movieRepository.save(movie);
+        pageCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the movie this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.delete(movie);
+    }
+
+    @Test
+    @DisplayName("Should serve a cached movie page with strong ETags, gzip when accepted and 304 responses")
+    void shouldServeCachedPage() throws Exception {
+        // Given
+        String path = "/movies/" + movie.getId();
+        MvcResult miss = mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Page-Cache", "MISS"))
+                .andReturn();
+        String etag = miss.getResponse().getHeader(HttpHeaders.ETAG);
+
+        // When / Then
+        mockMvc.perform(get(path))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Page-Cache", "HIT"))
+                .andExpect(header().string(HttpHeaders.ETAG, etag));
+        mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "gzip"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "*"))
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+        mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "gzip;q=0, *"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get(path).header(HttpHeaders.ACCEPT_ENCODING, "br, gzip; q=0.0"))
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+        mockMvc.perform(get(path).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("Should purge the movie page and only the listings that show it")
+    void shouldPurgeAffectedPages() throws Exception {
+        // Given
+        String path = "/movies/" + movie.getId();
+        mockMvc.perform(get(path));
+        mockMvc.perform(get("/movies"));
+        mockMvc.perform(get("/movies").param("genre", "2"));
+
+        // When
+        eventPublisher.publishEvent(new MovieChangedEvent(movie.getId(), MovieChangedEvent.ChangeType.UPDATED, false));
+
+        // Then
+        mockMvc.perform(get(path)).andExpect(header().string("X-Page-Cache", "MISS"));
+        mockMvc.perform(get("/movies")).andExpect(header().string("X-Page-Cache", "MISS"));
+        mockMvc.perform(get("/movies").param("genre", "2")).andExpect(header().string("X-Page-Cache", "HIT"));
+
+        // When
+        eventPublisher.publishEvent(new MovieChangedEvent(movie.getId(), MovieChangedEvent.ChangeType.UPDATED));
+
+        // Then
+        mockMvc.perform(get("/movies").param("genre", "2")).andExpect(header().string("X-Page-Cache", "MISS"));
+    }
+}
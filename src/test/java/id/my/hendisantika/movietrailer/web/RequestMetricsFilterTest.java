@@ -0,0 +1,98 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.entity.Genre;
+import id.my.hendisantika.movietrailer.entity.Movie;
+import id.my.hendisantika.movietrailer.repository.GenreRepository;
+import id.my.hendisantika.movietrailer.repository.MovieRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the per-route request metrics.
+ * Checks that statements, loaded entities and render time are recorded under the route pattern.
+ */
+@AutoConfigureMockMvc
+class RequestMetricsFilterTest extends AbstractIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @Autowired
+    private PageCache pageCache;
+
+    @Autowired
+    private MovieRepository movieRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    private Movie movie;
+
+    @BeforeEach
+    void setUp() {
+        Genre action = genreRepository.findById(1).orElseThrow();
+        movie = new Movie();
+        movie.setTitle("Parasite");
+        movie.setSinopsis("A poor family schemes its way into a rich household");
+        movie.setPremiereDate(LocalDate.of(2019, 5, 30));
+        movie.setYoutubeTrailerId("trailer");
+        movie.setRouteCover("/covers/default.jpg");
+        movie.setGenres(new ArrayList<>(List.of(action)));
+        movie = movieRepository.save(movie);
+        pageCache.clear();
+    }
+
+    @AfterEach
+    void tearDown() {
+        // Only the movie this test created, so the seeded genres stay for the tests that run after it
+        movieRepository.delete(movie);
+    }
+
+    @Test
+    @DisplayName("Should record statements, loaded entities and render time under the route pattern")
+    void shouldRecordPerRouteMetrics() throws Exception {
+        // Given
+        String route = "/movies/{id}";
+        long requestsBefore = statements(route).count();
+
+        // When
+        mockMvc.perform(get("/movies/" + movie.getId())).andExpect(status().isOk());
+
+        // Then
+        assertThat(statements(route).count()).isEqualTo(requestsBefore + 1);
+        assertThat(statements(route).max()).isPositive();
+        assertThat(meterRegistry.get("http.server.requests.entities.loaded").tag("uri", route)
+                .summary().totalAmount()).isPositive();
+        assertThat(meterRegistry.get("view.render").tag("uri", route).tag("view", "movie")
+                .timer().count()).isPositive();
+        assertThat(meterRegistry.find("http.server.requests.connection.wait").tag("uri", route)
+                .timers()).extracting(Timer::count).isNotEmpty();
+    }
+
+    private DistributionSummary statements(String route) {
+        return DistributionSummary.builder("http.server.requests.statements")
+                .tag("uri", route)
+                .tag("method", "GET")
+                .register(meterRegistry);
+    }
+}
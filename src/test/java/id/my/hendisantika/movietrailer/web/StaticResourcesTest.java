@@ -0,0 +1,61 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Integration tests for the static resource chain.
+ * Checks fingerprinted links, precompressed responses and the cache headers on both kinds of names.
+ */
+@AutoConfigureMockMvc
+class StaticResourcesTest extends AbstractIntegrationTest {
+
+    private static final Pattern STYLESHEET = Pattern.compile("/css/cinema-theme-[0-9a-f]{32}\\.css");
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @DisplayName("Should link fingerprinted names and serve them precompressed and immutable")
+    void shouldServeFingerprintedResources() throws Exception {
+        // Given
+        String page = mockMvc.perform(get("/"))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        Matcher stylesheet = STYLESHEET.matcher(page);
+        assertThat(stylesheet.find()).isTrue();
+
+        // When / Then
+        mockMvc.perform(get(stylesheet.group()).header(HttpHeaders.ACCEPT_ENCODING, "gzip, br"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+                .andExpect(header().string(HttpHeaders.VARY, containsString(HttpHeaders.ACCEPT_ENCODING)))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "max-age=31536000, public, immutable"));
+    }
+
+    @Test
+    @DisplayName("Should revalidate plain names and refuse a stale fingerprint")
+    void shouldRevalidatePlainNames() throws Exception {
+        // When / Then
+        mockMvc.perform(get("/css/cinema-theme.css"))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache, public"));
+        mockMvc.perform(get("/css/cinema-theme-" + "0".repeat(32) + ".css"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,295 @@
+package id.my.hendisantika.movietrailer.web;
+
+import id.my.hendisantika.movietrailer.config.AbstractIntegrationTest;
+import id.my.hendisantika.movietrailer.service.StoredMultipartFile;
+import id.my.hendisantika.movietrailer.service.WarehouseService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.context.request.ServletWebRequest;
+import org.springframework.web.method.annotation.RequestParamMethodArgumentResolver;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.multipart.MultipartHttpServletRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Integration tests for the streaming multipart filter.
+ * Checks stored parts, binding against them and the 413, 415 and 400 rejections.
+ */
+@TestPropertySource(properties = {"storage.location=test-assets-upload", "spring.servlet.multipart.max-file-size=1KB",
+        "spring.servlet.multipart.max-request-size=8KB"})
+class StreamingUploadFilterTest extends AbstractIntegrationTest {
+
+    private static final Path ROOT = Path.of("test-assets-upload");
+
+    private static final String BOUNDARY = "movie-trailer-boundary";
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1a, '\n', 0, 0, 0, 13};
+
+    @Autowired
+    private FilterRegistrationBean<StreamingUploadFilter> streamingUploadFilter;
+
+    @Autowired
+    private WarehouseService warehouseService;
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    private final MockFilterChain chain = new MockFilterChain();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+        Files.createDirectories(ROOT);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        FileSystemUtils.deleteRecursively(ROOT);
+    }
+
+    @Test
+    @DisplayName("Should store file parts in the warehouse and pass the form fields on")
+    void shouldStoreFilePartsAndKeepFields() throws Exception {
+        // Given
+        byte[] cover = image(512);
+        MockHttpServletRequest request = multipart(new Body()
+                .field("title", "The Matrix")
+                .field("genres", "1")
+                .field("genres", "2")
+                .file("frontPage", "cover.PNG", "image/png", cover)
+                .end());
+
+        // When
+        filter(request);
+
+        // Then
+        MultipartHttpServletRequest forwarded = (MultipartHttpServletRequest) chain.getRequest();
+        assertThat(forwarded.getParameter("title")).isEqualTo("The Matrix");
+        assertThat(forwarded.getParameterValues("genres")).containsExactly("1", "2");
+        StoredMultipartFile frontPage = (StoredMultipartFile) forwarded.getFile("frontPage");
+        assertThat(frontPage.isEmpty()).isFalse();
+        assertThat(frontPage.getOriginalFilename()).isEqualTo("cover.PNG");
+        assertThat(frontPage.getStoredName()).matches("[0-9a-f]{64}\\.png");
+        assertThat(frontPage.getBytes()).isEqualTo(cover);
+        assertThat(forwarded.getMultipartContentType("frontPage")).isEqualTo("image/png");
+        assertThat(warehouseService.fileUpload(frontPage.getStoredName())).exists();
+    }
+
+    @Test
+    @DisplayName("Should bind @RequestParam MultipartFile against the stored part")
+    void shouldBindRequestParamToStoredPart() throws Exception {
+        // Given
+        byte[] cover = image(256);
+        filter(multipart(new Body()
+                .field("title", "Inception")
+                .file("frontPage", "cover.png", "image/png", cover)
+                .end()));
+        ServletWebRequest webRequest = new ServletWebRequest((MultipartHttpServletRequest) chain.getRequest());
+        RequestParamMethodArgumentResolver resolver = new RequestParamMethodArgumentResolver(true);
+        MethodParameter file = new MethodParameter(Form.class.getDeclaredMethod("submit", MultipartFile.class,
+                String.class), 0);
+        MethodParameter title = new MethodParameter(file.getMethod(), 1);
+
+        // When
+        Object boundFile = resolver.resolveArgument(file, null, webRequest, null);
+        Object boundTitle = resolver.resolveArgument(title, null, webRequest, null);
+
+        // Then
+        assertThat(boundFile).isInstanceOf(StoredMultipartFile.class);
+        assertThat(((MultipartFile) boundFile).getBytes()).isEqualTo(cover);
+        assertThat(boundTitle).isEqualTo("Inception");
+    }
+
+    @Test
+    @DisplayName("Should hand an empty file part on as an empty file without storing anything")
+    void shouldPassEmptyFilePart() throws Exception {
+        // Given
+        MockHttpServletRequest request = multipart(new Body()
+                .field("title", "Dunkirk")
+                .file("frontPage", "", "application/octet-stream", new byte[0])
+                .end());
+
+        // When
+        filter(request);
+
+        // Then
+        MultipartFile frontPage = ((MultipartHttpServletRequest) chain.getRequest()).getFile("frontPage");
+        assertThat(frontPage.isEmpty()).isTrue();
+        assertThat(frontPage.getSize()).isZero();
+        assertThat(frontPage.getBytes()).isEmpty();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should answer 413 for a file over the size limit and keep nothing of it")
+    void shouldRejectOversizedFile() throws Exception {
+        // Given
+        MockHttpServletRequest request = multipart(new Body()
+                .file("frontPage", "cover.png", "image/png", image(2048))
+                .end());
+
+        // When
+        filter(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should answer 413 for a form field over the field size limit")
+    void shouldRejectOversizedField() throws Exception {
+        // Given
+        MockHttpServletRequest request = multipart(new Body()
+                .field("sinopsis", "a".repeat(64 * 1024 + 1))
+                .end());
+
+        // When: with room in the request, which would otherwise stop the field first
+        new StreamingUploadFilter(warehouseService, 1024, 1024 * 1024).doFilter(request, response, chain);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should answer 413 for more parts than a movie form has")
+    void shouldRejectTooManyParts() throws Exception {
+        // Given
+        Body body = new Body();
+        for (int i = 0; i < 65; i++) {
+            body.field("genres", String.valueOf(i));
+        }
+
+        // When
+        filter(multipart(body.end()));
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(413);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should answer 415 for a file part that is not an image")
+    void shouldRejectNonImageFile() throws Exception {
+        // Given
+        MockHttpServletRequest request = multipart(new Body()
+                .file("frontPage", "cover.png", "image/png", "plain text".getBytes(StandardCharsets.UTF_8))
+                .end());
+
+        // When
+        filter(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(415);
+        assertThat(chain.getRequest()).isNull();
+        assertThat(storedFiles()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Should answer 400 for a body that ends before its closing boundary")
+    void shouldRejectMalformedBody() throws Exception {
+        // Given
+        byte[] body = new Body().field("title", "The Matrix").end();
+        MockHttpServletRequest request = multipart(Arrays.copyOf(body, body.length - BOUNDARY.length() - 8));
+
+        // When
+        filter(request);
+
+        // Then
+        assertThat(response.getStatus()).isEqualTo(400);
+        assertThat(chain.getRequest()).isNull();
+    }
+
+    @Test
+    @DisplayName("Should leave requests that are not multipart to the container")
+    void shouldPassNonMultipartRequest() throws Exception {
+        // Given
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin/movies/1/delete");
+        request.setContentType("application/x-www-form-urlencoded");
+        request.addParameter("confirm", "true");
+
+        // When
+        filter(request);
+
+        // Then
+        assertThat(chain.getRequest()).isSameAs(request);
+        assertThat(response.getStatus()).isEqualTo(200);
+    }
+
+    private void filter(MockHttpServletRequest request) throws Exception {
+        streamingUploadFilter.getFilter().doFilter(request, response, chain);
+    }
+
+    private static MockHttpServletRequest multipart(byte[] body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/admin/movies");
+        request.setContentType("multipart/form-data; boundary=" + BOUNDARY);
+        request.setContent(body);
+        return request;
+    }
+
+    private static byte[] image(int size) {
+        byte[] image = Arrays.copyOf(PNG, size);
+        Arrays.fill(image, PNG.length, size, (byte) 7);
+        return image;
+    }
+
+    private static List<Path> storedFiles() throws IOException {
+        try (Stream<Path> files = Files.walk(ROOT)) {
+            return files.filter(Files::isRegularFile).toList();
+        }
+    }
+
+    private static final class Body {
+        private final ByteArrayOutputStream content = new ByteArrayOutputStream();
+
+        Body field(String name, String value) {
+            return part("Content-Disposition: form-data; name=\"" + name + "\"\r\n",
+                    value.getBytes(StandardCharsets.UTF_8));
+        }
+
+        Body file(String name, String filename, String contentType, byte[] value) {
+            return part("Content-Disposition: form-data; name=\"" + name + "\"; filename=\"" + filename + "\"\r\n"
+                    + "Content-Type: " + contentType + "\r\n", value);
+        }
+
+        byte[] end() {
+            content.writeBytes(("--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.US_ASCII));
+            return content.toByteArray();
+        }
+
+        private Body part(String headers, byte[] value) {
+            content.writeBytes(("--" + BOUNDARY + "\r\n" + headers + "\r\n").getBytes(StandardCharsets.US_ASCII));
+            content.writeBytes(value);
+            content.writeBytes("\r\n".getBytes(StandardCharsets.US_ASCII));
+            return this;
+        }
+    }
+
+    private static final class Form {
+        @SuppressWarnings("unused")
+        void submit(@RequestParam("frontPage") MultipartFile frontPage, @RequestParam("title") String title) {
+        }
+    }
+}